@@ -18,6 +18,29 @@ public final class AppConstants
     // Vitesse de déplacement des pièces en pixels par seconde.
     public static final int VITESSE_PIECE = 25;
 
+    // Temps de réflexion de l'ordinateur pour chaque coup, en millisecondes.
+    public static final int DUREE_COUP_MOTEUR = 500;
+
+    // Taille de la table de transposition de l'ordinateur, en Mo (puissance de 2).
+    public static final int TAILLE_TABLE_TRANSPOSITION = 64;
+
+    // Nombre de threads utilisés par l'ordinateur pour chercher son coup.
+    public static final int NB_THREADS_MOTEUR = 1;
+
+    // Conseils de l'ordinateur en réseau (coup conseillé affiché en bleu, recherche
+    // anticipée pendant le tour de l'adversaire).
+    public static final boolean CONSEILS_RESEAU = false;
+
+    // Affichage des mesures de la connexion en réseau (temps d'aller-retour, débits,
+    // délai d'affichage des coups reçus) par-dessus l'échiquier.
+    public static final boolean MESURES_RESEAU = false;
+
+    // Bibliothèque d'ouvertures de l'ordinateur (chemin depuis le dossier bin).
+    public static final String FICHIER_BIBLIOTHEQUE = "../res/ouvertures.bin";
+
+    // Dossier des tables de finales de l'ordinateur (créées par outils.GenerationFinales).
+    public static final String DOSSIER_FINALES = "../res/finales";
+
 	/* ================================================ */
     /* Constantes liées à l'interface utilisateur (IHM) */
 	/* ================================================ */
@@ -3,7 +3,9 @@ package controleur;
 import constants.Couleur;
 import ihm.IhmEchiquier;
 import metier.Echiquier;
+import metier.Instantane;
 import metier.piece.Piece;
+import metier.reseau.MesuresConnexion;
 
 /**
  * La classe Controleur est le lien entre le modèle (Echiquier) et la vue (IhmEchiquier).
@@ -31,6 +33,16 @@ public class Controleur
         new IhmEchiquier(this);
     }
 
+    /**
+     * Constructeur qui utilise un modèle existant sans créer la vue.
+     * Utilisé par les outils en ligne de commande (mesures de performance, etc.).
+     * @param metier Le modèle (Echiquier).
+     */
+    public Controleur(Echiquier metier)
+    {
+        this.metier = metier;
+    }
+
     /**
      * Récupère la couleur du joueur actif.
      * @return La couleur du joueur actif (BLANC ou NOIR).
@@ -67,6 +79,43 @@ public class Controleur
         return this.metier.getPieceSelectionnee(); 
     }
 
+    /**
+     * Récupère la pièce en cours de déplacement (animation).
+     * @return La pièce en déplacement, ou null.
+     */
+    public Piece getPieceEnDeplacement() 
+    { 
+        return this.metier.getPieceEnDeplacement(); 
+    }
+
+    /**
+     * Récupère le dernier instantané de la position publié par le métier.
+     * Peut être lu depuis n'importe quel thread sans verrou.
+     * @return L'instantané de la position.
+     */
+    public Instantane getInstantane() 
+    { 
+        return this.metier.getInstantane(); 
+    }
+
+    /**
+     * Récupère le coup conseillé par l'ordinateur au joueur (parties en réseau).
+     * @return Le coup conseillé, ou Coup.AUCUN si aucun conseil n'est disponible.
+     */
+    public int getConseil() 
+    { 
+        return this.metier.getConseil(); 
+    }
+
+    /**
+     * Récupère les mesures de la connexion (temps d'aller-retour, débits, délai d'affichage des coups).
+     * @return Les mesures, ou null hors d'une partie en réseau.
+     */
+    public MesuresConnexion getMesuresReseau() 
+    { 
+        return this.metier.getMesuresReseau(); 
+    }
+
     /**
      * Récupère la pièce située à une position spécifique sur l'échiquier.
      * @param lig Ligne de l'échiquier.
@@ -107,6 +156,23 @@ public class Controleur
         this.metier.handleMousePressed(x, y); 
     }
 
+    /**
+     * Démarre une partie contre l'ordinateur.
+     * @param couleur La couleur du joueur.
+     */
+    public void lancerPartieMoteur(Couleur couleur) 
+    { 
+        this.metier.lancerPartieMoteur(couleur); 
+    }
+
+    /**
+     * Abandonne la partie pour le joueur local (l'abandon est envoyé à l'adversaire en réseau).
+     */
+    public void abandonner()
+    {
+        this.metier.abandonner(this.metier.getJoueur());
+    }
+
     /**
      * Annule une tentative de connexion en cours.
      */
@@ -1,5 +1,6 @@
 package ihm;
 
+import constants.Couleur;
 import controleur.Controleur;
 import ihm.connexion.FrameConnexion;
 import ihm.joueur.FrameJoueur;
@@ -66,6 +67,25 @@ public class IhmEchiquier
         }
 	}
 	
+    /**
+     * Lance une partie contre l'ordinateur après avoir demandé sa couleur au joueur.
+     * Ferme la fenêtre de menu, puis ouvre la fenêtre de jeu.
+     */
+	public void jouerContreOrdinateur() 
+	{ 
+		Couleur[] tabCouleurs = { Couleur.BLANC, Couleur.NOIR };
+		int choix = JOptionPane.showOptionDialog(this.frameMenu, "Choisissez votre couleur", "Contre l'ordinateur", 
+		                                         JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, 
+		                                         null, tabCouleurs, Couleur.BLANC);
+		if(choix < 0) return;
+
+		this.ctrl.lancerPartieMoteur(tabCouleurs[choix]);
+
+        // Ferme la fenêtre de menu et ouvre la fenêtre du jeu
+		this.frameMenu.dispose();
+		this.frameJoueur = new FrameJoueur(ctrl, this);
+	}
+
     /**
      * Quitte l'application
      */
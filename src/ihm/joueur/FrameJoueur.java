@@ -6,6 +6,10 @@ import ihm.IhmEchiquier;
 import java.awt.Dimension;
 import java.awt.Toolkit;
 import javax.swing.JFrame;
+import javax.swing.JMenu;
+import javax.swing.JMenuBar;
+import javax.swing.JMenuItem;
+import javax.swing.JOptionPane;
 import javax.swing.WindowConstants;
 
 /**
@@ -35,6 +39,15 @@ public class FrameJoueur extends JFrame
         this.panelJoueur = new PanelJoueur(ctrl, ihm);
         this.add(this.panelJoueur);
 
+        // Menu de la partie : abandon (envoyé à l'adversaire en réseau)
+        JMenuBar  menuBar        = new JMenuBar();
+        JMenu     menuPartie     = new JMenu("Partie");
+        JMenuItem itemAbandonner = new JMenuItem("Abandonner");
+        itemAbandonner.addActionListener(e -> this.abandonner(ctrl));
+        menuPartie.add(itemAbandonner);
+        menuBar.add(menuPartie);
+        this.setJMenuBar(menuBar);
+
         this.panelJoueur.startGameThread(); // Démmarrage du Thread de jeu
 
         // Définition des dimensions
@@ -51,6 +64,20 @@ public class FrameJoueur extends JFrame
         this.setVisible(true);
     }
 
+    /**
+     * Abandonne la partie, après confirmation du joueur.
+     * 
+     * @param ctrl Le contrôleur principal de l'application.
+     */
+    private void abandonner(Controleur ctrl)
+    {
+        if(ctrl.estFinJeu()) return;
+
+        int choix = JOptionPane.showConfirmDialog(this, "Voulez-vous vraiment abandonner la partie ?", "Abandonner", 
+                                                  JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE);
+        if(choix == JOptionPane.YES_OPTION) ctrl.abandonner();
+    }
+
     /**
      * Termine le Thread de jeu.
      */
@@ -13,7 +13,11 @@ import java.awt.Image;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import javax.swing.JPanel;
+import metier.Coup;
+import metier.Instantane;
 import metier.piece.Piece;
+import metier.reseau.MesuresConnexion;
+import metier.utils.Bitboard;
 
 /**
  * Classe JPanel afficher et gérer l'interface utilisateur du jeu d'échecs.
@@ -36,7 +40,6 @@ public class PanelJoueur extends JPanel implements Runnable
 	private Image imgEchiquier;
 	private Image imgPieces;
 
-
 	/**
      * Constructeur de PanelJoueur.
      * 
@@ -136,20 +139,47 @@ public class PanelJoueur extends JPanel implements Runnable
 					 AppConstants.HAUTEUR_ECHIQUIER_SRC,
 					 null);
 
+		// La position est lue dans le dernier instantané publié par le métier,
+		// sans accéder à l'échiquier modifié par le thread de jeu
+		Instantane instantane         = this.ctrl.getInstantane();
+		Piece      pieceSelectionnee  = this.ctrl.getPieceSelectionnee();
+		Piece      pieceEnDeplacement = this.ctrl.getPieceEnDeplacement();
+
+		// Case de destination de la pièce en déplacement (dessinée à part)
+		int caseEnDeplacement = -1;
+		if(pieceEnDeplacement != null && instantane.getDernierCoup() != Coup.AUCUN)
+			caseEnDeplacement = Coup.getCaseDest(instantane.getDernierCoup());
+
+		// Dessiner le coup conseillé par l'ordinateur (parties en réseau)
+		int conseil = this.ctrl.getConseil();
+		if(conseil != Coup.AUCUN && pieceEnDeplacement == null)
+		{
+			this.drawCercle(g2, Coup.getLigOrig(conseil), Coup.getColOrig(conseil), Color.BLUE);
+			this.drawCercle(g2, Coup.getLigDest(conseil), Coup.getColDest(conseil), Color.BLUE);
+		}
+
+		// Dessiner les déplacements possibles de la pièce sélectionnée
+		if(pieceSelectionnee != null)
+		{
+			int  caseSelectionnee = pieceSelectionnee.getCase();
+			long deplacements     = instantane.getDeplacements(caseSelectionnee);
+			while(deplacements != 0)
+			{
+				int caseDest = Bitboard.premiereCase(deplacements);
+				this.drawCercle(g2, Bitboard.getLig(caseDest), Bitboard.getCol(caseDest), Color.RED);
+				deplacements &= deplacements - 1;
+			}
+			this.drawCercle(g2, Bitboard.getLig(caseSelectionnee), Bitboard.getCol(caseSelectionnee), Color.GREEN);
+		}
+
 		for(int lig = 0; lig < 8; lig++)
 		{
 			for(int col = 0; col < 8; col++)
 			{
 				// Dessiner les pièces
-				Piece pieceSelectionnee = this.ctrl.getPieceSelectionnee(); 
-	
-				if(pieceSelectionnee != null && pieceSelectionnee.deplacementValide(lig, col))
-					this.drawCercle(g2, lig, col, Color.RED);
-				if(this.ctrl.getPiece(lig, col) != null && this.ctrl.getPiece(lig, col) == pieceSelectionnee)
-					this.drawCercle(g2, lig, col, Color.GREEN);
-				
-				if(this.ctrl.getPiece(lig, col) != null)
-					this.drawPiece(g2, this.ctrl.getPiece(lig, col));
+				int num = instantane.getNumPiece(lig, col);
+				if(num != 0 && Bitboard.getCase(lig, col) != caseEnDeplacement)
+					this.drawPiece(g2, num, col * AppConstants.LARGEUR_PIECE_DEST, lig * AppConstants.HAUTEUR_PIECE_DEST);
 			}
 			
 			// Dessiner les numéros et lettres autour de l'échiquier
@@ -179,11 +209,11 @@ public class PanelJoueur extends JPanel implements Runnable
 			}
 
 			// Afficher le statut du jeu
-			String tour = "Tour " + this.ctrl.getNumTour() + " : ";
-			if(this.ctrl.estFinJeu())
+			String tour = "Tour " + instantane.getNumTour() + " : ";
+			if(instantane.estFinJeu())
 				tour += "fin du jeu";
 			else 
-				tour += "C'est au tour des " + this.ctrl.getJoueurActif().toString() + "s de jouer.";
+				tour += "C'est au tour des " + instantane.getJoueurActif().toString() + "s de jouer.";
 			FontMetrics metrics = g2.getFontMetrics(g2.getFont());
 			int largeurTexte = metrics.stringWidth(tour);
 
@@ -194,29 +224,33 @@ public class PanelJoueur extends JPanel implements Runnable
 			g2.setColor(Color.BLACK);
 		}
 
-		g2.dispose();
+		// Dessiner la pièce en déplacement à sa position animée
+		if(pieceEnDeplacement != null)
+			this.drawPiece(g2, pieceEnDeplacement.getNum(), pieceEnDeplacement.getX(), pieceEnDeplacement.getY());
+
+		// Mesures de la connexion en réseau : le dernier coup reçu est maintenant à l'écran
+		MesuresConnexion mesures = this.ctrl.getMesuresReseau();
+		if(mesures != null)
+		{
+			mesures.echiquierAffiche(System.nanoTime());
+			if(AppConstants.MESURES_RESEAU) this.drawMesures(g2, mesures);
+		}
 	}
 
 	/**
      * Dessine une pièce à une position donnée sur l'échiquier.
      * 
-     * @param g2    L'objet Graphics2D pour dessiner.
-     * @param piece La pièce à dessiner.
+     * @param g2  L'objet Graphics2D pour dessiner.
+     * @param num Le numéro de la pièce à dessiner.
+     * @param x   La position x de la pièce sur l'échiquier (point de vue des blancs).
+     * @param y   La position y de la pièce sur l'échiquier (point de vue des blancs).
      */
-	private void drawPiece(Graphics2D g2, Piece piece)
+	private void drawPiece(Graphics2D g2, int num, int x, int y)
 	{
-		int num, x, y;
-		num = piece.getNum();
-
-		if(this.ctrl.getJoueur() == Couleur.BLANC)
-		{
-			x = piece.getX();
-			y = piece.getY();
-		}
-		else
+		if(this.ctrl.getJoueur() == Couleur.NOIR)
 		{
-			x = AppConstants.LARGEUR_ECHIQUIER_DEST - piece.getX() - AppConstants.LARGEUR_PIECE_DEST;
-			y = AppConstants.HAUTEUR_ECHIQUIER_DEST - piece.getY() - AppConstants.HAUTEUR_PIECE_DEST;
+			x = AppConstants.LARGEUR_ECHIQUIER_DEST - x - AppConstants.LARGEUR_PIECE_DEST;
+			y = AppConstants.HAUTEUR_ECHIQUIER_DEST - y - AppConstants.HAUTEUR_PIECE_DEST;
 		}
 
 		g2.drawImage(this.imgPieces, 
@@ -234,7 +268,7 @@ public class PanelJoueur extends JPanel implements Runnable
 	/**
      * Dessine une cercle.
 	 * Uilisée pour indiquer quelle est la pièce qu'on a sélectionnée (vert) ou 
-	 * pour afficher ses mouvements possibles (rouge).
+	 * pour afficher ses mouvements possibles (rouge) ou le coup conseillé par l'ordinateur (bleu).
      * 
      * @param g2    L'objet Graphics2D pour dessiner.
      * @param lig   La ligne sur l'échiquier.
@@ -256,6 +290,37 @@ public class PanelJoueur extends JPanel implements Runnable
 					AppConstants.HAUTEUR_CERCLE);
 	}
 
+	/**
+     * Dessine les mesures de la connexion en réseau par-dessus l'échiquier, en bas de celui-ci
+     * (la fenêtre n'a pas de place libre sous l'échiquier).
+     * 
+     * @param g2      L'objet Graphics2D pour dessiner.
+     * @param mesures Les mesures de la connexion.
+     */
+	private void drawMesures(Graphics2D g2, MesuresConnexion mesures)
+	{
+		int x = AppConstants.MARGE_X;
+		int y = AppConstants.MARGE_Y + AppConstants.HAUTEUR_ECHIQUIER_DEST - 54;
+
+		g2.setColor(new Color(0, 0, 0, 160));
+		g2.fillRect(x, y, AppConstants.LARGEUR_ECHIQUIER_DEST, 54);
+
+		g2.setFont(new Font("Monospaced", Font.PLAIN, 13));
+		g2.setColor(Color.WHITE);
+		g2.drawString(String.format("RTT : min %.1f ms, moy %.1f ms, p99 %.1f ms (%d pings)",
+		                            mesures.getRttMin() / 1000.0, mesures.getRttMoyen() / 1000.0, 
+		                            mesures.getRttP99() / 1000.0, mesures.getNbRtt()), 
+		              x + 8, y + 16);
+		g2.drawString(String.format("Reçu : %.0f o/s, %.1f msg/s   Envoyé : %.0f o/s, %.1f msg/s",
+		                            mesures.getOctetsRecusParSeconde(),   mesures.getMessagesRecusParSeconde(),
+		                            mesures.getOctetsEnvoyesParSeconde(), mesures.getMessagesEnvoyesParSeconde()), 
+		              x + 8, y + 32);
+		g2.drawString(String.format("Coup reçu -> affiché : dernier %.1f ms, moy %.1f ms, max %.1f ms",
+		                            mesures.getDelaiAffichage() / 1000.0, mesures.getDelaiAffichageMoyen() / 1000.0,
+		                            mesures.getDelaiAffichageMax() / 1000.0), 
+		              x + 8, y + 48);
+	}
+
 	/**
 	 * Classe interne permettant de gérer les événements liés à la souris.
 	 * 
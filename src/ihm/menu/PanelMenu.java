@@ -20,11 +20,11 @@ public class PanelMenu extends JPanel implements ActionListener
 {
 	private IhmEchiquier ihm;
 
-	private JButton btnMultijoueur, btnQuitter;
+	private JButton btnMultijoueur, btnOrdinateur, btnQuitter;
 
 	/**
 	 * Constructeur de la classe PanelMenu.
-	 * Initialise le panneau avec deux boutons : "Multijoueur" et "Quitter".
+	 * Initialise le panneau avec trois boutons : "Multijoueur", "Contre l'ordinateur" et "Quitter".
 	 *
 	 * @param ihm le gestionnaire des fenêtres
 	 */
@@ -32,25 +32,28 @@ public class PanelMenu extends JPanel implements ActionListener
 	{
 		this.ihm = ihm;
 
-		this.setLayout(new GridLayout(2, 1, 20,20));
+		this.setLayout(new GridLayout(3, 1, 20,20));
 		this.setBorder(new EmptyBorder(30,30,100,30));
 
 		/*-------------------------*/
 		/* Création des composants */
 		/*-------------------------*/
 		this.btnMultijoueur = new JButton("Multijoueur");
+		this.btnOrdinateur  = new JButton("Contre l'ordinateur");
 		this.btnQuitter     = new JButton("Quitter");
 
 		/*-------------------------------*/
 		/* positionnement des composants */
 		/*-------------------------------*/
 		this.add(this.btnMultijoueur);
+		this.add(this.btnOrdinateur);
 		this.add(this.btnQuitter);
 
 		/*---------------------------*/
 		/* Activation des composants */
 		/*---------------------------*/
 		this.btnMultijoueur  .addActionListener(this);
+		this.btnOrdinateur   .addActionListener(this);
 		this.btnQuitter.addActionListener(this);
 	}
 
@@ -63,6 +66,11 @@ public class PanelMenu extends JPanel implements ActionListener
 			this.ihm.jouer();
 		}
 
+		if(e.getSource() == this.btnOrdinateur)
+		{
+			this.ihm.jouerContreOrdinateur();
+		}
+
 		if(e.getSource() == this.btnQuitter)
 		{
 			this.ihm.quitter();
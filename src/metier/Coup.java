@@ -0,0 +1,112 @@
+package metier;
+
+import metier.utils.Bitboard;
+
+/**
+ * Classe utilitaire permettant de manipuler des coups codés sur 16 bits.
+ * Un coup est un entier (qui tient dans un {@code short}) :
+ * <ul>
+ *   <li>bits 0-5   : case d'origine (0-63)</li>
+ *   <li>bits 6-11  : case de destination (0-63)</li>
+ *   <li>bit  12    : capture</li>
+ *   <li>bit  13    : promotion d'un pion</li>
+ *   <li>bit  14    : avance d'un pion de deux cases</li>
+ * </ul>
+ * Les listes de coups sont ainsi de simples tableaux d'entiers, sans objet.
+ * La valeur 0 (case d'origine égale à la case de destination) ne correspond à 
+ * aucun coup et représente l'absence de coup.
+ * 
+ * @author Ted Herambert
+ * @date 23/11/2024
+ * @version 1.0
+ */
+public final class Coup
+{
+	// Absence de coup
+	public static final int AUCUN = 0;
+
+	// Drapeaux
+	public static final int CAPTURE        = 1 << 12;
+	public static final int PROMOTION      = 1 << 13;
+	public static final int DOUBLE_POUSSEE = 1 << 14;
+
+	// Masque du déplacement seul (cases d'origine et de destination)
+	public static final int MASQUE_DEPLACEMENT = 0xFFF;
+
+	/**
+	 * Constructeur privé pour empêcher l'instanciation de cette classe utilitaire.
+	 */
+	private Coup() {}
+
+	/**
+	 * Crée un coup à partir de ses cases et de ses drapeaux.
+	 * @param caseOrig  La case d'origine (0-63)
+	 * @param caseDest  La case de destination (0-63)
+	 * @param drapeaux  Les drapeaux ({@link #CAPTURE}, {@link #PROMOTION}, {@link #DOUBLE_POUSSEE})
+	 * @return Le coup.
+	 */
+	public static int creer(int caseOrig, int caseDest, int drapeaux) { return caseOrig | caseDest << 6 | drapeaux; }
+
+	/**
+	 * Crée un coup sans drapeau à partir des coordonnées des cases.
+	 * @param ligOrig Ligne d'origine
+	 * @param colOrig Colonne d'origine
+	 * @param ligDest Ligne de destination
+	 * @param colDest Colonne de destination
+	 * @return Le coup.
+	 */
+	public static int creer(int ligOrig, int colOrig, int ligDest, int colDest)
+	{
+		return Bitboard.getCase(ligOrig, colOrig) | Bitboard.getCase(ligDest, colDest) << 6;
+	}
+
+	// Accès aux champs du coup
+	public static int     getCaseOrig      (int coup) { return coup & 0x3F;                         }
+	public static int     getCaseDest      (int coup) { return (coup >>> 6) & 0x3F;                 }
+	public static int     getLigOrig       (int coup) { return Bitboard.getLig(coup & 0x3F);        }
+	public static int     getColOrig       (int coup) { return Bitboard.getCol(coup & 0x3F);        }
+	public static int     getLigDest       (int coup) { return Bitboard.getLig((coup >>> 6) & 0x3F); }
+	public static int     getColDest       (int coup) { return Bitboard.getCol((coup >>> 6) & 0x3F); }
+	public static boolean estCapture       (int coup) { return (coup & CAPTURE)        != 0;         }
+	public static boolean estPromotion     (int coup) { return (coup & PROMOTION)      != 0;         }
+	public static boolean estDoublePoussee (int coup) { return (coup & DOUBLE_POUSSEE) != 0;         }
+
+	/**
+	 * Vérifie si deux coups correspondent au même déplacement (sans tenir compte des drapeaux).
+	 * @param coup1 Le premier coup
+	 * @param coup2 Le second coup
+	 * @return {@code true} si les cases d'origine et de destination sont identiques.
+	 */
+	public static boolean memeDeplacement(int coup1, int coup2)
+	{
+		return ((coup1 ^ coup2) & MASQUE_DEPLACEMENT) == 0;
+	}
+
+	/**
+	 * Retourne un coup en notation algébrique (par exemple "e2e4").
+	 * @param coup Le coup
+	 * @return Le coup sous forme de chaîne.
+	 */
+	public static String toString(int coup)
+	{
+		return "" + (char)('a' + Coup.getColOrig(coup)) + (8 - Coup.getLigOrig(coup))
+		          + (char)('a' + Coup.getColDest(coup)) + (8 - Coup.getLigDest(coup));
+	}
+
+	/**
+	 * Lit un coup écrit en notation algébrique (par exemple "e2e4", voir {@link #toString(int)}).
+	 * @param texte Le coup sous forme de chaîne
+	 * @return Le coup (sans drapeaux), {@link #AUCUN} si la chaîne n'est pas un coup.
+	 */
+	public static int lire(String texte)
+	{
+		if(texte.length() != 4) return AUCUN;
+
+		int colOrig = texte.charAt(0) - 'a', ligOrig = '8' - texte.charAt(1);
+		int colDest = texte.charAt(2) - 'a', ligDest = '8' - texte.charAt(3);
+		if(   colOrig < 0 || colOrig > 7 || ligOrig < 0 || ligOrig > 7
+		   || colDest < 0 || colDest > 7 || ligDest < 0 || ligDest > 7) return AUCUN;
+
+		return Coup.creer(ligOrig, colOrig, ligDest, colDest);
+	}
+}
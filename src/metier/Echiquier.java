@@ -1,15 +1,25 @@
 package metier;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 
 import constants.AppConstants;
 import constants.Couleur;
+import metier.moteur.Anticipation;
+import metier.moteur.Bibliotheque;
+import metier.moteur.Evaluation;
+import metier.moteur.Moteur;
+import metier.moteur.TablesFinales;
+import metier.piece.Attaques;
 import metier.piece.Piece;
 import metier.piece.Pion;
 import metier.piece.Tour;
 import metier.reseau.Client;
+import metier.reseau.MesuresConnexion;
 import metier.reseau.Serveur;
+import metier.utils.Bitboard;
 import metier.utils.Utils;
 import metier.piece.Cavalier;
 import metier.piece.Fou;
@@ -27,19 +37,57 @@ public class Echiquier
 	private Client     client;
 	private Thread     connexionThread;
 
+	private Moteur     moteur;         // Joueur ordinateur (null en multijoueur)
+	private Thread     moteurThread;   // Thread de la recherche en cours
+
+	private Anticipation anticipation; // Conseils de l'ordinateur en réseau (null si désactivés)
+
 	private boolean    connexionEnCours;
 	private boolean    connexionReussie;
 
 	private Piece[][]  tabPieces;
+	private long[]     tabBitboards;   // Un bitboard par numéro de pièce (1-12)
+	private long[]     tabOccupations; // Cases occupées par couleur (indexé par Couleur.getValeur())
+	private long       occupation;     // Cases occupées par toutes les pièces
+	private long       cle;            // Clé de Zobrist de la position
+	private long       clePions;       // Clé de Zobrist des seuls pions (structure de pions)
+	private int        scoreOuverture; // Évaluation en ouverture, du point de vue des blancs (voir Evaluation)
+	private int        scoreFinale;    // Évaluation en finale, du point de vue des blancs
+	private int        phase;          // Phase de la partie (Evaluation.PHASE_MAX au départ)
 	private Piece      pieceSelectionnee;
 	private Piece      pieceEnDeplacement;
 	private Pion       pionAPromouvoir;
 	private Couleur    joueurActif;
 	private Couleur    joueur;
 	private int        numTour;
+	private Couleur    abandon;        // Joueur qui a abandonné la partie (null sinon)
 
 	private HashMap<Couleur, ArrayList<Piece>> tabPiecesCapturees;
 
+	// Dernier instantané publié, lu sans verrou par les autres threads
+	private volatile Instantane instantane;
+
+	// Historique des coups joués pendant la partie avec deplacer (voir Coup)
+	private short[]    historique;
+	private int        nbCoupsHistorique;
+
+	// Pile d'annulation des coups joués avec jouerCoup
+	private int[]      pileCoups;    // Coup joué et drapeaux d'annulation
+	private Piece[]    pilePieces;   // Pièce déplacée
+	private Piece[]    pileCaptures; // Pièce capturée (ou null)
+	private int        nbCoupsPile;
+
+	// Reines utilisées pour les promotions de jouerCoup (créées à l'avance pour ne pas allouer)
+	private Reine[][]  tabReinesPromotion; // indexé par Couleur.getValeur()
+	private int[]      nbReinesPromotion;
+
+	// Nombre maximal de coups pouvant être générés pour un joueur dans une position
+	public static final int NB_COUPS_MAX = 256;
+
+	// Drapeaux enregistrés dans la pile d'annulation
+	private static final int ANNUL_CASE_DEPART = 1 << 16; // le pion déplacé était sur sa case de départ
+	private static final int ANNUL_PROMOTION   = 1 << 17; // le pion déplacé a été promu en reine
+
 	private int[][] initEchec = new int[][]{ { 8,  9, 10, 11, 12, 10,  9,  8},
 											 { 7,  7,  7,  7,  7,  7,  7,  7},
 											 { 0,  0,  0,  0,  0,  0,  0,  0},
@@ -54,63 +102,155 @@ public class Echiquier
      */
 	public Echiquier()
 	{
-		this.tabPieces = new Piece[8][8];
+		this.tabPieces      = new Piece[8][8];
+		this.tabBitboards   = new long[13];
+		this.tabOccupations = new long[2];
 
 		this.tabPiecesCapturees = new HashMap<Couleur, ArrayList<Piece>>();
 		this.tabPiecesCapturees.put(Couleur.BLANC, new ArrayList < Piece > ());
 		this.tabPiecesCapturees.put(Couleur.NOIR,  new ArrayList < Piece > ());
 
+		this.historique   = new short[256];
+
+		this.pileCoups    = new int  [1024];
+		this.pilePieces   = new Piece[1024];
+		this.pileCaptures = new Piece[1024];
+
+		this.tabReinesPromotion = new Reine[2][8];
+		this.nbReinesPromotion  = new int[2];
+		for(int i = 0; i < 8; i++)
+		{
+			this.tabReinesPromotion[Couleur.BLANC.getValeur()][i] = new Reine(this,  5, 0, 0);
+			this.tabReinesPromotion[Couleur.NOIR .getValeur()][i] = new Reine(this, 11, 0, 0);
+		}
+
 		this.init();
 	}
 
+	/**
+     * Constructeur de la classe Echiquier à partir d'une position quelconque.
+	 * 
+	 * @param disposition Numéro de la pièce (0 si vide) de chaque case, indexé par [lig][col]
+	 * @param trait       La couleur du joueur qui doit jouer
+     */
+	public Echiquier(int[][] disposition, Couleur trait)
+	{
+		this();
+		this.init(disposition, trait);
+	}
+
 	/**
      * Méthode pour initialiser le jeu
 	 * 
      */
 	public void init()
+	{
+		this.init(this.initEchec, Couleur.BLANC);
+	}
+
+	/**
+     * Méthode pour initialiser le jeu à partir d'une position quelconque.
+	 * Les pions situés sur leur rangée de départ peuvent avancer de deux cases.
+	 * 
+	 * @param disposition Numéro de la pièce (0 si vide) de chaque case, indexé par [lig][col]
+	 * @param trait       La couleur du joueur qui doit jouer
+     */
+	public void init(int[][] disposition, Couleur trait)
 	{
 		this.connexionEnCours = false;
 		this.connexionReussie = false;
+
+		// Vide les bitboards
+		for(int num = 0; num < this.tabBitboards.length; num++)
+			this.tabBitboards[num] = Bitboard.VIDE;
+		this.tabOccupations[Couleur.BLANC.getValeur()] = Bitboard.VIDE;
+		this.tabOccupations[Couleur.NOIR .getValeur()] = Bitboard.VIDE;
+		this.occupation = Bitboard.VIDE;
+		this.cle        = (trait == Couleur.NOIR ? Zobrist.TRAIT_NOIR : 0L);
+		this.clePions   = 0L;
+		this.scoreOuverture = 0;
+		this.scoreFinale    = 0;
+		this.phase          = 0;
 		
-		// Initialise l'échiquier avec la disposition de départ des pièces.
-		for(int i = 0 ; i < initEchec.length ; i++ )
+		// Initialise l'échiquier avec la disposition des pièces.
+		for(int i = 0 ; i < disposition.length ; i++ )
 		{
-			for (int j = 0 ; j < initEchec[0].length ; j++)
+			for (int j = 0 ; j < disposition[0].length ; j++)
 			{
-				if(initEchec[i][j] != 0)
+				this.tabPieces[i][j] = null;
+				if(disposition[i][j] != 0)
 				{
-					int typePiece = (initEchec[i][j] > 6 ? initEchec[i][j] - 6 : initEchec[i][j]);
+					int typePiece = (disposition[i][j] > 6 ? disposition[i][j] - 6 : disposition[i][j]);
 					switch(typePiece)
 					{
-						case 1  : this.tabPieces[i][j] = new Pion     (this, initEchec[i][j], i, j); break;
-						case 2  : this.tabPieces[i][j] = new Tour     (this, initEchec[i][j], i, j); break;
-						case 3  : this.tabPieces[i][j] = new Cavalier (this, initEchec[i][j], i, j); break;
-						case 4  : this.tabPieces[i][j] = new Fou      (this, initEchec[i][j], i, j); break;
-						case 5  : this.tabPieces[i][j] = new Reine    (this, initEchec[i][j], i, j); break;
-						case 6  : this.tabPieces[i][j] = new Roi      (this, initEchec[i][j], i, j); break;
-						default : this.tabPieces[i][j] = null;                                            break;
+						case 1  : Pion pion = new Pion(this, disposition[i][j], i, j);
+						          pion.setCaseDepart(i == (pion.getCouleur() == Couleur.BLANC ? 6 : 1));
+						          this.poserPiece(pion);                                         break;
+						case 2  : this.poserPiece(new Tour     (this, disposition[i][j], i, j)); break;
+						case 3  : this.poserPiece(new Cavalier (this, disposition[i][j], i, j)); break;
+						case 4  : this.poserPiece(new Fou      (this, disposition[i][j], i, j)); break;
+						case 5  : this.poserPiece(new Reine    (this, disposition[i][j], i, j)); break;
+						case 6  : this.poserPiece(new Roi      (this, disposition[i][j], i, j)); break;
+						default :                                                                break;
 					}
 				}
-				else tabPieces[i][j] = null;
 			}
-
-			// Réinitialise les paramètres du jeu
-			this.pieceSelectionnee  = null;
-			this.pieceEnDeplacement = null;
-			this.pionAPromouvoir    = null;
-			this.joueurActif        = Couleur.BLANC;
-			this.joueur             = Couleur.BLANC;
-			this.numTour            = 1;
-
-			//  Vide les listes de pièces capturées
-			this.tabPiecesCapturees.get(Couleur.BLANC).clear();
-			this.tabPiecesCapturees.get(Couleur.NOIR) .clear();
 		}
+
+		// Réinitialise les paramètres du jeu
+		this.pieceSelectionnee  = null;
+		this.pieceEnDeplacement = null;
+		this.pionAPromouvoir    = null;
+		this.joueurActif        = trait;
+		this.joueur             = Couleur.BLANC;
+		this.numTour            = 1;
+		this.abandon            = null;
+
+		//  Vide les listes de pièces capturées
+		this.tabPiecesCapturees.get(Couleur.BLANC).clear();
+		this.tabPiecesCapturees.get(Couleur.NOIR) .clear();
+
+		// Vide l'historique et la pile d'annulation
+		this.nbCoupsHistorique = 0;
+		this.nbCoupsPile       = 0;
+		this.nbReinesPromotion[Couleur.BLANC.getValeur()] = 0;
+		this.nbReinesPromotion[Couleur.NOIR .getValeur()] = 0;
+
+		this.publierInstantane();
 	}
 
 	// Getters
 	public Piece   getPiece(int lig, int col) { return this.tabPieces[lig][col]; }
 
+	public long    getBitboard  (int num)         { return this.tabBitboards[num];                            }
+	public long    getOccupation(Couleur couleur) { return this.tabOccupations[couleur.getValeur()];           }
+	public long    getOccupation()                { return this.occupation;                                   }
+	public boolean estOccupee   (int lig, int col) { return (this.occupation & Bitboard.masque(lig, col)) != 0; }
+	public long    getCle       ()                { return this.cle;                                          }
+	public long    getClePions  ()                { return this.clePions;                                     }
+
+	public int     getScoreOuverture()            { return this.scoreOuverture;                               }
+	public int     getScoreFinale   ()            { return this.scoreFinale;                                  }
+	public int     getPhase         ()            { return this.phase;                                        }
+
+	public Instantane getInstantane() { return this.instantane; }
+
+	public int     getConseil() { return this.anticipation != null ? this.anticipation.getConseil() : Coup.AUCUN; }
+
+	/**
+	 * Retourne les mesures de la connexion réseau.
+	 * @return Les mesures, {@code null} hors d'une partie en réseau.
+	 */
+	public MesuresConnexion getMesuresReseau()
+	{
+		if(this.serveur != null) return this.serveur.getMesures();
+		if(this.client  != null) return this.client .getMesures();
+		return null;
+	}
+
+	public int     getNbCoupsHistorique()      { return this.nbCoupsHistorique; }
+	public int     getCoupHistorique   (int i) { return this.historique[i];     }
+
 	public Piece   getPieceSelectionnee () { return this.pieceSelectionnee;  }
 	public Piece   getPieceEnDeplacement() { return this.pieceEnDeplacement; }
 	public Couleur getJoueurActif       () { return this.joueurActif;        }
@@ -122,11 +262,21 @@ public class Echiquier
 	// Setters
 	public void setPieceSelectionnee (Piece   piece)   { this.pieceSelectionnee  = piece;   }
 	public void setPieceEnDeplacement(Piece   piece)   { this.pieceEnDeplacement = piece;   }
-	public void setJoueurActif       (Couleur couleur) { this.joueurActif        = couleur; }
 	public void setJoueur            (Couleur couleur) { this.joueur             = couleur; }
 	public void setConnexionEnCours  (boolean b)       { this.connexionEnCours = b;         }
 	public void setConnexionReussie  (boolean b)       { this.connexionReussie = b;         }
 
+	/**
+	 * Modifie le joueur actif en mettant à jour la clé de la position.
+	 * @param couleur La couleur du nouveau joueur actif
+	 */
+	public void setJoueurActif(Couleur couleur)
+	{
+		if(couleur != this.joueurActif) this.cle ^= Zobrist.TRAIT_NOIR;
+		this.joueurActif = couleur;
+		this.publierInstantane();
+	}
+
 	/**
      * Met à jour l'état de l'échiquier à chaque frame (animation des déplacements, fin de jeu, etc.).
      * 
@@ -134,6 +284,13 @@ public class Echiquier
      */
 	public void update(double deltaTime)
 	{
+		// Messages reçus du réseau : appliqués ici, par le thread de jeu, entre deux déplacements
+		if(this.pieceEnDeplacement == null && this.pionAPromouvoir == null)
+		{
+			if(this.serveur != null) this.serveur.traiterReception();
+			if(this.client  != null) this.client .traiterReception();
+		}
+
 		if(this.pieceEnDeplacement != null)
 		{
 			double angleRad = Utils.calculerAngleRadian(this.pieceEnDeplacement.getX  (), 
@@ -162,9 +319,33 @@ public class Echiquier
 			int lig = this.pionAPromouvoir.getLig();
 			int col = this.pionAPromouvoir.getCol();
 			int num = this.pionAPromouvoir.getCouleur() == Couleur.BLANC ? 5 : 11;
-			this.tabPieces[lig][col] = new Reine(this, num, lig, col);
+			this.poserPiece(new Reine(this, num, lig, col));
 			this.pionAPromouvoir = null;
+			this.publierInstantane();
 		}
+		else if(this.moteur != null && this.joueurActif != this.joueur && !this.estFinJeu())
+		{
+			// Tour de l'ordinateur : la recherche est faite dans un thread à part, 
+			// sur sa propre copie de la position
+			if(this.moteurThread == null)
+			{
+				this.moteur.setPosition(this.instantane);
+				this.moteurThread = new Thread(this.moteur);
+				this.moteurThread.start();
+			}
+			else if(!this.moteurThread.isAlive())
+			{
+				this.moteurThread = null;
+
+				int coup = this.moteur.getMeilleurCoup();
+				if(coup != Coup.AUCUN) this.deplacer(coup);
+				else                   this.tourSuivant();
+			}
+		}
+
+		// Conseils en réseau : recherche anticipée pendant le tour de l'adversaire
+		if(this.anticipation != null && this.connexionReussie && this.pieceEnDeplacement == null && this.pionAPromouvoir == null)
+			this.anticipation.suivre(this.instantane, this.joueur);
 	}
 
 	/**
@@ -216,6 +397,7 @@ public class Echiquier
 		this.connexionEnCours = true;
 		this.connexionReussie = false;
 		this.serveur = new Serveur(this, port);
+		this.creerAnticipation();
 
 		this.connexionThread = new Thread (this.serveur);
 		this.connexionThread.start();
@@ -230,11 +412,63 @@ public class Echiquier
 		this.connexionReussie = false;
 		
 		this.client = new Client(this, serveur, port);
+		this.creerAnticipation();
 
 		this.connexionThread = new Thread(this.client);
 		this.connexionThread.start();
 	}
 
+	/**
+	 * Démarrer une partie contre l'ordinateur
+	 * @param couleur La couleur du joueur, l'ordinateur jouant l'autre couleur
+	 */
+	public void lancerPartieMoteur(Couleur couleur) 
+	{
+		this.moteur = Echiquier.creerMoteur();
+		this.joueur = couleur;
+	}
+
+	/**
+	 * Active les conseils de l'ordinateur pour une partie en réseau, si
+	 * {@link AppConstants#CONSEILS_RESEAU} est vrai.
+	 */
+	private void creerAnticipation()
+	{
+		if(AppConstants.CONSEILS_RESEAU && this.anticipation == null)
+			this.anticipation = new Anticipation(Echiquier.creerMoteur());
+	}
+
+	/**
+	 * Crée le moteur de l'ordinateur, avec sa bibliothèque d'ouvertures et ses
+	 * tables de finales quand elles sont disponibles.
+	 * @return Le moteur
+	 */
+	private static Moteur creerMoteur()
+	{
+		Moteur moteur = new Moteur(AppConstants.DUREE_COUP_MOTEUR);
+		moteur.setNbThreads(AppConstants.NB_THREADS_MOTEUR);
+
+		try
+		{
+			moteur.setBibliotheque(Bibliotheque.ouvrir(AppConstants.FICHIER_BIBLIOTHEQUE));
+		}
+		catch(IOException e)
+		{
+			System.out.println("Bibliothèque d'ouvertures indisponible : " + e.getMessage());
+		}
+
+		try
+		{
+			moteur.setFinales(TablesFinales.ouvrir(AppConstants.DOSSIER_FINALES));
+		}
+		catch(IOException e)
+		{
+			System.out.println("Tables de finales indisponibles : " + e.getMessage());
+		}
+
+		return moteur;
+	}
+
 	/**
 	 * Annuler la connexion en cours
 	 */
@@ -249,6 +483,11 @@ public class Echiquier
 		{
 			this.client.close();
 		}
+
+		if(this.anticipation != null)
+		{
+			this.anticipation.arreter();
+		}
 	}
 
 	/**
@@ -257,12 +496,49 @@ public class Echiquier
 	 */
 	public boolean estFinJeu() 
 	{ 
-		for(Piece piece : this.tabPiecesCapturees.get(this.joueurActif))
+		// Le roi du joueur actif n'est plus sur l'échiquier, ou un joueur a abandonné
+		return this.tabBitboards[this.joueurActif == Couleur.BLANC ? 6 : 12] == Bitboard.VIDE || this.abandon != null;
+	}
+
+	/**
+	 * Termine la partie par l'abandon d'un joueur. L'abandon du joueur local est
+	 * envoyé à l'adversaire en réseau.
+	 * @param couleur La couleur du joueur qui abandonne
+	 */
+	public void abandonner(Couleur couleur)
+	{
+		if(this.estFinJeu()) return;
+
+		// Le joueur qui abandonne devient le joueur actif : il a perdu (comme si son roi était capturé)
+		this.abandon = couleur;
+		this.setJoueurActif(couleur);
+
+		if(couleur == this.joueur)
 		{
-			if(piece.getNum() / 6 - 1 == this.joueurActif.getValeur()) 
-				return true;
+			if(this.serveur != null) this.serveur.envoyerAbandon();
+			if(this.client  != null) this.client .envoyerAbandon();
 		}
-		return false;
+	}
+
+	/**
+	 * Remplace la position par celle de l'adversaire, après une désynchronisation 
+	 * (coup reçu invalide). Le joueur local et l'état de la connexion sont conservés.
+	 * @param disposition Numéro de la pièce (0 si vide) de chaque case, indexé par [lig][col]
+	 * @param trait       La couleur du joueur qui doit jouer
+	 * @param numTour     Le numéro du tour
+	 */
+	public void resynchroniser(int[][] disposition, Couleur trait, int numTour)
+	{
+		Couleur joueur           = this.joueur;
+		boolean connexionEnCours = this.connexionEnCours;
+		boolean connexionReussie = this.connexionReussie;
+
+		this.init(disposition, trait);
+		this.joueur           = joueur;
+		this.connexionEnCours = connexionEnCours;
+		this.connexionReussie = connexionReussie;
+		this.numTour          = numTour;
+		this.publierInstantane();
 	}
 
 	/**
@@ -271,7 +547,9 @@ public class Echiquier
 	public void tourSuivant() 
 	{
 		this.joueurActif = Couleur.fromInt(1-this.joueurActif.getValeur());
+		this.cle        ^= Zobrist.TRAIT_NOIR;
 		this.numTour++;
+		this.publierInstantane();
 	}
 
 	/**
@@ -283,15 +561,33 @@ public class Echiquier
 	 */
 	public void deplacer(int ligOrig, int colOrig, int ligDest, int colDest) 
 	{
-		Piece pieceCapturee     = this.tabPieces[ligDest][colDest];
-		this.pieceEnDeplacement = this.tabPieces[ligOrig][colOrig];
+		this.deplacer(Coup.creer(ligOrig, colOrig, ligDest, colDest));
+	}
+
+	/**
+	 * Gérer le déplacement d'une pièce sur l'échiquier
+	 * @param coup Le coup à jouer (voir {@link Coup})
+	 */
+	public void deplacer(int coup) 
+	{
+		int ligOrig = Coup.getLigOrig(coup);
+		int colOrig = Coup.getColOrig(coup);
+		int ligDest = Coup.getLigDest(coup);
+		int colDest = Coup.getColDest(coup);
+
+		// Complète le coup avec ses drapeaux et l'ajoute à l'historique
+		coup = this.completerCoup(coup);
+		if(this.nbCoupsHistorique == this.historique.length)
+			this.historique = Arrays.copyOf(this.historique, this.historique.length * 2);
+		this.historique[this.nbCoupsHistorique++] = (short) coup;
+
+		Piece pieceCapturee     = this.retirerPiece(ligDest, colDest);
+		this.pieceEnDeplacement = this.retirerPiece(ligOrig, colOrig);
 
 		// Met à jour les variables lig et col de la pièce
 		this.pieceEnDeplacement.deplacer(ligDest, colDest);
 		// Déplacement de la pièce sur l'echiquier
-		this.tabPieces[ligDest][colDest] = this.pieceEnDeplacement;
-		// Case de départ devient nulle
-		this.tabPieces[ligOrig][colOrig] = null;
+		this.poserPiece(this.pieceEnDeplacement);
 
 		// Si pièce capturée
 		if(pieceCapturee != null)
@@ -299,18 +595,440 @@ public class Echiquier
 			this.tabPiecesCapturees.get(pieceCapturee.getCouleur()).add(pieceCapturee);
 		}
 
+		this.publierInstantane();
+
 		if(this.joueur == this.joueurActif)
 		{
 			if(this.serveur != null)
 			{
-				this.serveur.envoyerDeplacement(ligOrig, colOrig, ligDest, colDest);
+				this.serveur.envoyerDeplacement(coup);
 			}
 
 			if(this.client != null)
 			{
-				this.client.envoyerDeplacement(ligOrig, colOrig, ligDest, colDest);
+				this.client.envoyerDeplacement(coup);
+			}
+		}
+	}
+
+	/**
+	 * Génère les coups d'une pièce dans un tableau fourni par l'appelant.
+	 * Les coups sont codés sur 16 bits (voir {@link Coup}).
+	 * @param piece    La pièce dont on veut les coups
+	 * @param tabCoups Le tableau à remplir (au moins {@link #NB_COUPS_MAX} cases)
+	 * @return Le nombre de coups générés.
+	 */
+	public int genererCoups(Piece piece, int[] tabCoups)
+	{
+		return this.ajouterCoups(piece, Bitboard.PLEIN, tabCoups, 0);
+	}
+
+	/**
+	 * Génère tous les coups d'un joueur dans un tableau fourni par l'appelant.
+	 * @param couleur  La couleur du joueur
+	 * @param tabCoups Le tableau à remplir (au moins {@link #NB_COUPS_MAX} cases)
+	 * @return Le nombre de coups générés.
+	 */
+	public int genererCoups(Couleur couleur, int[] tabCoups)
+	{
+		int  nbCoups = 0;
+		long pieces  = this.tabOccupations[couleur.getValeur()];
+
+		while(pieces != 0)
+		{
+			int numCase = Bitboard.premiereCase(pieces);
+			pieces &= pieces - 1;
+
+			nbCoups = this.ajouterCoups(this.tabPieces[Bitboard.getLig(numCase)][Bitboard.getCol(numCase)], Bitboard.PLEIN, tabCoups, nbCoups);
+		}
+
+		return nbCoups;
+	}
+
+	/**
+	 * Génère les coups "tactiques" d'un joueur (captures et promotions) dans un tableau 
+	 * fourni par l'appelant. Utilisé par la recherche de quiescence du moteur.
+	 * @param couleur  La couleur du joueur
+	 * @param tabCoups Le tableau à remplir (au moins {@link #NB_COUPS_MAX} cases)
+	 * @return Le nombre de coups générés.
+	 */
+	public int genererCaptures(Couleur couleur, int[] tabCoups)
+	{
+		int  nbCoups    = 0;
+		long pieces     = this.tabOccupations[couleur.getValeur()];
+		long adverses   = this.tabOccupations[Couleur.autreCouleur(couleur).getValeur()];
+		long promotions = couleur == Couleur.BLANC ? 0x00000000000000FFL : 0xFF00000000000000L; // Dernière rangée
+
+		while(pieces != 0)
+		{
+			int numCase = Bitboard.premiereCase(pieces);
+			pieces &= pieces - 1;
+
+			Piece piece = this.tabPieces[Bitboard.getLig(numCase)][Bitboard.getCol(numCase)];
+			nbCoups = this.ajouterCoups(piece, piece instanceof Pion ? adverses | promotions : adverses, tabCoups, nbCoups);
+		}
+
+		return nbCoups;
+	}
+
+	/**
+	 * Ajoute les coups d'une pièce à la suite d'un tableau de coups.
+	 * @param piece    La pièce dont on veut les coups
+	 * @param masque   Les cases de destination retenues
+	 * @param tabCoups Le tableau à remplir
+	 * @param nbCoups  Le nombre de coups déjà présents dans le tableau
+	 * @return Le nouveau nombre de coups dans le tableau.
+	 */
+	private int ajouterCoups(Piece piece, long masque, int[] tabCoups, int nbCoups)
+	{
+		int  caseOrig     = piece.getCase();
+		long destinations = piece.getDeplacements() & masque;
+
+		while(destinations != 0)
+		{
+			int caseDest = Bitboard.premiereCase(destinations);
+			tabCoups[nbCoups++] = Coup.creer(caseOrig, caseDest, this.getDrapeaux(piece, caseDest));
+			destinations &= destinations - 1;
+		}
+
+		return nbCoups;
+	}
+
+	/**
+	 * Calcule les drapeaux (capture, promotion, avance de deux cases) du déplacement 
+	 * d'une pièce vers une case, dans la position actuelle.
+	 * @param piece    La pièce déplacée
+	 * @param caseDest La case de destination (0-63)
+	 * @return Les drapeaux du coup.
+	 */
+	private int getDrapeaux(Piece piece, int caseDest)
+	{
+		int drapeaux = (this.occupation & Bitboard.masque(caseDest)) != 0 ? Coup.CAPTURE : 0;
+
+		if(piece.getNum() == 1 || piece.getNum() == 7)
+		{
+			int ligDest = Bitboard.getLig(caseDest);
+			if(ligDest == 0 || ligDest == 7)                 drapeaux |= Coup.PROMOTION;
+			if(Math.abs(ligDest - piece.getLig()) == 2)      drapeaux |= Coup.DOUBLE_POUSSEE;
+		}
+
+		return drapeaux;
+	}
+
+	/**
+	 * Complète un coup avec ses drapeaux, calculés dans la position actuelle.
+	 * @param coup Le coup (les drapeaux éventuels sont ignorés)
+	 * @return Le coup avec ses drapeaux.
+	 */
+	public int completerCoup(int coup)
+	{
+		int   caseOrig = Coup.getCaseOrig(coup);
+		int   caseDest = Coup.getCaseDest(coup);
+		Piece piece    = this.tabPieces[Bitboard.getLig(caseOrig)][Bitboard.getCol(caseOrig)];
+		if(piece == null) return coup & Coup.MASQUE_DEPLACEMENT;
+
+		return Coup.creer(caseOrig, caseDest, this.getDrapeaux(piece, caseDest));
+	}
+
+	/**
+	 * Vérifie si un coup est valide pour un joueur.
+	 * Utilisé notamment pour valider les coups reçus par le réseau.
+	 * @param couleur La couleur du joueur qui effectue le coup
+	 * @param coup    Le coup (les drapeaux sont ignorés)
+	 * @return {@code true} si le coup est valide, {@code false} sinon.
+	 */
+	public boolean estCoupValide(Couleur couleur, int coup)
+	{
+		int   caseOrig = Coup.getCaseOrig(coup);
+		Piece piece    = this.tabPieces[Bitboard.getLig(caseOrig)][Bitboard.getCol(caseOrig)];
+		return    piece != null && piece.getCouleur() == couleur
+		       && (piece.getDeplacements() & Bitboard.masque(Coup.getCaseDest(coup))) != 0;
+	}
+
+	/**
+	 * Vérifie si un déplacement est valide pour un joueur.
+	 * Utilisé notamment pour valider les déplacements reçus par le réseau.
+	 * @param couleur La couleur du joueur qui effectue le déplacement
+	 * @param ligOrig Ligne d'origine
+	 * @param colOrig Colonne d'origine
+	 * @param ligDest Ligne de destination
+	 * @param colDest Colonne de destination
+	 * @return {@code true} si le déplacement est valide, {@code false} sinon.
+	 */
+	public boolean estCoupValide(Couleur couleur, int ligOrig, int colOrig, int ligDest, int colDest)
+	{
+		if(   ligOrig < 0 || ligOrig > 7 || colOrig < 0 || colOrig > 7
+		   || ligDest < 0 || ligDest > 7 || colDest < 0 || colDest > 7) return false;
+
+		return this.estCoupValide(couleur, Coup.creer(ligOrig, colOrig, ligDest, colDest));
+	}
+
+	/**
+	 * Calcule l'ensemble des pièces (des deux couleurs) qui attaquent une case.
+	 * @param numCase    La case visée (0-63)
+	 * @param occupation Le bitboard des cases occupées à prendre en compte pour les 
+	 *                   pièces qui se déplacent en ligne (permet de retirer des pièces)
+	 * @return Le bitboard des pièces qui attaquent la case.
+	 */
+	public long getAttaquants(int numCase, long occupation)
+	{
+		long tours = this.tabBitboards[2] | this.tabBitboards[8] | this.tabBitboards[5] | this.tabBitboards[11];
+		long fous  = this.tabBitboards[4] | this.tabBitboards[10] | this.tabBitboards[5] | this.tabBitboards[11];
+
+		return (  (Attaques.pion(Couleur.NOIR,  numCase) & this.tabBitboards[1])
+		        | (Attaques.pion(Couleur.BLANC, numCase) & this.tabBitboards[7])
+		        | (Attaques.cavalier(numCase) & (this.tabBitboards[3] | this.tabBitboards[9 ]))
+		        | (Attaques.roi     (numCase) & (this.tabBitboards[6] | this.tabBitboards[12]))
+		        | (Attaques.tour(numCase, occupation) & tours)
+		        | (Attaques.fou (numCase, occupation) & fous ) ) & occupation;
+	}
+
+	/**
+	 * Vérifie si une case est attaquée par au moins une pièce d'une couleur.
+	 * @param numCase La case visée (0-63)
+	 * @param couleur La couleur des pièces attaquantes
+	 * @return {@code true} si la case est attaquée, {@code false} sinon.
+	 */
+	public boolean estAttaquee(int numCase, Couleur couleur)
+	{
+		return (this.getAttaquants(numCase, this.occupation) & this.tabOccupations[couleur.getValeur()]) != 0;
+	}
+
+	/**
+	 * Pose une pièce sur l'échiquier à sa position (lig, col) et met à jour les bitboards.
+	 * Si une autre pièce occupe déjà la case, elle est retirée.
+	 * @param piece La pièce à poser
+	 */
+	private void poserPiece(Piece piece)
+	{
+		int  lig    = piece.getLig();
+		int  col    = piece.getCol();
+		long masque = Bitboard.masque(lig, col);
+
+		this.retirerPiece(lig, col);
+
+		this.tabPieces[lig][col] = piece;
+		this.tabBitboards  [piece.getNum()]                   |= masque;
+		this.tabOccupations[piece.getCouleur().getValeur()] |= masque;
+		this.occupation                                      |= masque;
+		this.cle ^= this.getClePiece(piece);
+
+		int numCase = Bitboard.getCase(lig, col);
+		if(piece instanceof Pion) this.clePions ^= Zobrist.piece(piece.getNum(), numCase);
+		this.scoreOuverture += Evaluation.ouverture(piece.getNum(), numCase);
+		this.scoreFinale    += Evaluation.finale   (piece.getNum(), numCase);
+		this.phase          += Evaluation.phase    (piece.getNum());
+	}
+
+	/**
+	 * Retire la pièce présente sur une case de l'échiquier et met à jour les bitboards.
+	 * @param lig Ligne de la case
+	 * @param col Colonne de la case
+	 * @return La pièce retirée, ou {@code null} si la case était vide.
+	 */
+	private Piece retirerPiece(int lig, int col)
+	{
+		Piece piece = this.tabPieces[lig][col];
+		if(piece == null) return null;
+
+		long masque = Bitboard.masque(lig, col);
+
+		this.tabPieces[lig][col] = null;
+		this.tabBitboards  [piece.getNum()]                   &= ~masque;
+		this.tabOccupations[piece.getCouleur().getValeur()] &= ~masque;
+		this.occupation                                      &= ~masque;
+		this.cle ^= this.getClePiece(piece);
+
+		int numCase = Bitboard.getCase(lig, col);
+		if(piece instanceof Pion) this.clePions ^= Zobrist.piece(piece.getNum(), numCase);
+		this.scoreOuverture -= Evaluation.ouverture(piece.getNum(), numCase);
+		this.scoreFinale    -= Evaluation.finale   (piece.getNum(), numCase);
+		this.phase          -= Evaluation.phase    (piece.getNum());
+
+		return piece;
+	}
+
+	/**
+	 * Joue un coup sur l'échiquier, sans animation, sans notifier l'IHM et sans 
+	 * l'envoyer par le réseau, puis passe la main à l'autre joueur.
+	 * Un pion qui atteint la dernière rangée est immédiatement promu en reine.
+	 * Le coup est enregistré dans une pile pour pouvoir être annulé avec {@link #annulerCoup()}.
+	 * Aucune allocation n'est effectuée, ce qui permet d'analyser des positions rapidement.
+	 * @param coup Le coup à jouer (voir {@link Coup}), tel que généré par {@link #genererCoups(Couleur, int[])}
+	 */
+	public void jouerCoup(int coup)
+	{
+		int caseOrig = Coup.getCaseOrig(coup);
+		int caseDest = Coup.getCaseDest(coup);
+		int ligDest  = Bitboard.getLig(caseDest);
+		int colDest  = Bitboard.getCol(caseDest);
+
+		if(this.nbCoupsPile == this.pileCoups.length) this.agrandirPile();
+
+		Piece pieceCapturee = this.retirerPiece(ligDest, colDest);
+		Piece piece         = this.retirerPiece(Bitboard.getLig(caseOrig), Bitboard.getCol(caseOrig));
+		int   annulation    = coup;
+
+		Piece pieceDeplacee = piece;
+		piece.placer(ligDest, colDest);
+
+		if(piece instanceof Pion)
+		{
+			Pion pion = (Pion) piece;
+			if(pion.getCaseDepart())
+			{
+				pion.setCaseDepart(false);
+				annulation |= ANNUL_CASE_DEPART;
+			}
+
+			// Promotion du pion en reine
+			if(ligDest == 0 || ligDest == 7)
+			{
+				int   indCouleur = piece.getCouleur().getValeur();
+				Reine reine      = this.tabReinesPromotion[indCouleur][this.nbReinesPromotion[indCouleur]++];
+				reine.placer(ligDest, colDest);
+				piece = reine; // Le pion n'est plus sur l'échiquier
+				annulation |= ANNUL_PROMOTION;
+			}
+		}
+
+		this.poserPiece(piece);
+
+		this.pileCoups   [this.nbCoupsPile] = annulation;
+		this.pilePieces  [this.nbCoupsPile] = pieceDeplacee;
+		this.pileCaptures[this.nbCoupsPile] = pieceCapturee;
+		this.nbCoupsPile++;
+
+		this.joueurActif = Couleur.autreCouleur(this.joueurActif);
+		this.cle        ^= Zobrist.TRAIT_NOIR;
+	}
+
+	/**
+	 * Annule le dernier coup joué avec {@link #jouerCoup(int)} et rend la main 
+	 * au joueur qui l'avait joué.
+	 */
+	public void annulerCoup()
+	{
+		this.nbCoupsPile--;
+		int   annulation    = this.pileCoups   [this.nbCoupsPile];
+		Piece piece         = this.pilePieces  [this.nbCoupsPile];
+		Piece pieceCapturee = this.pileCaptures[this.nbCoupsPile];
+		this.pileCaptures[this.nbCoupsPile] = null;
+
+		int caseOrig = Coup.getCaseOrig(annulation);
+		int caseDest = Coup.getCaseDest(annulation);
+
+		this.joueurActif = Couleur.autreCouleur(this.joueurActif);
+		this.cle        ^= Zobrist.TRAIT_NOIR;
+
+		// Retire la pièce (ou la reine issue de la promotion) de sa case d'arrivée
+		this.retirerPiece(Bitboard.getLig(caseDest), Bitboard.getCol(caseDest));
+		if((annulation & ANNUL_PROMOTION) != 0)
+			this.nbReinesPromotion[piece.getCouleur().getValeur()]--;
+
+		// Remet la pièce sur sa case de départ
+		piece.placer(Bitboard.getLig(caseOrig), Bitboard.getCol(caseOrig));
+		if((annulation & ANNUL_CASE_DEPART) != 0)
+			((Pion) piece).setCaseDepart(true);
+		this.poserPiece(piece);
+
+		// Remet la pièce capturée
+		if(pieceCapturee != null)
+			this.poserPiece(pieceCapturee);
+	}
+
+	/**
+	 * Retourne le nombre de coups joués avec {@link #jouerCoup(int)} qui peuvent être annulés.
+	 * @return Le nombre de coups dans la pile d'annulation.
+	 */
+	public int getNbCoupsJoues() { return this.nbCoupsPile; }
+
+	/**
+	 * Publie un instantané immuable de la position actuelle (voir {@link Instantane}).
+	 * Appelé après chaque coup validé. Les coups joués avec jouerCoup (analyse) ne 
+	 * publient rien : c'est à l'appelant de le faire, comme le fait {@link Partie}.
+	 */
+	public void publierInstantane()
+	{
+		int dernierCoup = Coup.AUCUN;
+		if     (this.nbCoupsPile       > 0) dernierCoup = this.pileCoups [this.nbCoupsPile       - 1] & 0xFFFF;
+		else if(this.nbCoupsHistorique > 0) dernierCoup = this.historique[this.nbCoupsHistorique - 1] & 0xFFFF;
+
+		this.instantane = new Instantane(this, dernierCoup);
+	}
+
+	/**
+	 * Double la taille de la pile d'annulation lorsqu'elle est pleine.
+	 */
+	private void agrandirPile()
+	{
+		this.pileCoups    = Arrays.copyOf(this.pileCoups,    this.pileCoups.length    * 2);
+		this.pilePieces   = Arrays.copyOf(this.pilePieces,   this.pilePieces.length   * 2);
+		this.pileCaptures = Arrays.copyOf(this.pileCaptures, this.pileCaptures.length * 2);
+	}
+
+	/**
+	 * Retourne la contribution d'une pièce à la clé de Zobrist de la position :
+	 * sa case, et pour un pion, le fait qu'il soit encore sur sa case de départ.
+	 * @param piece La pièce
+	 * @return La valeur à combiner avec la clé.
+	 */
+	private long getClePiece(Piece piece)
+	{
+		int  numCase = piece.getCase();
+		long cle     = Zobrist.piece(piece.getNum(), numCase);
+		if(piece instanceof Pion && ((Pion) piece).getCaseDepart())
+			cle ^= Zobrist.caseDepart(numCase);
+		return cle;
+	}
+
+	/**
+	 * Recalcule entièrement la clé de Zobrist de la position.
+	 * La clé est normalement mise à jour de façon incrémentale : cette méthode 
+	 * sert à vérifier sa cohérence.
+	 * @return La clé de la position.
+	 */
+	public long calculerCle()
+	{
+		long cle = (this.joueurActif == Couleur.NOIR ? Zobrist.TRAIT_NOIR : 0L);
+		for(int lig = 0; lig < 8; lig++)
+			for(int col = 0; col < 8; col++)
+				if(this.tabPieces[lig][col] != null)
+					cle ^= this.getClePiece(this.tabPieces[lig][col]);
+		return cle;
+	}
+
+	/**
+	 * Vérifie que l'évaluation tenue à jour de façon incrémentale (scores d'ouverture 
+	 * et de finale, phase, clé des pions) correspond à un recalcul complet de la position.
+	 * Utilisé en mode vérification par le moteur.
+	 * @throws IllegalStateException Si les totaux ne correspondent pas.
+	 */
+	public void verifierEvaluation()
+	{
+		int  ouverture = 0, finale = 0, phaseTotale = 0;
+		long clePionsTotale = 0L;
+		for(int lig = 0; lig < 8; lig++)
+		{
+			for(int col = 0; col < 8; col++)
+			{
+				Piece piece = this.tabPieces[lig][col];
+				if(piece == null) continue;
+
+				ouverture   += Evaluation.ouverture(piece.getNum(), Bitboard.getCase(lig, col));
+				finale      += Evaluation.finale   (piece.getNum(), Bitboard.getCase(lig, col));
+				phaseTotale += Evaluation.phase    (piece.getNum());
+				if(piece instanceof Pion) clePionsTotale ^= Zobrist.piece(piece.getNum(), Bitboard.getCase(lig, col));
 			}
 		}
+
+		if(clePionsTotale != this.clePions)
+			throw new IllegalStateException("Clé des pions incohérente");
+
+		if(ouverture != this.scoreOuverture || finale != this.scoreFinale || phaseTotale != this.phase)
+			throw new IllegalStateException("Évaluation incrémentale incohérente : " 
+			                                + this.scoreOuverture + "/" + this.scoreFinale + "/" + this.phase 
+			                                + " au lieu de " + ouverture + "/" + finale + "/" + phaseTotale);
 	}
 
 	/**
@@ -0,0 +1,77 @@
+package metier;
+
+import constants.Couleur;
+import metier.piece.Piece;
+import metier.utils.Bitboard;
+
+/**
+ * Classe représentant un instantané immuable de la position.
+ * L'échiquier publie un nouvel instantané après chaque coup validé (voir
+ * {@link Echiquier#getInstantane()}). Les autres threads (affichage, spectateurs,
+ * analyse) peuvent ainsi lire une position cohérente sans verrou, seul le thread
+ * de jeu modifiant l'échiquier.
+ *
+ * La position est stockée de façon compacte : un octet par case (numéro de la pièce,
+ * 0 si vide) et les cases atteignables par chaque pièce du joueur actif.
+ *
+ * @author Ted Herambert
+ * @date 23/11/2024
+ * @version 1.0
+ */
+public final class Instantane
+{
+	private final byte[]  tabCases;        // Numéro de la pièce de chaque case (0-63), 0 si vide
+	private final long[]  tabDeplacements; // Cases atteignables depuis chaque case par le joueur actif
+	private final Couleur joueurActif;
+	private final int     numTour;
+	private final long    cle;
+	private final int     dernierCoup;
+	private final boolean finJeu;
+
+	/**
+	 * Constructeur d'un instantané à partir de l'état actuel de l'échiquier.
+	 * Doit être appelé par le thread qui modifie l'échiquier.
+	 *
+	 * @param echiquier   L'échiquier
+	 * @param dernierCoup Le dernier coup joué (voir {@link Coup}), {@link Coup#AUCUN} si aucun
+	 */
+	Instantane(Echiquier echiquier, int dernierCoup)
+	{
+		this.tabCases        = new byte[64];
+		this.tabDeplacements = new long[64];
+
+		for(int numCase = 0; numCase < 64; numCase++)
+		{
+			Piece piece = echiquier.getPiece(Bitboard.getLig(numCase), Bitboard.getCol(numCase));
+			if(piece != null)
+			{
+				this.tabCases[numCase] = (byte) piece.getNum();
+				if(piece.getCouleur() == echiquier.getJoueurActif())
+					this.tabDeplacements[numCase] = piece.getDeplacements();
+			}
+		}
+
+		this.joueurActif = echiquier.getJoueurActif();
+		this.numTour     = echiquier.getNumTour();
+		this.cle         = echiquier.getCle();
+		this.dernierCoup = dernierCoup;
+		this.finJeu      = echiquier.estFinJeu();
+	}
+
+	// Getters
+	public int     getNumPiece   (int numCase)      { return this.tabCases[numCase];                    }
+	public int     getNumPiece   (int lig, int col) { return this.tabCases[Bitboard.getCase(lig, col)]; }
+	public Couleur getJoueurActif()                 { return this.joueurActif;                          }
+	public int     getNumTour    ()                 { return this.numTour;                              }
+	public long    getCle        ()                 { return this.cle;                                  }
+	public int     getDernierCoup()                 { return this.dernierCoup;                          }
+	public boolean estFinJeu     ()                 { return this.finJeu;                               }
+
+	/**
+	 * Retourne les cases atteignables par la pièce du joueur actif située sur une case.
+	 *
+	 * @param numCase La case de la pièce (0-63)
+	 * @return Le bitboard des cases atteignables, vide si la case ne contient pas de pièce du joueur actif.
+	 */
+	public long getDeplacements(int numCase) { return this.tabDeplacements[numCase]; }
+}
@@ -0,0 +1,138 @@
+package metier;
+
+import constants.Couleur;
+import metier.piece.Piece;
+
+/**
+ * Classe représentant une partie d'échecs sans interface graphique ni réseau.
+ * Elle permet de créer une partie, de jouer des coups, de consulter l'état du jeu 
+ * et d'obtenir le résultat. Les coups sont appliqués immédiatement (sans animation) 
+ * et la main passe aussitôt à l'autre joueur.
+ * 
+ * Cette classe n'utilise ni AWT, ni Swing, ni les sockets : un serveur peut donc 
+ * gérer un grand nombre de parties dans une même JVM, sans charger l'interface graphique.
+ * Après chaque coup, un instantané de la position est publié pour les spectateurs 
+ * (voir {@link #getInstantane()}).
+ * 
+ * @author Ted Herambert
+ * @date 23/11/2024
+ * @version 1.0
+ */
+public class Partie
+{
+	private Echiquier echiquier;
+	private int[]     tabCoups; // Tableau de coups réutilisé pour la validation
+
+	/**
+	 * Constructeur d'une partie depuis la position de départ.
+	 */
+	public Partie()
+	{
+		this.echiquier = new Echiquier();
+		this.tabCoups  = new int[Echiquier.NB_COUPS_MAX];
+	}
+
+	/**
+	 * Constructeur d'une partie depuis une position quelconque.
+	 * 
+	 * @param disposition Numéro de la pièce (0 si vide) de chaque case, indexé par [lig][col]
+	 * @param trait       La couleur du joueur qui doit jouer
+	 */
+	public Partie(int[][] disposition, Couleur trait)
+	{
+		this.echiquier = new Echiquier(disposition, trait);
+		this.tabCoups  = new int[Echiquier.NB_COUPS_MAX];
+	}
+
+	// Getters
+	public Echiquier  getEchiquier   ()                 { return this.echiquier;                      }
+	public Piece      getPiece       (int lig, int col) { return this.echiquier.getPiece(lig, col);    }
+	public Couleur    getJoueurActif ()                 { return this.echiquier.getJoueurActif();      }
+	public int        getNbCoupsJoues()                 { return this.echiquier.getNbCoupsJoues();     }
+	public long       getCle         ()                 { return this.echiquier.getCle();              }
+	public Instantane getInstantane  ()                 { return this.echiquier.getInstantane();       }
+
+	/**
+	 * Vérifie si la partie est terminée (le roi du joueur actif a été capturé).
+	 * 
+	 * @return {@code true} si la partie est terminée, {@code false} sinon.
+	 */
+	public boolean estTerminee() { return this.echiquier.estFinJeu(); }
+
+	/**
+	 * Retourne le gagnant de la partie.
+	 * 
+	 * @return La couleur du gagnant, ou {@code null} si la partie n'est pas terminée.
+	 */
+	public Couleur getGagnant()
+	{
+		return this.estTerminee() ? Couleur.autreCouleur(this.echiquier.getJoueurActif()) : null;
+	}
+
+	/**
+	 * Génère les coups du joueur actif.
+	 * 
+	 * @param tabCoups Le tableau à remplir (au moins {@link Echiquier#NB_COUPS_MAX} cases)
+	 * @return Le nombre de coups, 0 si la partie est terminée.
+	 */
+	public int genererCoups(int[] tabCoups)
+	{
+		if(this.estTerminee()) return 0;
+		return this.echiquier.genererCoups(this.echiquier.getJoueurActif(), tabCoups);
+	}
+
+	/**
+	 * Joue un déplacement du joueur actif s'il est valide.
+	 * 
+	 * @param ligOrig Ligne d'origine
+	 * @param colOrig Colonne d'origine
+	 * @param ligDest Ligne de destination
+	 * @param colDest Colonne de destination
+	 * @return {@code true} si le déplacement a été joué, {@code false} s'il n'est pas valide.
+	 */
+	public boolean jouer(int ligOrig, int colOrig, int ligDest, int colDest)
+	{
+		if(   this.estTerminee()
+		   || !this.echiquier.estCoupValide(this.echiquier.getJoueurActif(), ligOrig, colOrig, ligDest, colDest))
+			return false;
+
+		this.echiquier.jouerCoup(this.echiquier.completerCoup(Coup.creer(ligOrig, colOrig, ligDest, colDest)));
+		this.echiquier.publierInstantane();
+		return true;
+	}
+
+	/**
+	 * Joue un coup du joueur actif s'il est valide.
+	 * 
+	 * @param coup Le coup (voir {@link Coup}), les drapeaux sont ignorés
+	 * @return {@code true} si le coup a été joué, {@code false} s'il n'est pas valide.
+	 */
+	public boolean jouer(int coup)
+	{
+		int nbCoups = this.genererCoups(this.tabCoups);
+		for(int i = 0; i < nbCoups; i++)
+		{
+			if(Coup.memeDeplacement(this.tabCoups[i], coup))
+			{
+				this.echiquier.jouerCoup(this.tabCoups[i]);
+				this.echiquier.publierInstantane();
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Annule le dernier coup joué.
+	 * 
+	 * @return {@code true} si un coup a été annulé, {@code false} si aucun coup n'a été joué.
+	 */
+	public boolean annuler()
+	{
+		if(this.echiquier.getNbCoupsJoues() == 0) return false;
+
+		this.echiquier.annulerCoup();
+		this.echiquier.publierInstantane();
+		return true;
+	}
+}
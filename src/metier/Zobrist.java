@@ -0,0 +1,66 @@
+package metier;
+
+import java.util.Random;
+
+/**
+ * Classe utilitaire contenant les nombres aléatoires utilisés pour le hachage de Zobrist.
+ * La clé d'une position est obtenue en combinant (ou exclusif) un nombre par pièce 
+ * et par case, un nombre pour chaque pion encore sur sa case de départ, et un nombre 
+ * lorsque c'est aux noirs de jouer.
+ * Chaque déplacement ne modifie que quelques termes, ce qui permet de mettre à jour 
+ * la clé en quelques opérations.
+ * Les nombres sont tirés avec une graine fixe : une position a donc toujours la même 
+ * clé, d'une exécution à l'autre.
+ * 
+ * @author Ted Herambert
+ * @date 23/11/2024
+ * @version 1.0
+ */
+public final class Zobrist
+{
+	// Graine du générateur de nombres aléatoires
+	private static final long GRAINE = 0x45434845435A4FL;
+
+	// Un nombre par numéro de pièce (1-12) et par case
+	private static final long[][] TAB_PIECES      = new long[13][64];
+
+	// Un nombre par case pour un pion qui n'a pas encore quitté sa case de départ
+	private static final long[]   TAB_CASE_DEPART = new long[64];
+
+	// Nombre ajouté lorsque c'est aux noirs de jouer
+	public  static final long     TRAIT_NOIR;
+
+	static
+	{
+		Random random = new Random(GRAINE);
+
+		for(int num = 1; num < TAB_PIECES.length; num++)
+			for(int numCase = 0; numCase < 64; numCase++)
+				TAB_PIECES[num][numCase] = random.nextLong();
+
+		for(int numCase = 0; numCase < 64; numCase++)
+			TAB_CASE_DEPART[numCase] = random.nextLong();
+
+		TRAIT_NOIR = random.nextLong();
+	}
+
+	/**
+	 * Constructeur privé pour empêcher l'instanciation de cette classe utilitaire.
+	 */
+	private Zobrist() {}
+
+	/**
+	 * Retourne le nombre associé à une pièce sur une case.
+	 * @param num     Le numéro de la pièce (1-12)
+	 * @param numCase La case (0-63)
+	 * @return Le nombre aléatoire correspondant.
+	 */
+	public static long piece(int num, int numCase) { return TAB_PIECES[num][numCase]; }
+
+	/**
+	 * Retourne le nombre associé à un pion qui est encore sur sa case de départ.
+	 * @param numCase La case du pion (0-63)
+	 * @return Le nombre aléatoire correspondant.
+	 */
+	public static long caseDepart(int numCase) { return TAB_CASE_DEPART[numCase]; }
+}
@@ -0,0 +1,278 @@
+package metier.moteur;
+
+import constants.Couleur;
+import metier.Coup;
+import metier.Instantane;
+import metier.utils.Bitboard;
+
+/**
+ * Classe chargée des conseils de l'ordinateur pendant une partie en réseau, et de la
+ * recherche anticipée ("pondering") pendant le tour de l'adversaire.
+ *
+ * Pendant le tour de l'adversaire, le joueur local attend son coup sans rien faire :
+ * l'ordinateur prévoit alors la réponse de l'adversaire (coup de la table de
+ * transposition, sinon courte recherche) et cherche déjà le conseil de la position
+ * qui en résulte, sans limite de temps. Quand le coup de l'adversaire arrive :
+ * <ul>
+ *   <li>s'il s'agit du coup prévu, la recherche en cours continue avec le temps
+ *       normal d'un coup, compté depuis son début (le conseil est souvent immédiat) ;</li>
+ *   <li>sinon, la recherche anticipée est arrêtée et une recherche normale est lancée
+ *       sur la position réelle.</li>
+ * </ul>
+ * Les recherches sont faites dans un thread à part ; les méthodes publiques sont
+ * appelées par le thread de jeu.
+ *
+ * @author Ted Herambert
+ * @date 23/11/2024
+ * @version 1.0
+ */
+public class Anticipation
+{
+	// Temps de la recherche qui prévoit la réponse de l'adversaire, en millisecondes
+	private static final long DUREE_PREVISION = 100;
+
+	private Moteur moteur;     // Recherche des conseils (et recherche anticipée)
+	private Moteur prevision;  // Recherche courte de la réponse de l'adversaire
+	private Thread thread;     // Thread de la recherche en cours (null si aucune)
+
+	private volatile boolean annulee;           // La recherche en cours a été arrêtée
+	private volatile int[][] dispositionPrevue; // Position attendue après la réponse prévue (null si aucune)
+	private volatile int     conseil;           // Coup conseillé au joueur local pour le tour en cours
+
+	// Dernier tour traité
+	private          int     numTour;
+	private volatile Couleur joueurActif;
+	private volatile Couleur joueur;      // Couleur du joueur local
+
+	// Statistiques
+	private volatile long nbPrevisions; // Recherches anticipées lancées sur une réponse prévue
+	private long          nbSucces;     // Réponses prévues effectivement jouées par l'adversaire
+
+	/**
+	 * Constructeur de l'anticipation.
+	 *
+	 * @param moteur Le moteur utilisé pour les conseils (sa table de transposition
+	 *               est partagée avec la recherche qui prévoit la réponse de l'adversaire)
+	 */
+	public Anticipation(Moteur moteur)
+	{
+		this.moteur    = moteur;
+		this.prevision = new Moteur(DUREE_PREVISION, moteur.getTable());
+		this.conseil   = Coup.AUCUN;
+		this.numTour   = -1;
+	}
+
+	// Getters
+	public long getNbPrevisions() { return this.nbPrevisions; }
+	public long getNbSucces    () { return this.nbSucces;     }
+
+	/**
+	 * Retourne le coup conseillé au joueur local.
+	 *
+	 * @return Le coup, {@link Coup#AUCUN} si ce n'est pas au joueur local de jouer ou si
+	 *         la recherche n'est pas terminée.
+	 */
+	public int getConseil() { return this.joueurActif == this.joueur ? this.conseil : Coup.AUCUN; }
+
+	/**
+	 * Retourne la proportion de réponses prévues effectivement jouées par l'adversaire.
+	 *
+	 * @return Le taux de succès, entre 0 et 1.
+	 */
+	public double getTauxSucces() { return (double) this.nbSucces / Math.max(1, this.nbPrevisions); }
+
+	/**
+	 * Suit la partie : à chaque changement de tour, lance la recherche anticipée (tour
+	 * de l'adversaire) ou la recherche du conseil (tour du joueur local).
+	 * Appelée par le thread de jeu après chaque mise à jour.
+	 *
+	 * @param instantane La position de la partie
+	 * @param joueur     La couleur du joueur local
+	 */
+	public void suivre(Instantane instantane, Couleur joueur)
+	{
+		if(instantane.getNumTour() == this.numTour && instantane.getJoueurActif() == this.joueurActif && joueur == this.joueur) return;
+		this.numTour     = instantane.getNumTour();
+		this.joueurActif = instantane.getJoueurActif();
+		this.joueur      = joueur;
+
+		if(instantane.estFinJeu())
+		{
+			this.arreter();
+			this.conseil = Coup.AUCUN;
+			return;
+		}
+
+		int[][] disposition = Anticipation.getDisposition(instantane);
+
+		// Tour de l'adversaire : recherche anticipée sur sa réponse prévue
+		if(instantane.getJoueurActif() != joueur)
+		{
+			this.arreter();
+			this.conseil = Coup.AUCUN;
+			this.lancer(() -> this.anticiper(instantane, disposition, joueur));
+			return;
+		}
+
+		// Tour du joueur local : la recherche anticipée (terminée ou non) est conservée si l'adversaire a joué le coup prévu
+		int[][] dispositionPrevue = this.dispositionPrevue;
+		if(dispositionPrevue != null && Anticipation.memePosition(dispositionPrevue, disposition))
+		{
+			this.nbSucces++;
+			this.moteur.terminerPonderation();
+			System.out.printf("Anticipation : coup prévu joué (%d/%d, %.0f %%)%n", this.nbSucces, this.nbPrevisions, 100 * this.getTauxSucces());
+			return;
+		}
+
+		if(dispositionPrevue != null)
+			System.out.printf("Anticipation : coup imprévu (%d/%d, %.0f %%)%n", this.nbSucces, this.nbPrevisions, 100 * this.getTauxSucces());
+
+		this.arreter();
+		this.conseil = Coup.AUCUN;
+		this.lancer(() -> this.conseiller(disposition, joueur));
+	}
+
+	/**
+	 * Arrête la recherche en cours et attend la fin de son thread.
+	 */
+	public void arreter()
+	{
+		this.annulee           = true;
+		this.dispositionPrevue = null;
+
+		// La demande d'arrêt est répétée : la recherche a pu démarrer entre-temps
+		while(this.thread != null && this.thread.isAlive())
+		{
+			this.prevision.arreter();
+			this.moteur   .arreter();
+			try
+			{
+				this.thread.join(5);
+			}
+			catch(InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+		this.thread = null;
+	}
+
+	/**
+	 * Lance une recherche dans un nouveau thread.
+	 *
+	 * @param recherche La recherche
+	 */
+	private void lancer(Runnable recherche)
+	{
+		this.annulee = false;
+		this.thread  = new Thread(recherche);
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	/**
+	 * Recherche anticipée : prévoit la réponse de l'adversaire et cherche le conseil
+	 * de la position qui en résulte, sans limite de temps.
+	 *
+	 * @param instantane  La position, l'adversaire devant jouer
+	 * @param disposition La disposition des pièces de la position
+	 * @param joueur      La couleur du joueur local
+	 */
+	private void anticiper(Instantane instantane, int[][] disposition, Couleur joueur)
+	{
+		int reponse = this.prevoir(instantane, disposition);
+		if(this.annulee || reponse == Coup.AUCUN) return;
+
+		// La recherche est mise sans limite avant de publier la position prévue : terminerPonderation() peut suivre aussitôt
+		Anticipation.jouer(disposition, reponse);
+		this.moteur.setPonderation(true);
+		this.nbPrevisions++;
+		this.dispositionPrevue = disposition;
+
+		int coup = this.moteur.chercher(disposition, joueur);
+		if(!this.annulee) this.conseil = coup;
+	}
+
+	/**
+	 * Recherche normale du conseil d'une position.
+	 *
+	 * @param disposition La disposition des pièces de la position
+	 * @param joueur      La couleur du joueur local, qui doit jouer
+	 */
+	private void conseiller(int[][] disposition, Couleur joueur)
+	{
+		this.moteur.setPonderation(false);
+		int coup = this.moteur.chercher(disposition, joueur);
+		if(!this.annulee) this.conseil = coup;
+	}
+
+	/**
+	 * Prévoit la réponse de l'adversaire : le coup mémorisé dans la table de
+	 * transposition pour cette position, sinon le résultat d'une courte recherche.
+	 *
+	 * @param instantane  La position, l'adversaire devant jouer
+	 * @param disposition La disposition des pièces de la position
+	 * @return La réponse prévue, {@link Coup#AUCUN} si l'adversaire ne peut pas jouer.
+	 */
+	private int prevoir(Instantane instantane, int[][] disposition)
+	{
+		long entree = this.moteur.getTable().lire(instantane.getCle());
+		if(entree != 0)
+		{
+			int coup = TableTransposition.getCoup(entree);
+			if(Bitboard.contient(instantane.getDeplacements(Coup.getCaseOrig(coup)), Coup.getCaseDest(coup)))
+				return coup;
+		}
+
+		return this.prevision.chercher(disposition, instantane.getJoueurActif());
+	}
+
+	/**
+	 * Retourne la disposition des pièces d'une position.
+	 *
+	 * @param instantane La position
+	 * @return Numéro de la pièce (0 si vide) de chaque case, indexé par [lig][col].
+	 */
+	private static int[][] getDisposition(Instantane instantane)
+	{
+		int[][] disposition = new int[8][8];
+		for(int lig = 0; lig < 8; lig++)
+			for(int col = 0; col < 8; col++)
+				disposition[lig][col] = instantane.getNumPiece(lig, col);
+
+		return disposition;
+	}
+
+	/**
+	 * Joue un coup sur une disposition (un pion qui atteint la dernière rangée devient une reine).
+	 *
+	 * @param disposition La disposition des pièces
+	 * @param coup        Le coup
+	 */
+	private static void jouer(int[][] disposition, int coup)
+	{
+		int num = disposition[Coup.getLigOrig(coup)][Coup.getColOrig(coup)];
+		disposition[Coup.getLigOrig(coup)][Coup.getColOrig(coup)] = 0;
+
+		if(num == 1 && Coup.getLigDest(coup) == 0) num = 5;
+		if(num == 7 && Coup.getLigDest(coup) == 7) num = 11;
+		disposition[Coup.getLigDest(coup)][Coup.getColDest(coup)] = num;
+	}
+
+	/**
+	 * Vérifie si deux dispositions sont identiques.
+	 *
+	 * @param disposition1 La première disposition
+	 * @param disposition2 La seconde disposition
+	 * @return {@code true} si toutes les cases contiennent la même pièce.
+	 */
+	private static boolean memePosition(int[][] disposition1, int[][] disposition2)
+	{
+		for(int lig = 0; lig < 8; lig++)
+			for(int col = 0; col < 8; col++)
+				if(disposition1[lig][col] != disposition2[lig][col]) return false;
+
+		return true;
+	}
+}
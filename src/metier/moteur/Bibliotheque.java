@@ -0,0 +1,178 @@
+package metier.moteur;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import metier.Coup;
+import metier.Echiquier;
+import metier.utils.Bitboard;
+
+/**
+ * Classe représentant une bibliothèque d'ouvertures, lue dans un fichier au format
+ * Polyglot (.bin) : une suite d'entrées de 16 octets (gros-boutiste) triées par clé,
+ * <pre>
+ *   clé de la position (8 octets) | coup (2 octets) | poids (2 octets) | apprentissage (4 octets)
+ * </pre>
+ * Le coup est codé comme dans Polyglot : colonne et rangée (0 = première rangée) de la
+ * case d'arrivée sur les bits 0-5, de la case de départ sur les bits 6-11, pièce de
+ * promotion sur les bits 12-14.
+ *
+ * La clé est la clé de Zobrist de l'échiquier (voir {@link Echiquier#getCle()}) et non
+ * la clé officielle de Polyglot : les règles simplifiées du jeu (ni roque, ni prise en
+ * passant) ne permettent pas d'utiliser les livres Polyglot existants. Les fichiers
+ * sont créés avec l'outil {@code outils.CreationBibliotheque}.
+ *
+ * Le fichier est projeté en mémoire ({@link FileChannel#map}) et la recherche d'une
+ * position est une recherche dichotomique qui ne crée aucun objet. La projection est
+ * en lecture seule et partagée par toutes les parties (voir {@link #ouvrir(String)}).
+ *
+ * @author Ted Herambert
+ * @date 23/11/2024
+ * @version 1.0
+ */
+public class Bibliotheque
+{
+	// Taille d'une entrée, en octets
+	public static final int TAILLE_ENTREE = 16;
+
+	// Valeur Polyglot de la promotion en reine (la seule promotion du jeu)
+	private static final int PROMOTION_REINE = 4;
+
+	// Bibliothèques déjà ouvertes, indexées par chemin absolu du fichier
+	private static final HashMap<Path, Bibliotheque> TAB_BIBLIOTHEQUES = new HashMap<>();
+
+	private ByteBuffer tampon;    // Projection du fichier en mémoire
+	private int        nbEntrees;
+
+	/**
+	 * Constructeur de la bibliothèque : projette le fichier en mémoire.
+	 *
+	 * @param chemin Le chemin du fichier
+	 * @throws IOException Si le fichier ne peut pas être lu ou n'est pas au bon format.
+	 */
+	private Bibliotheque(Path chemin) throws IOException
+	{
+		// La projection reste valide après la fermeture du canal
+		try(FileChannel canal = FileChannel.open(chemin, StandardOpenOption.READ))
+		{
+			long taille = canal.size();
+			if(taille % TAILLE_ENTREE != 0 || taille / TAILLE_ENTREE > Integer.MAX_VALUE)
+				throw new IOException("Fichier de bibliothèque invalide : " + chemin);
+
+			this.tampon    = canal.map(FileChannel.MapMode.READ_ONLY, 0, taille);
+			this.nbEntrees = (int) (taille / TAILLE_ENTREE);
+		}
+	}
+
+	/**
+	 * Ouvre une bibliothèque d'ouvertures. Un même fichier n'est projeté qu'une seule
+	 * fois : les parties qui l'ouvrent ensuite partagent la même bibliothèque.
+	 *
+	 * @param fichier Le chemin du fichier
+	 * @return La bibliothèque.
+	 * @throws IOException Si le fichier ne peut pas être lu ou n'est pas au bon format.
+	 */
+	public static synchronized Bibliotheque ouvrir(String fichier) throws IOException
+	{
+		Path         chemin       = Paths.get(fichier).toAbsolutePath().normalize();
+		Bibliotheque bibliotheque = TAB_BIBLIOTHEQUES.get(chemin);
+
+		if(bibliotheque == null)
+		{
+			bibliotheque = new Bibliotheque(chemin);
+			TAB_BIBLIOTHEQUES.put(chemin, bibliotheque);
+		}
+
+		return bibliotheque;
+	}
+
+	// Getters
+	public int  getNbEntrees()      { return this.nbEntrees;                                        }
+	public long getCle      (int i) { return this.tampon.getLong (i * TAILLE_ENTREE);               }
+	public int  getCoup     (int i) { return this.tampon.getShort(i * TAILLE_ENTREE + 8)  & 0xFFFF; }
+	public int  getPoids    (int i) { return this.tampon.getShort(i * TAILLE_ENTREE + 10) & 0xFFFF; }
+
+	/**
+	 * Choisit un coup de la bibliothèque pour la position d'un échiquier, au hasard
+	 * parmi les coups de la position, proportionnellement à leur poids.
+	 *
+	 * @param echiquier L'échiquier
+	 * @return Le coup (avec ses drapeaux), {@link Coup#AUCUN} si la position n'est pas dans la bibliothèque.
+	 */
+	public int chercherCoup(Echiquier echiquier)
+	{
+		long cle   = echiquier.getCle();
+		int  debut = this.premiereEntree(cle);
+
+		int total = 0;
+		int fin   = debut;
+		while(fin < this.nbEntrees && this.getCle(fin) == cle)
+			total += this.getPoids(fin++);
+
+		if(total == 0) return Coup.AUCUN;
+
+		int tirage = ThreadLocalRandom.current().nextInt(total);
+		int i      = debut;
+		while((tirage -= this.getPoids(i)) >= 0)
+			i++;
+
+		// Un coup invalide (collision de clés) est ignoré
+		int coup = Bibliotheque.depuisPolyglot(this.getCoup(i));
+		if(!echiquier.estCoupValide(echiquier.getJoueurActif(), coup)) return Coup.AUCUN;
+
+		return echiquier.completerCoup(coup);
+	}
+
+	/**
+	 * Recherche dichotomique de la première entrée dont la clé est supérieure ou égale
+	 * à une clé donnée (les clés sont triées comme des entiers non signés).
+	 *
+	 * @param cle La clé
+	 * @return L'indice de l'entrée, {@link #getNbEntrees()} si toutes les clés sont inférieures.
+	 */
+	private int premiereEntree(long cle)
+	{
+		int bas  = 0;
+		int haut = this.nbEntrees;
+
+		while(bas < haut)
+		{
+			int milieu = (bas + haut) >>> 1;
+			if(Long.compareUnsigned(this.getCle(milieu), cle) < 0) bas  = milieu + 1;
+			else                                                   haut = milieu;
+		}
+
+		return bas;
+	}
+
+	/**
+	 * Convertit un coup au format Polyglot.
+	 *
+	 * @param coup Le coup
+	 * @return Le coup au format Polyglot.
+	 */
+	public static int versPolyglot(int coup)
+	{
+		return   Coup.getColDest(coup)       | (7 - Coup.getLigDest(coup)) << 3
+		       | Coup.getColOrig(coup) << 6  | (7 - Coup.getLigOrig(coup)) << 9
+		       | (Coup.estPromotion(coup) ? PROMOTION_REINE << 12 : 0);
+	}
+
+	/**
+	 * Convertit un coup au format Polyglot en coup sans drapeaux.
+	 *
+	 * @param coupPolyglot Le coup au format Polyglot
+	 * @return Le coup.
+	 */
+	public static int depuisPolyglot(int coupPolyglot)
+	{
+		return Coup.creer(Bitboard.getCase(7 - ((coupPolyglot >>> 9) & 7), (coupPolyglot >>> 6) & 7),
+		                  Bitboard.getCase(7 - ((coupPolyglot >>> 3) & 7),  coupPolyglot        & 7), 0);
+	}
+}
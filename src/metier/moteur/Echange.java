@@ -0,0 +1,143 @@
+package metier.moteur;
+
+import metier.Coup;
+import metier.Echiquier;
+import metier.piece.Piece;
+import metier.utils.Bitboard;
+
+/**
+ * Classe chargée de l'évaluation statique des échanges (SEE, "Static Exchange Evaluation").
+ * Elle estime le gain matériel d'une capture en simulant la suite des reprises sur
+ * la case d'arrivée, chaque joueur reprenant avec sa pièce la moins précieuse et
+ * pouvant s'arrêter quand la reprise lui ferait perdre du matériel.
+ *
+ * Les attaquants sont obtenus avec {@link Echiquier#getAttaquants(int, long)} :
+ * en retirant de l'occupation chaque pièce qui a capturé, les pièces à longue portée
+ * placées derrière elle (rayons X) rejoignent l'échange.
+ *
+ * La position n'est pas modifiée et aucun objet n'est créé pendant l'évaluation.
+ *
+ * @author Ted Herambert
+ * @date 23/11/2024
+ * @version 1.0
+ */
+public class Echange
+{
+	// Valeur des pièces en centipions, indexée par numéro de pièce
+	private static final int[] TAB_VALEURS = { 0, 100, 500, 320, 330, 900, 20000, 100, 500, 320, 330, 900, 20000 };
+
+	// Types de pièces par valeur croissante (Pion, Cavalier, Fou, Tour, Reine, Roi) : ordre des reprises
+	private static final int[] ORDRE_VALEUR = { 1, 3, 4, 2, 5, 6 };
+
+	// Nombre maximal de captures d'un échange (toutes les pièces de l'échiquier)
+	private static final int NB_CAPTURES_MAX = 32;
+
+	private Echiquier echiquier;
+	private int[]     tabGains; // Gain du joueur qui capture, après chaque capture de l'échange
+
+	/**
+	 * Constructeur de l'évaluateur d'échanges.
+	 *
+	 * @param echiquier L'échiquier sur lequel le moteur cherche
+	 */
+	public Echange(Echiquier echiquier)
+	{
+		this.echiquier = echiquier;
+		this.tabGains  = new int[NB_CAPTURES_MAX + 1];
+	}
+
+	/**
+	 * Retourne la valeur d'une pièce utilisée par l'évaluation des échanges.
+	 *
+	 * @param num Le numéro de la pièce (0 si aucune)
+	 * @return La valeur de la pièce, en centipions.
+	 */
+	public static int getValeur(int num) { return TAB_VALEURS[num]; }
+
+	/**
+	 * Indique si une capture perd du matériel. Prendre une pièce au moins aussi
+	 * précieuse que la pièce qui capture ne peut pas perdre : l'échange n'est alors pas simulé.
+	 *
+	 * @param coup La capture
+	 * @return {@code true} si l'échange sur la case d'arrivée perd du matériel.
+	 */
+	public boolean estPerdante(int coup)
+	{
+		if(TAB_VALEURS[this.getNumPiece(Coup.getCaseDest(coup))] >= TAB_VALEURS[this.getNumPiece(Coup.getCaseOrig(coup))])
+			return false;
+
+		return this.evaluer(coup) < 0;
+	}
+
+	/**
+	 * Évalue le gain matériel d'un coup pour le joueur actif, en supposant que
+	 * les deux joueurs reprennent ensuite sur la case d'arrivée tant qu'ils y ont intérêt.
+	 *
+	 * @param coup Le coup (en principe une capture)
+	 * @return Le gain estimé, en centipions (négatif si le coup perd du matériel).
+	 */
+	public int evaluer(int coup)
+	{
+		int caseOrig = Coup.getCaseOrig(coup);
+		int caseDest = Coup.getCaseDest(coup);
+
+		int  valeurAttaquant = TAB_VALEURS[this.getNumPiece(caseOrig)];
+		long occupation      = this.echiquier.getOccupation() & ~Bitboard.masque(caseOrig);
+		long attaquants      = this.echiquier.getAttaquants(caseDest, occupation);
+		int  couleur         = this.echiquier.getJoueurActif().getValeur();
+
+		int nbCaptures = 0;
+		this.tabGains[0] = TAB_VALEURS[this.getNumPiece(caseDest)];
+
+		while(nbCaptures < NB_CAPTURES_MAX)
+		{
+			// Reprise par l'adversaire de celui qui vient de capturer, avec sa pièce la moins précieuse
+			couleur = 1 - couleur;
+
+			int  numPlusFaible = 0;
+			long pieceReprise  = 0;
+			for(int num : ORDRE_VALEUR)
+			{
+				long pieces = attaquants & this.echiquier.getBitboard(num + 6 * couleur);
+				if(pieces != 0)
+				{
+					numPlusFaible = num;
+					pieceReprise  = pieces & -pieces;
+					break;
+				}
+			}
+			if(numPlusFaible == 0) break;
+
+			nbCaptures++;
+			this.tabGains[nbCaptures] = valeurAttaquant - this.tabGains[nbCaptures - 1];
+
+			// Inutile de poursuivre : le résultat ne peut plus changer de signe
+			if(Math.max(-this.tabGains[nbCaptures - 1], this.tabGains[nbCaptures]) < 0) break;
+
+			valeurAttaquant = TAB_VALEURS[numPlusFaible];
+			occupation     &= ~pieceReprise;
+			attaquants      = this.echiquier.getAttaquants(caseDest, occupation);
+		}
+
+		// Chaque joueur choisit entre reprendre et s'arrêter, en partant de la fin de l'échange
+		while(nbCaptures > 0)
+		{
+			this.tabGains[nbCaptures - 1] = -Math.max(-this.tabGains[nbCaptures - 1], this.tabGains[nbCaptures]);
+			nbCaptures--;
+		}
+
+		return this.tabGains[0];
+	}
+
+	/**
+	 * Retourne le numéro de la pièce située sur une case.
+	 *
+	 * @param numCase La case (0-63)
+	 * @return Le numéro de la pièce, 0 si la case est vide.
+	 */
+	private int getNumPiece(int numCase)
+	{
+		Piece piece = this.echiquier.getPiece(Bitboard.getLig(numCase), Bitboard.getCol(numCase));
+		return piece == null ? 0 : piece.getNum();
+	}
+}
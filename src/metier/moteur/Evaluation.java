@@ -0,0 +1,276 @@
+package metier.moteur;
+
+/**
+ * Classe utilitaire contenant les tables de l'évaluation des positions.
+ * Chaque pièce rapporte sa valeur matérielle et un bonus qui dépend de sa case
+ * (table positionnelle), avec des valeurs différentes en ouverture et en finale.
+ * Les scores sont comptés positivement pour les blancs et négativement pour les noirs.
+ *
+ * L'échiquier tient à jour les totaux d'ouverture et de finale, ainsi que la phase
+ * de la partie, à chaque pose ou retrait d'une pièce (voir
+ * {@link metier.Echiquier#getScoreOuverture()}) : l'évaluation d'une position se
+ * réduit alors à un mélange des deux totaux selon la phase.
+ *
+ * @author Ted Herambert
+ * @date 23/11/2024
+ * @version 1.0
+ */
+public final class Evaluation
+{
+	// Phase de la position de départ (cavaliers et fous : 1, tours : 2, reines : 4)
+	public static final int PHASE_MAX = 24;
+
+	// Poids de chaque pièce dans la phase, indexé par numéro de pièce
+	private static final int[] TAB_PHASES = { 0, 0, 2, 1, 1, 4, 0, 0, 2, 1, 1, 4, 0 };
+
+	// Valeurs matérielles en ouverture et en finale, indexées par type de pièce (1-6)
+	private static final int[] TAB_VALEURS_OUVERTURE = { 0,  82, 477, 337, 365, 1025, 0 };
+	private static final int[] TAB_VALEURS_FINALE    = { 0,  94, 512, 281, 297,  936, 0 };
+
+	// Tables positionnelles du point de vue des blancs, case 0 = a8 (ligne 0 en haut de l'échiquier)
+	private static final int[] PST_PION_OUVERTURE = {
+		  0,   0,   0,   0,   0,   0,   0,   0,
+		 50,  50,  50,  50,  50,  50,  50,  50,
+		 10,  10,  20,  30,  30,  20,  10,  10,
+		  5,   5,  10,  25,  25,  10,   5,   5,
+		  0,   0,   0,  20,  20,   0,   0,   0,
+		  5,  -5, -10,   0,   0, -10,  -5,   5,
+		  5,  10,  10, -20, -20,  10,  10,   5,
+		  0,   0,   0,   0,   0,   0,   0,   0
+	};
+
+	private static final int[] PST_PION_FINALE = {
+		  0,   0,   0,   0,   0,   0,   0,   0,
+		 80,  80,  80,  80,  80,  80,  80,  80,
+		 50,  50,  50,  50,  50,  50,  50,  50,
+		 30,  30,  30,  30,  30,  30,  30,  30,
+		 15,  15,  15,  15,  15,  15,  15,  15,
+		  5,   5,   5,   5,   5,   5,   5,   5,
+		  0,   0,   0,   0,   0,   0,   0,   0,
+		  0,   0,   0,   0,   0,   0,   0,   0
+	};
+
+	private static final int[] PST_TOUR = {
+		  0,   0,   0,   0,   0,   0,   0,   0,
+		  5,  10,  10,  10,  10,  10,  10,   5,
+		 -5,   0,   0,   0,   0,   0,   0,  -5,
+		 -5,   0,   0,   0,   0,   0,   0,  -5,
+		 -5,   0,   0,   0,   0,   0,   0,  -5,
+		 -5,   0,   0,   0,   0,   0,   0,  -5,
+		 -5,   0,   0,   0,   0,   0,   0,  -5,
+		  0,   0,   0,   5,   5,   0,   0,   0
+	};
+
+	private static final int[] PST_CAVALIER = {
+		-50, -40, -30, -30, -30, -30, -40, -50,
+		-40, -20,   0,   0,   0,   0, -20, -40,
+		-30,   0,  10,  15,  15,  10,   0, -30,
+		-30,   5,  15,  20,  20,  15,   5, -30,
+		-30,   0,  15,  20,  20,  15,   0, -30,
+		-30,   5,  10,  15,  15,  10,   5, -30,
+		-40, -20,   0,   5,   5,   0, -20, -40,
+		-50, -40, -30, -30, -30, -30, -40, -50
+	};
+
+	private static final int[] PST_FOU = {
+		-20, -10, -10, -10, -10, -10, -10, -20,
+		-10,   0,   0,   0,   0,   0,   0, -10,
+		-10,   0,   5,  10,  10,   5,   0, -10,
+		-10,   5,   5,  10,  10,   5,   5, -10,
+		-10,   0,  10,  10,  10,  10,   0, -10,
+		-10,  10,  10,  10,  10,  10,  10, -10,
+		-10,   5,   0,   0,   0,   0,   5, -10,
+		-20, -10, -10, -10, -10, -10, -10, -20
+	};
+
+	private static final int[] PST_REINE = {
+		-20, -10, -10,  -5,  -5, -10, -10, -20,
+		-10,   0,   0,   0,   0,   0,   0, -10,
+		-10,   0,   5,   5,   5,   5,   0, -10,
+		 -5,   0,   5,   5,   5,   5,   0,  -5,
+		  0,   0,   5,   5,   5,   5,   0,  -5,
+		-10,   5,   5,   5,   5,   5,   0, -10,
+		-10,   0,   5,   0,   0,   0,   0, -10,
+		-20, -10, -10,  -5,  -5, -10, -10, -20
+	};
+
+	private static final int[] PST_ROI_OUVERTURE = {
+		-30, -40, -40, -50, -50, -40, -40, -30,
+		-30, -40, -40, -50, -50, -40, -40, -30,
+		-30, -40, -40, -50, -50, -40, -40, -30,
+		-30, -40, -40, -50, -50, -40, -40, -30,
+		-20, -30, -30, -40, -40, -30, -30, -20,
+		-10, -20, -20, -20, -20, -20, -20, -10,
+		 20,  20,   0,   0,   0,   0,  20,  20,
+		 20,  30,  10,   0,   0,  10,  30,  20
+	};
+
+	private static final int[] PST_ROI_FINALE = {
+		-50, -40, -30, -20, -20, -30, -40, -50,
+		-30, -20, -10,   0,   0, -10, -20, -30,
+		-30, -10,  20,  30,  30,  20, -10, -30,
+		-30, -10,  30,  40,  40,  30, -10, -30,
+		-30, -10,  30,  40,  40,  30, -10, -30,
+		-30, -10,  20,  30,  30,  20, -10, -30,
+		-30, -30,   0,   0,   0,   0, -30, -30,
+		-50, -30, -30, -30, -30, -30, -30, -50
+	};
+
+	// Structure de pions : pénalités des pions doublés et isolés (ouverture, finale)
+	private static final int PION_DOUBLE_OUVERTURE = -10;
+	private static final int PION_DOUBLE_FINALE    = -20;
+	private static final int PION_ISOLE_OUVERTURE  = -10;
+	private static final int PION_ISOLE_FINALE     = -15;
+
+	// Bonus d'un pion passé selon son avancée (nombre de rangées parcourues depuis sa rangée de départ + 1)
+	private static final int[] TAB_PION_PASSE_OUVERTURE = { 0,  5, 10, 15, 25, 40,  60, 0 };
+	private static final int[] TAB_PION_PASSE_FINALE    = { 0, 10, 20, 35, 60, 90, 130, 0 };
+
+	// Colonnes, colonnes voisines, et cases devant un pion (même colonne et colonnes voisines) par couleur
+	private static final long[]   TAB_COLONNES          = new long[8];
+	private static final long[]   TAB_COLONNES_VOISINES = new long[8];
+	private static final long[][] TAB_MASQUES_PASSE     = new long[2][64];
+
+	// Tables positionnelles indexées par type de pièce (1-6)
+	private static final int[][] TAB_PST_OUVERTURE = { null, PST_PION_OUVERTURE, PST_TOUR, PST_CAVALIER, PST_FOU, PST_REINE, PST_ROI_OUVERTURE };
+	private static final int[][] TAB_PST_FINALE    = { null, PST_PION_FINALE,    PST_TOUR, PST_CAVALIER, PST_FOU, PST_REINE, PST_ROI_FINALE    };
+
+	// Score (valeur matérielle + table positionnelle) de chaque pièce sur chaque case, signé selon la couleur
+	private static final int[][] TAB_OUVERTURE = new int[13][64];
+	private static final int[][] TAB_FINALE    = new int[13][64];
+
+	static
+	{
+		for(int col = 0; col < 8; col++)
+			TAB_COLONNES[col] = 0x0101010101010101L << col;
+
+		for(int col = 0; col < 8; col++)
+			TAB_COLONNES_VOISINES[col] = (col > 0 ? TAB_COLONNES[col - 1] : 0L) | (col < 7 ? TAB_COLONNES[col + 1] : 0L);
+
+		for(int numCase = 0; numCase < 64; numCase++)
+		{
+			int  lig      = numCase >>> 3;
+			long colonnes = TAB_COLONNES[numCase & 7] | TAB_COLONNES_VOISINES[numCase & 7];
+
+			// Les blancs avancent vers la ligne 0, les noirs vers la ligne 7
+			long devantBlanc = lig == 0 ? 0L : -1L >>> (64 - 8 * lig);
+			long devantNoir  = lig == 7 ? 0L : -1L <<  (8 * (lig + 1));
+			TAB_MASQUES_PASSE[0][numCase] = colonnes & devantBlanc;
+			TAB_MASQUES_PASSE[1][numCase] = colonnes & devantNoir;
+		}
+
+		for(int type = 1; type <= 6; type++)
+		{
+			for(int numCase = 0; numCase < 64; numCase++)
+			{
+				// Pièce blanche, et pièce noire sur la case symétrique
+				TAB_OUVERTURE[type    ][numCase     ] =   TAB_VALEURS_OUVERTURE[type] + TAB_PST_OUVERTURE[type][numCase];
+				TAB_FINALE   [type    ][numCase     ] =   TAB_VALEURS_FINALE   [type] + TAB_PST_FINALE   [type][numCase];
+				TAB_OUVERTURE[type + 6][numCase ^ 56] = -(TAB_VALEURS_OUVERTURE[type] + TAB_PST_OUVERTURE[type][numCase]);
+				TAB_FINALE   [type + 6][numCase ^ 56] = -(TAB_VALEURS_FINALE   [type] + TAB_PST_FINALE   [type][numCase]);
+			}
+		}
+	}
+
+	/**
+	 * Constructeur privé pour empêcher l'instanciation de cette classe utilitaire.
+	 */
+	private Evaluation() {}
+
+	/**
+	 * Retourne le score d'ouverture d'une pièce sur une case.
+	 *
+	 * @param num     Le numéro de la pièce (1-12)
+	 * @param numCase La case (0-63)
+	 * @return Le score, positif pour une pièce blanche et négatif pour une pièce noire.
+	 */
+	public static int ouverture(int num, int numCase) { return TAB_OUVERTURE[num][numCase]; }
+
+	/**
+	 * Retourne le score de finale d'une pièce sur une case.
+	 *
+	 * @param num     Le numéro de la pièce (1-12)
+	 * @param numCase La case (0-63)
+	 * @return Le score, positif pour une pièce blanche et négatif pour une pièce noire.
+	 */
+	public static int finale(int num, int numCase) { return TAB_FINALE[num][numCase]; }
+
+	/**
+	 * Retourne le poids d'une pièce dans la phase de la partie.
+	 *
+	 * @param num Le numéro de la pièce (1-12)
+	 * @return Le poids de la pièce.
+	 */
+	public static int phase(int num) { return TAB_PHASES[num]; }
+
+	/**
+	 * Évalue la structure de pions : pions doublés, isolés et passés.
+	 * Les deux scores sont regroupés dans un {@code long} pour éviter toute allocation 
+	 * (voir {@link #getOuverture(long)} et {@link #getFinale(long)}).
+	 *
+	 * @param pionsBlancs Le bitboard des pions blancs
+	 * @param pionsNoirs  Le bitboard des pions noirs
+	 * @return Les scores d'ouverture et de finale, du point de vue des blancs.
+	 */
+	public static long evaluerPions(long pionsBlancs, long pionsNoirs)
+	{
+		int ouverture = 0;
+		int finale    = 0;
+
+		// Pions doublés et isolés, colonne par colonne
+		for(int col = 0; col < 8; col++)
+		{
+			int nbBlancs = Long.bitCount(pionsBlancs & TAB_COLONNES[col]);
+			int nbNoirs  = Long.bitCount(pionsNoirs  & TAB_COLONNES[col]);
+
+			if(nbBlancs > 1) { ouverture += (nbBlancs - 1) * PION_DOUBLE_OUVERTURE; finale += (nbBlancs - 1) * PION_DOUBLE_FINALE; }
+			if(nbNoirs  > 1) { ouverture -= (nbNoirs  - 1) * PION_DOUBLE_OUVERTURE; finale -= (nbNoirs  - 1) * PION_DOUBLE_FINALE; }
+
+			if(nbBlancs > 0 && (pionsBlancs & TAB_COLONNES_VOISINES[col]) == 0) { ouverture += nbBlancs * PION_ISOLE_OUVERTURE; finale += nbBlancs * PION_ISOLE_FINALE; }
+			if(nbNoirs  > 0 && (pionsNoirs  & TAB_COLONNES_VOISINES[col]) == 0) { ouverture -= nbNoirs  * PION_ISOLE_OUVERTURE; finale -= nbNoirs  * PION_ISOLE_FINALE; }
+		}
+
+		// Pions passés : aucun pion adverse devant eux, sur leur colonne ou une colonne voisine
+		for(long pions = pionsBlancs; pions != 0; pions &= pions - 1)
+		{
+			int numCase = Long.numberOfTrailingZeros(pions);
+			if((pionsNoirs & TAB_MASQUES_PASSE[0][numCase]) == 0)
+			{
+				int avancee = 7 - (numCase >>> 3);
+				ouverture += TAB_PION_PASSE_OUVERTURE[avancee];
+				finale    += TAB_PION_PASSE_FINALE   [avancee];
+			}
+		}
+
+		for(long pions = pionsNoirs; pions != 0; pions &= pions - 1)
+		{
+			int numCase = Long.numberOfTrailingZeros(pions);
+			if((pionsBlancs & TAB_MASQUES_PASSE[1][numCase]) == 0)
+			{
+				int avancee = numCase >>> 3;
+				ouverture -= TAB_PION_PASSE_OUVERTURE[avancee];
+				finale    -= TAB_PION_PASSE_FINALE   [avancee];
+			}
+		}
+
+		return (long) ouverture << 32 | (finale & 0xFFFFFFFFL);
+	}
+
+	// Accès aux scores regroupés par evaluerPions
+	public static int getOuverture(long scores) { return (int)(scores >> 32); }
+	public static int getFinale   (long scores) { return (int) scores;        }
+
+	/**
+	 * Mélange les scores d'ouverture et de finale selon la phase de la partie.
+	 *
+	 * @param scoreOuverture Le score d'ouverture
+	 * @param scoreFinale    Le score de finale
+	 * @param phase          La phase ({@link #PHASE_MAX} en début de partie, 0 sans pièce)
+	 * @return Le score de la position, du point de vue des blancs.
+	 */
+	public static int melanger(int scoreOuverture, int scoreFinale, int phase)
+	{
+		if(phase > PHASE_MAX) phase = PHASE_MAX; // Après une promotion
+		return (scoreOuverture * phase + scoreFinale * (PHASE_MAX - phase)) / PHASE_MAX;
+	}
+}
@@ -0,0 +1,786 @@
+package metier.moteur;
+
+import constants.AppConstants;
+import constants.Couleur;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import metier.Coup;
+import metier.Echiquier;
+import metier.Instantane;
+
+/**
+ * Classe représentant un joueur ordinateur.
+ * La recherche utilise l'algorithme negamax avec élagage alpha-beta et
+ * approfondissement itératif : la recherche est relancée à une profondeur
+ * croissante jusqu'à épuisement du temps accordé pour le coup, et le meilleur
+ * coup de la dernière profondeur terminée est retenu. Aux feuilles, une recherche
+ * de quiescence poursuit les captures jusqu'à une position calme, en écartant
+ * les captures perdantes selon l'évaluation statique des échanges ({@link Echange}).
+ *
+ * Le moteur travaille sur sa propre copie de la position, construite à partir
+ * d'un {@link Instantane} : il peut donc chercher dans un thread à part sans
+ * modifier l'échiquier de la partie. Le coup trouvé est ensuite joué par le
+ * thread de jeu avec {@link Echiquier#deplacer(int)}.
+ *
+ * Les positions déjà cherchées sont mémorisées dans une {@link TableTransposition},
+ * qui peut être partagée entre plusieurs moteurs. La recherche peut aussi utiliser 
+ * plusieurs threads (voir {@link #setNbThreads(int)}). Les positions d'ouverture
+ * connues sont jouées sans recherche, à partir d'une {@link Bibliotheque}, de même 
+ * que les finales roi et pièce contre roi, à partir des {@link TablesFinales}.
+ *
+ * @author Ted Herambert
+ * @date 23/11/2024
+ * @version 1.0
+ */
+public class Moteur implements Runnable
+{
+	// Score d'une position où le roi du joueur actif a été capturé (corrigé par la distance)
+	public static final int SCORE_MAT    = 100_000;
+	public static final int SCORE_INFINI = 1_000_000;
+
+	// Profondeur maximale de la recherche
+	public static final int PROFONDEUR_MAX = 64;
+
+	// Score minimal d'une capture du roi prouvée, par la recherche ou par les tables de finales
+	// (dont les distances s'ajoutent à la profondeur)
+	public static final int SCORE_MAT_MIN = SCORE_MAT - PROFONDEUR_MAX - TablesFinales.DISTANCE_MAX;
+
+	// Nombre de noeuds entre deux vérifications du temps
+	private static final int MASQUE_VERIF_TEMPS = 1023;
+
+	private Echiquier  echiquier;     // Copie de la position sur laquelle le moteur cherche
+	private TableTransposition table;
+	private int[][]    tabCoups;      // Coups générés, un tableau par niveau de la recherche
+	private int[][]    tabNotes;      // Notes des coups générés, pour les chercher dans le bon ordre
+	private Ordonnancement ordre;
+	private TablePions tablePions;     // Structures de pions déjà évaluées (propre à chaque thread)
+	private Echange    echange;        // Évaluation statique des échanges
+	private boolean    elagageEchange; // false pour chercher aussi les captures perdantes en quiescence
+	private boolean    ordonnancement; // false pour désactiver MVV-LVA, coups tueurs et historique
+	private boolean    verification;   // true pour vérifier l'évaluation incrémentale à chaque évaluation
+	private long       dureeMax;      // Temps accordé par coup, en nanosecondes
+	private boolean    arret;         // La recherche de ce thread a été interrompue
+	private int        profondeurMax; // Profondeur à laquelle la recherche s'arrête
+
+	// Recherche parallèle : les threads cherchent la même position en partageant la table
+	private int           numero;       // 0 pour le thread principal, numéro du thread auxiliaire sinon
+	private Moteur[]      tabAides;     // Moteurs des threads auxiliaires
+	private AtomicBoolean arretPartage; // Demande d'arrêt commune à tous les threads
+	private AtomicLong    finPartagee;  // Instant (System.nanoTime) où tous les threads doivent s'arrêter
+
+	// Recherche anticipée ("pondering") : sans limite de temps jusqu'à terminerPonderation()
+	private boolean       ponderation;
+	private long          debutRecherche; // Instant (System.nanoTime) du début de la recherche en cours
+
+	private Bibliotheque bibliotheque; // Bibliothèque d'ouvertures, null si aucune
+	private TablesFinales finales;     // Tables de finales, null si aucune
+	private Instantane position;      // Position à chercher par run()
+	private volatile int meilleurCoup;
+
+	// Résultat et statistiques de la dernière recherche
+	private int  coupTrouve;
+	private boolean coupBibliotheque;    // Le dernier coup a été lu dans la bibliothèque d'ouvertures
+	private boolean coupFinales;         // Le dernier coup a été choisi avec les tables de finales
+	private long nbSondagesFinales;      // Positions de la recherche trouvées dans les tables de finales
+	private long nbNoeuds;
+	private long nbNoeudsQuiescence;     // Noeuds de la recherche de quiescence (compris dans nbNoeuds)
+	private long nbCapturesElaguees;     // Captures perdantes écartées de la quiescence
+	private long nbCoupures;             // Coupures beta
+	private long nbCoupuresPremierCoup;  // Coupures beta obtenues dès le premier coup cherché
+	private long nbSuccesPions;          // Structures de pions trouvées dans la table des pions
+	private long nbEchecsPions;          // Structures de pions évaluées
+	private int  profondeur;
+	private int  score;
+
+	/**
+	 * Constructeur du moteur, avec sa propre table de transposition 
+	 * (de taille {@link AppConstants#TAILLE_TABLE_TRANSPOSITION}).
+	 *
+	 * @param dureeMs Temps accordé pour chaque coup, en millisecondes
+	 */
+	public Moteur(long dureeMs)
+	{
+		this(dureeMs, new TableTransposition(AppConstants.TAILLE_TABLE_TRANSPOSITION));
+	}
+
+	/**
+	 * Constructeur du moteur.
+	 *
+	 * @param dureeMs Temps accordé pour chaque coup, en millisecondes
+	 * @param table   La table de transposition, éventuellement partagée avec d'autres moteurs
+	 */
+	public Moteur(long dureeMs, TableTransposition table)
+	{
+		this.echiquier = new Echiquier();
+		this.table     = table;
+		this.tabCoups  = new int[PROFONDEUR_MAX + 1][Echiquier.NB_COUPS_MAX];
+		this.tabNotes  = new int[PROFONDEUR_MAX + 1][Echiquier.NB_COUPS_MAX];
+		this.ordre     = new Ordonnancement(this.echiquier);
+		this.tablePions = new TablePions();
+		this.echange   = new Echange(this.echiquier);
+
+		this.ordonnancement = true;
+		this.elagageEchange = true;
+		this.dureeMax  = dureeMs * 1_000_000L;
+
+		this.profondeurMax = PROFONDEUR_MAX;
+		this.numero        = 0;
+		this.tabAides      = new Moteur[0];
+		this.arretPartage  = new AtomicBoolean();
+		this.finPartagee   = new AtomicLong();
+
+		this.meilleurCoup = Coup.AUCUN;
+	}
+
+	// Getters
+	public int  getMeilleurCoup() { return this.meilleurCoup; }
+	public long getNbNoeuds    () { return this.nbNoeuds;     }
+	public long getNbCoupures  () { return this.nbCoupures;   }
+	public long getNbCoupuresPremierCoup() { return this.nbCoupuresPremierCoup; }
+	public long getNbNoeudsQuiescence() { return this.nbNoeudsQuiescence; }
+	public long getNbCapturesElaguees() { return this.nbCapturesElaguees; }
+	public long getNbSuccesPions() { return this.nbSuccesPions; }
+	public long getNbEchecsPions() { return this.nbEchecsPions; }
+	public int  getProfondeur  () { return this.profondeur;   }
+	public int  getScore       () { return this.score;        }
+	public boolean estCoupBibliotheque() { return this.coupBibliotheque; }
+	public boolean estCoupFinales     () { return this.coupFinales;      }
+	public long getNbSondagesFinales() { return this.nbSondagesFinales; }
+
+	public TableTransposition getTable() { return this.table; }
+
+	public int  getNbThreads   () { return this.tabAides.length + 1; }
+
+	// Setters
+	public void setPosition    (Instantane   position)     { this.position     = position;     }
+	public void setBibliotheque(Bibliotheque bibliotheque) { this.bibliotheque = bibliotheque; }
+
+	/**
+	 * Modifie le nombre de threads de la recherche (recherche parallèle "Lazy SMP").
+	 * Tous les threads cherchent la même position, chacun sur sa copie de l'échiquier, 
+	 * et se partagent la table de transposition.
+	 *
+	 * @param nbThreads Le nombre de threads (au moins 1)
+	 */
+	public void setNbThreads(int nbThreads)
+	{
+		this.tabAides = new Moteur[Math.max(0, nbThreads - 1)];
+		for(int i = 0; i < this.tabAides.length; i++)
+		{
+			this.tabAides[i] = new Moteur(this.dureeMax / 1_000_000L, this.table);
+			this.tabAides[i].numero        = i + 1;
+			this.tabAides[i].arretPartage  = this.arretPartage;
+			this.tabAides[i].finPartagee   = this.finPartagee;
+			this.tabAides[i].profondeurMax = this.profondeurMax;
+			this.tabAides[i].ordonnancement = this.ordonnancement;
+			this.tabAides[i].verification   = this.verification;
+			this.tabAides[i].elagageEchange = this.elagageEchange;
+			this.tabAides[i].finales        = this.finales;
+		}
+	}
+
+	/**
+	 * Modifie les tables de finales utilisées par la recherche.
+	 *
+	 * @param finales Les tables, null pour ne pas en utiliser
+	 */
+	public void setFinales(TablesFinales finales)
+	{
+		this.finales = finales;
+		for(Moteur aide : this.tabAides)
+			aide.finales = finales;
+	}
+
+	/**
+	 * Active ou désactive la recherche anticipée : la prochaine recherche n'a pas de 
+	 * limite de temps, jusqu'à l'appel de {@link #terminerPonderation()} ou {@link #arreter()}.
+	 * Utilisé pour chercher pendant le temps de réflexion de l'adversaire.
+	 *
+	 * @param ponderation {@code true} pour une recherche sans limite de temps
+	 */
+	public synchronized void setPonderation(boolean ponderation) { this.ponderation = ponderation; }
+
+	/**
+	 * Termine la recherche anticipée en cours : la recherche continue normalement, 
+	 * avec le temps accordé par coup compté depuis son début. Si ce temps est déjà 
+	 * écoulé, elle s'arrête aussitôt et son résultat est conservé.
+	 */
+	public synchronized void terminerPonderation()
+	{
+		this.ponderation = false;
+		this.finPartagee.set(this.debutRecherche + this.dureeMax);
+	}
+
+	/**
+	 * Demande l'arrêt de la recherche en cours (depuis un autre thread).
+	 * Le meilleur coup de la dernière profondeur terminée est retourné.
+	 */
+	public void arreter()
+	{
+		this.arretPartage.set(true);
+	}
+
+	/**
+	 * Active ou désactive l'ordonnancement des coups (MVV-LVA, coups tueurs et historique).
+	 * Le coup de la table de transposition reste toujours cherché en premier.
+	 * Utilisé pour mesurer le gain de l'ordonnancement en nombre de noeuds.
+	 *
+	 * @param ordonnancement {@code true} pour ordonner les coups
+	 */
+	public void setOrdonnancement(boolean ordonnancement)
+	{
+		this.ordonnancement = ordonnancement;
+		for(Moteur aide : this.tabAides)
+			aide.ordonnancement = ordonnancement;
+	}
+
+	/**
+	 * Active ou désactive l'élagage des captures perdantes dans la recherche de quiescence.
+	 * Utilisé pour mesurer le gain de l'évaluation des échanges en nombre de noeuds.
+	 *
+	 * @param elagageEchange {@code true} pour écarter les captures perdantes
+	 */
+	public void setElagageEchange(boolean elagageEchange)
+	{
+		this.elagageEchange = elagageEchange;
+		for(Moteur aide : this.tabAides)
+			aide.elagageEchange = elagageEchange;
+	}
+
+	/**
+	 * Active ou désactive le mode vérification : à chaque évaluation, l'évaluation 
+	 * incrémentale de l'échiquier est comparée à un recalcul complet (voir 
+	 * {@link Echiquier#verifierEvaluation()}). Ce mode ralentit fortement la recherche.
+	 *
+	 * @param verification {@code true} pour vérifier l'évaluation
+	 */
+	public void setVerification(boolean verification)
+	{
+		this.verification = verification;
+		for(Moteur aide : this.tabAides)
+			aide.verification = verification;
+	}
+
+	/**
+	 * Limite la profondeur de la recherche (utilisé pour les mesures de performance).
+	 *
+	 * @param profondeurMax La profondeur maximale (au plus {@link #PROFONDEUR_MAX})
+	 */
+	public void setProfondeurMax(int profondeurMax)
+	{
+		this.profondeurMax = Math.min(profondeurMax, PROFONDEUR_MAX);
+		for(Moteur aide : this.tabAides)
+			aide.profondeurMax = this.profondeurMax;
+	}
+
+	/**
+	 * Cherche le meilleur coup de la position donnée par {@link #setPosition(Instantane)}.
+	 * Le résultat est ensuite disponible avec {@link #getMeilleurCoup()}.
+	 */
+	@Override
+	public void run()
+	{
+		this.meilleurCoup = this.chercher(this.position);
+	}
+
+	/**
+	 * Cherche le meilleur coup du joueur actif d'une position.
+	 *
+	 * @param instantane La position
+	 * @return Le meilleur coup trouvé, {@link Coup#AUCUN} si le joueur actif ne peut pas jouer.
+	 */
+	public int chercher(Instantane instantane)
+	{
+		int[][] disposition = new int[8][8];
+		for(int lig = 0; lig < 8; lig++)
+			for(int col = 0; col < 8; col++)
+				disposition[lig][col] = instantane.getNumPiece(lig, col);
+
+		return this.chercher(disposition, instantane.getJoueurActif());
+	}
+
+	/**
+	 * Cherche le meilleur coup du joueur actif d'une position.
+	 * Si des threads auxiliaires ont été demandés (voir {@link #setNbThreads(int)}), 
+	 * ils cherchent la même position en parallèle et le coup retenu est celui de 
+	 * l'itération terminée la plus profonde. Si la position est dans la bibliothèque 
+	 * d'ouvertures ou dans les tables de finales, le coup est joué immédiatement.
+	 *
+	 * @param disposition Numéro de la pièce (0 si vide) de chaque case, indexé par [lig][col]
+	 * @param trait       La couleur du joueur qui doit jouer
+	 * @return Le meilleur coup trouvé, {@link Coup#AUCUN} si le joueur actif ne peut pas jouer.
+	 */
+	public int chercher(int[][] disposition, Couleur trait)
+	{
+		this.coupBibliotheque = false;
+		this.coupFinales      = false;
+		if(this.bibliotheque != null)
+		{
+			this.echiquier.init(disposition, trait);
+			int coup = this.bibliotheque.chercherCoup(this.echiquier);
+			if(coup != Coup.AUCUN)
+			{
+				this.reinitialiserStatistiques();
+				this.coupBibliotheque = true;
+				return coup;
+			}
+		}
+
+		if(this.finales != null)
+		{
+			this.echiquier.init(disposition, trait);
+			this.reinitialiserStatistiques();
+			int coup = this.choisirCoupFinales();
+			if(coup != Coup.AUCUN)
+			{
+				this.coupFinales = true;
+				return coup;
+			}
+		}
+
+		this.table.nouvelleRecherche();
+		this.arretPartage.set(false);
+		synchronized(this)
+		{
+			this.debutRecherche = System.nanoTime();
+			this.finPartagee.set(this.ponderation ? Long.MAX_VALUE : this.debutRecherche + this.dureeMax);
+		}
+
+		// Démarrage des threads auxiliaires
+		Thread[] tabThreads = new Thread[this.tabAides.length];
+		for(int i = 0; i < this.tabAides.length; i++)
+		{
+			Moteur aide = this.tabAides[i];
+			tabThreads[i] = new Thread(() -> aide.iterer(disposition, trait));
+			tabThreads[i].start();
+		}
+
+		this.iterer(disposition, trait);
+
+		// Arrêt des threads auxiliaires
+		this.arretPartage.set(true);
+		for(Thread thread : tabThreads)
+		{
+			try
+			{
+				thread.join();
+			}
+			catch(InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		// Le meilleur coup est celui de l'itération terminée la plus profonde
+		int meilleurCoup = this.coupTrouve;
+		for(Moteur aide : this.tabAides)
+		{
+			this.nbNoeuds              += aide.nbNoeuds;
+			this.nbNoeudsQuiescence    += aide.nbNoeudsQuiescence;
+			this.nbCapturesElaguees    += aide.nbCapturesElaguees;
+			this.nbSondagesFinales     += aide.nbSondagesFinales;
+			this.nbCoupures            += aide.nbCoupures;
+			this.nbCoupuresPremierCoup += aide.nbCoupuresPremierCoup;
+			this.nbSuccesPions         += aide.nbSuccesPions;
+			this.nbEchecsPions         += aide.nbEchecsPions;
+			if(aide.profondeur > this.profondeur && aide.coupTrouve != Coup.AUCUN)
+			{
+				meilleurCoup    = aide.coupTrouve;
+				this.profondeur = aide.profondeur;
+				this.score      = aide.score;
+			}
+		}
+
+		return meilleurCoup;
+	}
+
+	/**
+	 * Approfondissement itératif effectué par un thread de la recherche.
+	 * Les threads auxiliaires commencent à des profondeurs décalées et cherchent 
+	 * les coups de la racine dans un ordre différent, afin de remplir la table de 
+	 * transposition avec des positions utiles aux autres threads.
+	 *
+	 * @param disposition Numéro de la pièce (0 si vide) de chaque case, indexé par [lig][col]
+	 * @param trait       La couleur du joueur qui doit jouer
+	 */
+	private void iterer(int[][] disposition, Couleur trait)
+	{
+		this.echiquier.init(disposition, trait);
+
+		this.arret        = false;
+		this.reinitialiserStatistiques();
+		this.ordre.nouvelleRecherche();
+		this.tablePions.reinitialiserStatistiques();
+
+		int[] coupsRacine = this.tabCoups[0];
+		int   nbCoups     = this.echiquier.genererCoups(trait, coupsRacine);
+		if(nbCoups == 0 || this.echiquier.estFinJeu()) return;
+
+		// Tri initial des coups de la racine (captures en premier)
+		if(this.ordonnancement)
+		{
+			int[] notesRacine = this.tabNotes[0];
+			this.ordre.noter(coupsRacine, notesRacine, nbCoups, 0, Coup.AUCUN);
+			for(int i = 0; i < nbCoups; i++)
+				Ordonnancement.choisir(coupsRacine, notesRacine, i, nbCoups);
+		}
+
+		// Ordre des coups de la racine propre à chaque thread auxiliaire
+		for(int i = 0; i < this.numero % nbCoups; i++)
+		{
+			int coup = coupsRacine[0];
+			System.arraycopy(coupsRacine, 1, coupsRacine, 0, nbCoups - 1);
+			coupsRacine[nbCoups - 1] = coup;
+		}
+
+		// Approfondissement itératif
+		for(int prof = 1 + this.numero % 2; prof <= this.profondeurMax; prof++)
+		{
+			int alpha          = -SCORE_INFINI;
+			int meilleurActuel = Coup.AUCUN;
+
+			for(int i = 0; i < nbCoups; i++)
+			{
+				this.echiquier.jouerCoup(coupsRacine[i]);
+				int scoreCoup = -this.negamax(prof - 1, 1, -SCORE_INFINI, -alpha);
+				this.echiquier.annulerCoup();
+
+				if(this.arret) break;
+
+				if(scoreCoup > alpha)
+				{
+					alpha          = scoreCoup;
+					meilleurActuel = coupsRacine[i];
+				}
+			}
+
+			if(this.arret) break;
+
+			this.coupTrouve = meilleurActuel;
+			this.profondeur = prof;
+			this.score      = alpha;
+
+			// Le meilleur coup est cherché en premier à la profondeur suivante
+			for(int i = 0; i < nbCoups; i++)
+			{
+				if(coupsRacine[i] == meilleurActuel)
+				{
+					coupsRacine[i] = coupsRacine[0];
+					coupsRacine[0] = meilleurActuel;
+					break;
+				}
+			}
+
+			// Inutile de chercher plus loin si un mat est trouvé
+			if(Math.abs(alpha) >= SCORE_MAT_MIN) break;
+		}
+
+		this.nbSuccesPions = this.tablePions.getNbSucces();
+		this.nbEchecsPions = this.tablePions.getNbEchecs();
+
+		// Le premier thread qui termine arrête les autres
+		this.arretPartage.set(true);
+	}
+
+	/**
+	 * Remet à zéro le résultat et les statistiques de la dernière recherche.
+	 */
+	private void reinitialiserStatistiques()
+	{
+		this.nbNoeuds              = 0;
+		this.nbNoeudsQuiescence    = 0;
+		this.nbCapturesElaguees    = 0;
+		this.nbSondagesFinales     = 0;
+		this.nbCoupures            = 0;
+		this.nbCoupuresPremierCoup = 0;
+		this.nbSuccesPions         = 0;
+		this.nbEchecsPions         = 0;
+		this.profondeur            = 0;
+		this.score                 = 0;
+		this.coupTrouve            = Coup.AUCUN;
+	}
+
+	/**
+	 * Recherche negamax avec élagage alpha-beta.
+	 *
+	 * @param prof  Profondeur restante
+	 * @param ply   Distance à la racine
+	 * @param alpha Borne inférieure
+	 * @param beta  Borne supérieure
+	 * @return Le score de la position, du point de vue du joueur actif.
+	 */
+	private int negamax(int prof, int ply, int alpha, int beta)
+	{
+		this.nbNoeuds++;
+		if(this.verifierArret()) return 0;
+
+		// Le roi du joueur actif a été capturé : la partie est perdue
+		if(this.echiquier.estFinJeu()) return -SCORE_MAT + ply;
+
+		// Finale dont le résultat est connu
+		if(this.finales != null && Long.bitCount(this.echiquier.getOccupation()) <= 3)
+		{
+			int resultat = this.finales.sonder(this.echiquier);
+			if(resultat >= 0)
+			{
+				this.nbSondagesFinales++;
+				return Moteur.scoreFinales(resultat, ply);
+			}
+		}
+
+		if(prof == 0 || ply >= PROFONDEUR_MAX) return this.quiescence(ply, alpha, beta);
+
+		// Consultation de la table de transposition
+		long cle       = this.echiquier.getCle();
+		long entree    = this.table.lire(cle);
+		int  coupTable = Coup.AUCUN;
+		if(entree != 0)
+		{
+			coupTable = TableTransposition.getCoup(entree);
+			if(TableTransposition.getProfondeur(entree) >= prof)
+			{
+				int scoreTable = Moteur.scoreDepuisTable(TableTransposition.getScore(entree), ply);
+				switch(TableTransposition.getBorne(entree))
+				{
+					case TableTransposition.EXACTE     :                          return scoreTable;
+					case TableTransposition.INFERIEURE : if(scoreTable >= beta)  return scoreTable; break;
+					case TableTransposition.SUPERIEURE : if(scoreTable <= alpha) return scoreTable; break;
+					default                            :                                            break;
+				}
+			}
+		}
+
+		int[] coups   = this.tabCoups[ply];
+		int[] notes   = this.tabNotes[ply];
+		int   nbCoups = this.echiquier.genererCoups(this.echiquier.getJoueurActif(), coups);
+		if(nbCoups == 0) return 0;
+
+		if(this.ordonnancement)
+		{
+			this.ordre.noter(coups, notes, nbCoups, ply, coupTable);
+		}
+		else if(coupTable != Coup.AUCUN)
+		{
+			// Seul le coup de la table est cherché en premier
+			for(int i = 0; i < nbCoups; i++)
+			{
+				if(Coup.memeDeplacement(coups[i], coupTable))
+				{
+					int coup = coups[i];
+					coups[i] = coups[0];
+					coups[0] = coup;
+					break;
+				}
+			}
+		}
+
+		int alphaInitial  = alpha;
+		int meilleurScore = -SCORE_INFINI;
+		int meilleurCoup  = Coup.AUCUN;
+		for(int i = 0; i < nbCoups; i++)
+		{
+			if(this.ordonnancement) Ordonnancement.choisir(coups, notes, i, nbCoups);
+
+			this.echiquier.jouerCoup(coups[i]);
+			int scoreCoup = -this.negamax(prof - 1, ply + 1, -beta, -alpha);
+			this.echiquier.annulerCoup();
+
+			if(this.arret) return 0;
+
+			if(scoreCoup > meilleurScore)
+			{
+				meilleurScore = scoreCoup;
+				meilleurCoup  = coups[i];
+				if(scoreCoup > alpha)
+				{
+					alpha = scoreCoup;
+					if(alpha >= beta)
+					{
+						this.nbCoupures++;
+						if(i == 0) this.nbCoupuresPremierCoup++;
+						if(this.ordonnancement) this.ordre.enregistrerCoupure(coups[i], ply, prof);
+						break;
+					}
+				}
+			}
+		}
+
+		int borne = meilleurScore >= beta         ? TableTransposition.INFERIEURE
+		          : meilleurScore >  alphaInitial ? TableTransposition.EXACTE
+		          :                                 TableTransposition.SUPERIEURE;
+		this.table.ecrire(cle, prof, borne, Moteur.scoreVersTable(meilleurScore, ply), meilleurCoup);
+
+		return meilleurScore;
+	}
+
+	/**
+	 * Recherche de quiescence : seules les captures et les promotions sont cherchées, 
+	 * jusqu'à une position calme. Le joueur actif peut aussi s'arrêter ("stand pat") 
+	 * s'il est satisfait de l'évaluation statique de la position. Les captures que 
+	 * l'évaluation des échanges juge perdantes ne sont pas cherchées.
+	 *
+	 * @param ply   Distance à la racine
+	 * @param alpha Borne inférieure
+	 * @param beta  Borne supérieure
+	 * @return Le score de la position, du point de vue du joueur actif.
+	 */
+	private int quiescence(int ply, int alpha, int beta)
+	{
+		this.nbNoeuds++;
+		this.nbNoeudsQuiescence++;
+		if(this.verifierArret()) return 0;
+
+		if(this.echiquier.estFinJeu()) return -SCORE_MAT + ply;
+
+		int meilleurScore = this.evaluer();
+		if(meilleurScore >= beta || ply >= PROFONDEUR_MAX) return meilleurScore;
+		if(meilleurScore > alpha) alpha = meilleurScore;
+
+		int[] coups   = this.tabCoups[ply];
+		int[] notes   = this.tabNotes[ply];
+		int   nbCoups = this.echiquier.genererCaptures(this.echiquier.getJoueurActif(), coups);
+		this.ordre.noter(coups, notes, nbCoups, ply, Coup.AUCUN);
+
+		for(int i = 0; i < nbCoups; i++)
+		{
+			Ordonnancement.choisir(coups, notes, i, nbCoups);
+			int coup = coups[i];
+
+			// Capture perdante (une promotion est toujours cherchée)
+			if(this.elagageEchange && !Coup.estPromotion(coup) && this.echange.estPerdante(coup))
+			{
+				this.nbCapturesElaguees++;
+				continue;
+			}
+
+			this.echiquier.jouerCoup(coup);
+			int scoreCoup = -this.quiescence(ply + 1, -beta, -alpha);
+			this.echiquier.annulerCoup();
+
+			if(this.arret) return 0;
+
+			if(scoreCoup > meilleurScore)
+			{
+				meilleurScore = scoreCoup;
+				if(scoreCoup > alpha)
+				{
+					alpha = scoreCoup;
+					if(alpha >= beta) break;
+				}
+			}
+		}
+
+		return meilleurScore;
+	}
+
+	/**
+	 * Vérifie régulièrement le temps écoulé et les demandes d'arrêt des autres threads.
+	 * Le thread principal termine toujours la profondeur 1, pour avoir un coup à jouer.
+	 *
+	 * @return {@code true} si la recherche de ce thread doit s'arrêter.
+	 */
+	private boolean verifierArret()
+	{
+		if(   (this.nbNoeuds & MASQUE_VERIF_TEMPS) == 0 && (this.profondeur > 0 || this.numero > 0)
+		   && (this.arretPartage.get() || System.nanoTime() > this.finPartagee.get()))
+			this.arret = true;
+		return this.arret;
+	}
+
+	/**
+	 * Choisit le coup de la racine avec les tables de finales : le gain le plus rapide,
+	 * sinon la nulle, sinon la perte la plus lente.
+	 *
+	 * @return Le meilleur coup, {@link Coup#AUCUN} si une position suivante n'est pas dans les tables.
+	 */
+	private int choisirCoupFinales()
+	{
+		int[] coups   = this.tabCoups[0];
+		int   nbCoups = this.echiquier.genererCoups(this.echiquier.getJoueurActif(), coups);
+
+		int meilleurCoup  = Coup.AUCUN;
+		int meilleurScore = -SCORE_INFINI;
+		for(int i = 0; i < nbCoups; i++)
+		{
+			// Capture du roi adverse, ou résultat de la position suivante
+			this.echiquier.jouerCoup(coups[i]);
+			boolean capture  = this.echiquier.estFinJeu();
+			int     resultat = capture ? TablesFinales.NULLE : this.finales.sonder(this.echiquier);
+			this.echiquier.annulerCoup();
+
+			if(resultat < 0) return Coup.AUCUN;
+
+			int scoreCoup = capture ? SCORE_MAT - 1 : -Moteur.scoreFinales(resultat, 1);
+
+			if(scoreCoup > meilleurScore)
+			{
+				meilleurScore = scoreCoup;
+				meilleurCoup  = coups[i];
+			}
+		}
+
+		this.score = meilleurScore;
+		return meilleurCoup;
+	}
+
+	/**
+	 * Convertit un résultat lu dans les tables de finales en score.
+	 *
+	 * @param resultat Le résultat (voir {@link TablesFinales})
+	 * @param ply      Distance à la racine
+	 * @return Le score de la position, du point de vue du joueur actif.
+	 */
+	private static int scoreFinales(int resultat, int ply)
+	{
+		if(TablesFinales.estGain (resultat)) return  SCORE_MAT - ply - resultat;
+		if(TablesFinales.estPerte(resultat)) return -SCORE_MAT + ply + resultat;
+		return 0;
+	}
+
+	/**
+	 * Convertit un score pour l'écrire dans la table de transposition : les scores 
+	 * de mat sont comptés depuis la position et non depuis la racine.
+	 *
+	 * @param score Le score
+	 * @param ply   Distance à la racine
+	 * @return Le score à écrire dans la table.
+	 */
+	private static int scoreVersTable(int score, int ply)
+	{
+		if(score >=  SCORE_MAT_MIN) return score + ply;
+		if(score <= -SCORE_MAT_MIN) return score - ply;
+		return score;
+	}
+
+	/**
+	 * Convertit un score lu dans la table de transposition (voir {@link #scoreVersTable(int, int)}).
+	 *
+	 * @param score Le score lu dans la table
+	 * @param ply   Distance à la racine
+	 * @return Le score compté depuis la racine.
+	 */
+	private static int scoreDepuisTable(int score, int ply)
+	{
+		if(score >=  SCORE_MAT_MIN) return score - ply;
+		if(score <= -SCORE_MAT_MIN) return score + ply;
+		return score;
+	}
+
+	/**
+	 * Évalue la position du point de vue du joueur actif, à partir des scores 
+	 * d'ouverture et de finale tenus à jour par l'échiquier (voir {@link Evaluation}) 
+	 * et de la structure de pions (lue dans la table des pions).
+	 *
+	 * @return Le score de la position.
+	 */
+	private int evaluer()
+	{
+		if(this.verification) this.echiquier.verifierEvaluation();
+
+		long pions = this.tablePions.evaluer(this.echiquier);
+		int  score = Evaluation.melanger(this.echiquier.getScoreOuverture() + Evaluation.getOuverture(pions), 
+		                                 this.echiquier.getScoreFinale   () + Evaluation.getFinale   (pions), 
+		                                 this.echiquier.getPhase());
+		return this.echiquier.getJoueurActif() == Couleur.BLANC ? score : -score;
+	}
+}
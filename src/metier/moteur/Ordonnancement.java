@@ -0,0 +1,173 @@
+package metier.moteur;
+
+import metier.Coup;
+import metier.Echiquier;
+import metier.piece.Piece;
+import metier.utils.Bitboard;
+
+/**
+ * Classe chargée de l'ordre dans lequel le moteur cherche les coups d'une position.
+ * L'élagage alpha-beta est d'autant plus efficace que les meilleurs coups sont
+ * cherchés en premier. Chaque coup reçoit une note :
+ * <ol>
+ *   <li>le coup de la table de transposition ;</li>
+ *   <li>les captures, de la plus grosse victime prise par le plus petit attaquant
+ *       à la plus petite victime prise par le plus gros attaquant (MVV-LVA) ;</li>
+ *   <li>les deux coups "tueurs" du niveau (coups tranquilles ayant provoqué une
+ *       coupure beta à la même distance de la racine) ;</li>
+ *   <li>les autres coups tranquilles, selon leur historique (table indexée par
+ *       couleur, case d'origine et case de destination).</li>
+ * </ol>
+ * Les données sont stockées dans des tableaux d'entiers réutilisés d'une recherche à l'autre.
+ *
+ * @author Ted Herambert
+ * @date 23/11/2024
+ * @version 1.0
+ */
+public class Ordonnancement
+{
+	// Notes des différentes catégories de coups
+	private static final int NOTE_TABLE     = 1 << 30;
+	private static final int NOTE_CAPTURE   = 1 << 26;
+	private static final int NOTE_PROMOTION = 1 << 25;
+	private static final int NOTE_TUEUR     = 1 << 24;
+
+	// Historique maximal d'un coup tranquille (toujours inférieur à la note des coups tueurs)
+	private static final int HISTORIQUE_MAX = 1 << 20;
+
+	// Valeur des pièces pour MVV-LVA, indexée par numéro de pièce (le roi est la plus grosse victime)
+	private static final int[] TAB_VALEURS = { 0, 1, 5, 3, 3, 9, 20, 1, 5, 3, 3, 9, 20 };
+
+	private Echiquier echiquier;
+	private int[][]   tabTueurs;     // Deux coups tueurs par distance à la racine
+	private int[][]   tabHistorique; // [couleur][caseDest * 64 + caseOrig] (12 bits du déplacement)
+
+	/**
+	 * Constructeur de l'ordonnancement.
+	 *
+	 * @param echiquier L'échiquier sur lequel le moteur cherche
+	 */
+	public Ordonnancement(Echiquier echiquier)
+	{
+		this.echiquier     = echiquier;
+		this.tabTueurs     = new int[Moteur.PROFONDEUR_MAX + 1][2];
+		this.tabHistorique = new int[2][64 * 64];
+	}
+
+	/**
+	 * Prépare une nouvelle recherche : les coups tueurs sont effacés et
+	 * l'historique est divisé par 8 pour privilégier les informations récentes.
+	 */
+	public void nouvelleRecherche()
+	{
+		for(int[] tueurs : this.tabTueurs)
+		{
+			tueurs[0] = Coup.AUCUN;
+			tueurs[1] = Coup.AUCUN;
+		}
+
+		for(int[] historique : this.tabHistorique)
+			for(int i = 0; i < historique.length; i++)
+				historique[i] >>= 3;
+	}
+
+	/**
+	 * Note les coups générés dans une position.
+	 *
+	 * @param coups     Les coups
+	 * @param notes     Le tableau des notes à remplir
+	 * @param nbCoups   Le nombre de coups
+	 * @param ply       La distance à la racine
+	 * @param coupTable Le coup de la table de transposition, {@link Coup#AUCUN} si aucun
+	 */
+	public void noter(int[] coups, int[] notes, int nbCoups, int ply, int coupTable)
+	{
+		int[] tueurs     = this.tabTueurs[ply];
+		int[] historique = this.tabHistorique[this.echiquier.getJoueurActif().getValeur()];
+
+		for(int i = 0; i < nbCoups; i++)
+		{
+			int coup = coups[i];
+			int note;
+
+			if(coupTable != Coup.AUCUN && Coup.memeDeplacement(coup, coupTable))
+				note = NOTE_TABLE;
+			else if(Coup.estCapture(coup))
+				note = NOTE_CAPTURE + 64 * TAB_VALEURS[this.getNumPiece(Coup.getCaseDest(coup))]
+				                         - TAB_VALEURS[this.getNumPiece(Coup.getCaseOrig(coup))];
+			else if(Coup.memeDeplacement(coup, tueurs[0]))
+				note = NOTE_TUEUR + 1;
+			else if(Coup.memeDeplacement(coup, tueurs[1]))
+				note = NOTE_TUEUR;
+			else
+				note = historique[coup & Coup.MASQUE_DEPLACEMENT];
+
+			if(Coup.estPromotion(coup)) note += NOTE_PROMOTION;
+
+			notes[i] = note;
+		}
+	}
+
+	/**
+	 * Place en position i le coup de meilleure note parmi les coups i à nbCoups-1.
+	 * Les coups sont ainsi triés au fur et à mesure : une coupure beta évite de trier
+	 * les coups restants.
+	 *
+	 * @param coups   Les coups
+	 * @param notes   Les notes des coups
+	 * @param i       La position à remplir
+	 * @param nbCoups Le nombre de coups
+	 */
+	public static void choisir(int[] coups, int[] notes, int i, int nbCoups)
+	{
+		int meilleur = i;
+		for(int j = i + 1; j < nbCoups; j++)
+			if(notes[j] > notes[meilleur]) meilleur = j;
+
+		if(meilleur != i)
+		{
+			int coup = coups[i];  coups[i] = coups[meilleur];  coups[meilleur] = coup;
+			int note = notes[i];  notes[i] = notes[meilleur];  notes[meilleur] = note;
+		}
+	}
+
+	/**
+	 * Enregistre un coup tranquille ayant provoqué une coupure beta.
+	 *
+	 * @param coup Le coup
+	 * @param ply  La distance à la racine
+	 * @param prof La profondeur restante
+	 */
+	public void enregistrerCoupure(int coup, int ply, int prof)
+	{
+		if(Coup.estCapture(coup)) return;
+
+		// Coups tueurs
+		int[] tueurs = this.tabTueurs[ply];
+		if(!Coup.memeDeplacement(coup, tueurs[0]))
+		{
+			tueurs[1] = tueurs[0];
+			tueurs[0] = coup;
+		}
+
+		// Historique
+		int[] historique = this.tabHistorique[this.echiquier.getJoueurActif().getValeur()];
+		int   index      = coup & Coup.MASQUE_DEPLACEMENT;
+		historique[index] += prof * prof;
+		if(historique[index] > HISTORIQUE_MAX)
+			for(int i = 0; i < historique.length; i++)
+				historique[i] >>= 1;
+	}
+
+	/**
+	 * Retourne le numéro de la pièce située sur une case.
+	 *
+	 * @param numCase La case (0-63)
+	 * @return Le numéro de la pièce, 0 si la case est vide.
+	 */
+	private int getNumPiece(int numCase)
+	{
+		Piece piece = this.echiquier.getPiece(Bitboard.getLig(numCase), Bitboard.getCol(numCase));
+		return piece == null ? 0 : piece.getNum();
+	}
+}
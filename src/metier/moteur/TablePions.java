@@ -0,0 +1,81 @@
+package metier.moteur;
+
+import metier.Echiquier;
+
+/**
+ * Classe représentant la table de hachage des structures de pions.
+ * L'évaluation des pions (pions doublés, isolés et passés, voir
+ * {@link Evaluation#evaluerPions(long, long)}) est coûteuse mais la structure
+ * de pions change rarement d'un noeud à l'autre : son score est donc mémorisé,
+ * indexé par la clé de Zobrist des seuls pions (voir {@link Echiquier#getClePions()}).
+ *
+ * La table a une taille fixe et chaque nouvelle structure remplace la précédente
+ * à la même place. Elle n'est pas partagée : chaque thread de recherche a la sienne.
+ *
+ * @author Ted Herambert
+ * @date 23/11/2024
+ * @version 1.0
+ */
+public class TablePions
+{
+	// Nombre d'entrées (puissance de 2)
+	public static final int NB_ENTREES = 1 << 14;
+
+	private long[] tabCles;
+	private long[] tabScores; // Scores d'ouverture et de finale (voir Evaluation.evaluerPions)
+
+	// Statistiques
+	private long nbSucces;
+	private long nbEchecs;
+
+	/**
+	 * Constructeur de la table des pions.
+	 */
+	public TablePions()
+	{
+		this.tabCles   = new long[NB_ENTREES];
+		this.tabScores = new long[NB_ENTREES];
+
+		// Entrées vides : une clé ne correspondant à aucune structure (la clé 0 est celle de l'absence de pion)
+		for(int i = 0; i < NB_ENTREES; i++)
+			this.tabCles[i] = -1L;
+	}
+
+	// Getters
+	public long getNbSucces() { return this.nbSucces; }
+	public long getNbEchecs() { return this.nbEchecs; }
+
+	/**
+	 * Évalue la structure de pions d'une position, en la lisant dans la table si elle
+	 * y est déjà, en la calculant et en l'écrivant dans la table sinon.
+	 *
+	 * @param echiquier L'échiquier
+	 * @return Les scores d'ouverture et de finale de la structure (voir {@link Evaluation#evaluerPions(long, long)}).
+	 */
+	public long evaluer(Echiquier echiquier)
+	{
+		long cle   = echiquier.getClePions();
+		int  index = (int) cle & (NB_ENTREES - 1);
+
+		if(this.tabCles[index] == cle)
+		{
+			this.nbSucces++;
+			return this.tabScores[index];
+		}
+
+		this.nbEchecs++;
+		long scores = Evaluation.evaluerPions(echiquier.getBitboard(1), echiquier.getBitboard(7));
+		this.tabCles  [index] = cle;
+		this.tabScores[index] = scores;
+		return scores;
+	}
+
+	/**
+	 * Remet les statistiques à zéro.
+	 */
+	public void reinitialiserStatistiques()
+	{
+		this.nbSucces = 0;
+		this.nbEchecs = 0;
+	}
+}
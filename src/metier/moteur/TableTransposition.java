@@ -0,0 +1,210 @@
+package metier.moteur;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Classe représentant une table de transposition : elle mémorise, pour chaque position
+ * rencontrée pendant la recherche (identifiée par sa clé de Zobrist), la profondeur
+ * cherchée, le type de borne, le score et le meilleur coup.
+ *
+ * La table est stockée hors du tas Java ({@link ByteBuffer#allocateDirect(int)}) :
+ * elle peut occuper plusieurs centaines de Mo sans solliciter le ramasse-miettes.
+ * Chaque entrée occupe 16 octets : la donnée (sur 64 bits) et la clé combinée à la
+ * donnée par un XOR. Plusieurs threads peuvent lire et écrire la table sans verrou :
+ * une entrée partiellement écrite par un autre thread ne vérifie plus le XOR et est
+ * simplement ignorée.
+ *
+ * Codage de la donnée :
+ * <ul>
+ *   <li>bits 0-15  : meilleur coup (voir {@link metier.Coup})</li>
+ *   <li>bits 16-23 : profondeur</li>
+ *   <li>bits 24-25 : type de borne ({@link #EXACTE}, {@link #INFERIEURE}, {@link #SUPERIEURE})</li>
+ *   <li>bits 26-31 : âge (numéro de la recherche qui a écrit l'entrée)</li>
+ *   <li>bits 32-63 : score</li>
+ * </ul>
+ * Le type de borne n'est jamais nul : une donnée nulle représente une entrée vide.
+ *
+ * @author Ted Herambert
+ * @date 23/11/2024
+ * @version 1.0
+ */
+public class TableTransposition
+{
+	// Types de borne
+	public static final int EXACTE     = 1; // Score exact
+	public static final int INFERIEURE = 2; // Le score est au moins égal (coupure beta)
+	public static final int SUPERIEURE = 3; // Le score est au plus égal (aucun coup n'a amélioré alpha)
+
+	// Taille d'une entrée, en octets
+	private static final int TAILLE_ENTREE = 16;
+
+	private ByteBuffer tampon;
+	private int        nbEntrees; // Puissance de 2
+	private int        masque;
+	private int        age;
+
+	// Statistiques
+	private LongAdder nbSucces;     // La position a été trouvée
+	private LongAdder nbEchecs;     // La position n'a pas été trouvée (entrée vide)
+	private LongAdder nbCollisions; // L'entrée contient une autre position (ou une écriture concurrente)
+	private LongAdder nbEcritures;
+
+	/**
+	 * Constructeur de la table de transposition.
+	 *
+	 * @param tailleMo Taille de la table en Mo (arrondie à la puissance de 2 inférieure)
+	 * @throws IllegalArgumentException Si la taille n'est pas comprise entre 1 et 1024 Mo.
+	 */
+	public TableTransposition(int tailleMo)
+	{
+		if(tailleMo < 1 || tailleMo > 1024)
+			throw new IllegalArgumentException("Taille de la table de transposition non valide : " + tailleMo + " Mo");
+
+		this.nbEntrees = Integer.highestOneBit(tailleMo) * (1024 * 1024 / TAILLE_ENTREE);
+		this.masque    = this.nbEntrees - 1;
+		this.tampon    = ByteBuffer.allocateDirect(this.nbEntrees * TAILLE_ENTREE).order(ByteOrder.nativeOrder());
+
+		this.nbSucces     = new LongAdder();
+		this.nbEchecs     = new LongAdder();
+		this.nbCollisions = new LongAdder();
+		this.nbEcritures  = new LongAdder();
+	}
+
+	// Getters
+	public int  getNbEntrees   () { return this.nbEntrees;                                    }
+	public int  getTailleMo    () { return (int)((long) this.nbEntrees * TAILLE_ENTREE >> 20); }
+	public long getNbSucces    () { return this.nbSucces    .sum();                           }
+	public long getNbEchecs    () { return this.nbEchecs    .sum();                           }
+	public long getNbCollisions() { return this.nbCollisions.sum();                           }
+	public long getNbEcritures () { return this.nbEcritures .sum();                           }
+
+	// Accès aux champs d'une donnée lue avec lire()
+	public static int getCoup      (long donnee) { return (int) donnee & 0xFFFF;         }
+	public static int getProfondeur(long donnee) { return (int)(donnee >>> 16) & 0xFF;   }
+	public static int getBorne     (long donnee) { return (int)(donnee >>> 24) & 0x3;    }
+	public static int getScore     (long donnee) { return (int)(donnee >> 32);           }
+
+	/**
+	 * Lit l'entrée d'une position.
+	 *
+	 * @param cle La clé de Zobrist de la position
+	 * @return La donnée de l'entrée, 0 si la position n'est pas dans la table.
+	 */
+	public long lire(long cle)
+	{
+		int  index    = ((int) cle & this.masque) * TAILLE_ENTREE;
+		long cleXor   = this.tampon.getLong(index);
+		long donnee   = this.tampon.getLong(index + 8);
+
+		if(donnee == 0)
+		{
+			this.nbEchecs.increment();
+			return 0;
+		}
+
+		if((cleXor ^ donnee) != cle)
+		{
+			this.nbCollisions.increment();
+			return 0;
+		}
+
+		this.nbSucces.increment();
+		return donnee;
+	}
+
+	/**
+	 * Écrit l'entrée d'une position.
+	 * Une entrée de la recherche en cours concernant la même position n'est remplacée
+	 * que par une entrée de profondeur au moins égale.
+	 *
+	 * @param cle        La clé de Zobrist de la position
+	 * @param profondeur La profondeur cherchée (0-255)
+	 * @param borne      Le type de borne
+	 * @param score      Le score
+	 * @param coup       Le meilleur coup, {@link metier.Coup#AUCUN} si inconnu
+	 */
+	public void ecrire(long cle, int profondeur, int borne, int score, int coup)
+	{
+		int  index  = ((int) cle & this.masque) * TAILLE_ENTREE;
+		long ancien = this.tampon.getLong(index + 8);
+
+		if(   ancien != 0 && (this.tampon.getLong(index) ^ ancien) == cle
+		   && ((int)(ancien >>> 26) & 0x3F) == this.age && TableTransposition.getProfondeur(ancien) > profondeur)
+			return;
+
+		long donnee =   (coup & 0xFFFF)
+		              | (long)(profondeur & 0xFF) << 16
+		              | (long) borne              << 24
+		              | (long) this.age           << 26
+		              | (long) score              << 32;
+
+		this.tampon.putLong(index,     cle ^ donnee);
+		this.tampon.putLong(index + 8, donnee);
+		this.nbEcritures.increment();
+	}
+
+	/**
+	 * Signale le début d'une nouvelle recherche : les entrées des recherches
+	 * précédentes deviennent prioritaires au remplacement.
+	 */
+	public void nouvelleRecherche()
+	{
+		this.age = (this.age + 1) & 0x3F;
+	}
+
+	/**
+	 * Vide la table et remet les statistiques à zéro.
+	 */
+	public void vider()
+	{
+		for(int index = 0; index < this.nbEntrees * TAILLE_ENTREE; index += 8)
+			this.tampon.putLong(index, 0L);
+
+		this.age = 0;
+		this.reinitialiserStatistiques();
+	}
+
+	/**
+	 * Remet les statistiques à zéro.
+	 */
+	public void reinitialiserStatistiques()
+	{
+		this.nbSucces    .reset();
+		this.nbEchecs    .reset();
+		this.nbCollisions.reset();
+		this.nbEcritures .reset();
+	}
+
+	/**
+	 * Estime le taux de remplissage de la table à partir de ses 1000 premières entrées.
+	 *
+	 * @return Le nombre d'entrées occupées pour 1000.
+	 */
+	public int getRemplissage()
+	{
+		int nbOccupees = 0;
+		int nbTestees  = Math.min(1000, this.nbEntrees);
+		for(int i = 0; i < nbTestees; i++)
+			if(this.tampon.getLong(i * TAILLE_ENTREE + 8) != 0) nbOccupees++;
+
+		return nbOccupees * 1000 / nbTestees;
+	}
+
+	/**
+	 * Retourne les statistiques de la table sous forme de chaîne.
+	 *
+	 * @return Les statistiques.
+	 */
+	public String getStatistiques()
+	{
+		long nbLectures = this.getNbSucces() + this.getNbEchecs() + this.getNbCollisions();
+		return String.format("%d Mo (%d entrées), %d lectures : %.1f%% succès, %.1f%% échecs, %.1f%% collisions, %d écritures, remplissage %d/1000",
+		                     this.getTailleMo(), this.nbEntrees, nbLectures,
+		                     100.0 * this.getNbSucces    () / Math.max(1, nbLectures),
+		                     100.0 * this.getNbEchecs    () / Math.max(1, nbLectures),
+		                     100.0 * this.getNbCollisions() / Math.max(1, nbLectures),
+		                     this.getNbEcritures(), this.getRemplissage());
+	}
+}
@@ -0,0 +1,206 @@
+package metier.moteur;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+
+import constants.Couleur;
+import metier.Echiquier;
+import metier.piece.Attaques;
+import metier.utils.Bitboard;
+
+/**
+ * Classe représentant les tables de finales de l'ordinateur : pour chaque position
+ * d'une finale roi et pièce contre roi (KQK, KRK, KBK, KNK, KPK), le résultat avec
+ * le meilleur jeu des deux joueurs et la distance jusqu'à la capture du roi.
+ *
+ * Chaque position est codée sur un octet, du point de vue du joueur qui doit jouer :
+ * <ul>
+ *   <li>0 : partie nulle (aucun roi ne peut être capturé) ;</li>
+ *   <li>impair n : gain, le roi adverse est capturé au n-ième demi-coup (1 : capture immédiate) ;</li>
+ *   <li>pair n : perte, le roi est capturé au bout de n demi-coups.</li>
+ * </ul>
+ * Les positions sont indexées par trait (0 : le joueur qui a la pièce), case de la pièce,
+ * case de son roi et case du roi seul. Les règles du jeu étant symétriques gauche-droite,
+ * seules les positions où le roi du joueur qui a la pièce est sur les colonnes a à d sont
+ * stockées. Les finales où la pièce est noire se ramènent aux tables (pièce blanche) en
+ * retournant l'échiquier.
+ *
+ * Les tables sont calculées une fois pour toutes par l'outil {@code outils.GenerationFinales}
+ * puis projetées en mémoire ({@link FileChannel#map}) ; elles sont partagées par toutes les
+ * parties (voir {@link #ouvrir(String)}).
+ *
+ * @author Ted Herambert
+ * @date 23/11/2024
+ * @version 1.0
+ */
+public class TablesFinales
+{
+	// Résultat d'une position nulle
+	public static final int NULLE = 0;
+
+	// Distance maximale jusqu'à la capture du roi (résultat codé sur un octet)
+	public static final int DISTANCE_MAX = 255;
+
+	// Nombre de positions d'une table (trait, pièce, roi sur 32 cases, roi seul)
+	public static final int NB_POSITIONS = 2 * 64 * 32 * 64;
+
+	// Nom du fichier de chaque table, indexé par type de pièce (1 : Pion ... 5 : Reine)
+	private static final String[] TAB_NOMS = { null, "KPK", "KRK", "KNK", "KBK", "KQK" };
+
+	// Extension des fichiers de tables
+	public static final String EXTENSION = ".fin";
+
+	// Tables déjà ouvertes, indexées par chemin absolu du dossier
+	private static final HashMap<Path, TablesFinales> TAB_TABLES = new HashMap<>();
+
+	private ByteBuffer[] tabTables; // Projection de chaque table, indexée par type de pièce (null si absente)
+
+	/**
+	 * Constructeur des tables : projette en mémoire les tables présentes dans un dossier.
+	 *
+	 * @param dossier Le dossier des tables
+	 * @throws IOException Si une table ne peut pas être lue ou n'a pas la bonne taille.
+	 */
+	private TablesFinales(Path dossier) throws IOException
+	{
+		this.tabTables = new ByteBuffer[TAB_NOMS.length];
+
+		for(int type = 1; type < TAB_NOMS.length; type++)
+		{
+			Path fichier = dossier.resolve(TablesFinales.getNomFichier(type));
+			if(!Files.exists(fichier)) continue;
+
+			// La projection reste valide après la fermeture du canal
+			try(FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ))
+			{
+				if(canal.size() != NB_POSITIONS)
+					throw new IOException("Table de finales invalide : " + fichier);
+
+				this.tabTables[type] = canal.map(FileChannel.MapMode.READ_ONLY, 0, NB_POSITIONS);
+			}
+		}
+	}
+
+	/**
+	 * Ouvre les tables de finales d'un dossier. Les tables absentes sont ignorées.
+	 * Un même dossier n'est ouvert qu'une seule fois : les parties qui l'ouvrent
+	 * ensuite partagent les mêmes tables.
+	 *
+	 * @param dossier Le chemin du dossier
+	 * @return Les tables.
+	 * @throws IOException Si une table ne peut pas être lue ou n'a pas la bonne taille.
+	 */
+	public static synchronized TablesFinales ouvrir(String dossier) throws IOException
+	{
+		Path          chemin = Paths.get(dossier).toAbsolutePath().normalize();
+		TablesFinales tables = TAB_TABLES.get(chemin);
+
+		if(tables == null)
+		{
+			tables = new TablesFinales(chemin);
+			TAB_TABLES.put(chemin, tables);
+		}
+
+		return tables;
+	}
+
+	/**
+	 * Retourne le nom du fichier de la table d'un type de pièce.
+	 *
+	 * @param type Le type de pièce (1 : Pion ... 5 : Reine)
+	 * @return Le nom du fichier (par exemple "KQK.fin").
+	 */
+	public static String getNomFichier(int type) { return TAB_NOMS[type] + EXTENSION; }
+
+	/**
+	 * Indique si la table d'un type de pièce est disponible.
+	 *
+	 * @param type Le type de pièce (1 : Pion ... 5 : Reine)
+	 * @return {@code true} si la table a été trouvée.
+	 */
+	public boolean estDisponible(int type) { return this.tabTables[type] != null; }
+
+	/**
+	 * Calcule l'indice d'une position dans une table. La position est d'abord
+	 * ramenée, par symétrie gauche-droite, à un roi fort sur les colonnes a à d.
+	 *
+	 * @param trait       0 si le joueur qui a la pièce doit jouer, 1 sinon
+	 * @param casePiece   La case de la pièce (0-63)
+	 * @param caseRoi     La case du roi du joueur qui a la pièce (0-63)
+	 * @param caseRoiSeul La case du roi seul (0-63)
+	 * @return L'indice de la position.
+	 */
+	public static int getIndex(int trait, int casePiece, int caseRoi, int caseRoiSeul)
+	{
+		if(Bitboard.getCol(caseRoi) > 3)
+		{
+			casePiece   ^= 7;
+			caseRoi     ^= 7;
+			caseRoiSeul ^= 7;
+		}
+
+		int roi = Bitboard.getLig(caseRoi) * 4 + Bitboard.getCol(caseRoi);
+		return ((trait * 64 + casePiece) * 32 + roi) * 64 + caseRoiSeul;
+	}
+
+	/**
+	 * Cherche la position d'un échiquier dans les tables.
+	 *
+	 * @param echiquier L'échiquier
+	 * @return Le résultat de la position pour le joueur actif (voir la description de la classe),
+	 *         -1 si la position n'est pas dans les tables.
+	 */
+	public int sonder(Echiquier echiquier)
+	{
+		long occupation = echiquier.getOccupation();
+		int  nbPieces   = Bitboard.nbCases(occupation);
+		long roiBlanc   = echiquier.getBitboard(6);
+		long roiNoir    = echiquier.getBitboard(12);
+
+		if(nbPieces > 3 || roiBlanc == Bitboard.VIDE || roiNoir == Bitboard.VIDE) return -1;
+
+		// Deux rois seuls : nulle, sauf si le joueur actif peut capturer le roi adverse
+		if(nbPieces == 2)
+			return (Attaques.roi(Bitboard.premiereCase(roiBlanc)) & roiNoir) != 0 ? 1 : NULLE;
+
+		long piece = occupation & ~(roiBlanc | roiNoir);
+		int  num   = 0;
+		for(int n = 1; n <= 12 && num == 0; n++)
+			if(n != 6 && n != 12 && echiquier.getBitboard(n) == piece) num = n;
+
+		int type = num > 6 ? num - 6 : num;
+		if(this.tabTables[type] == null) return -1;
+
+		// La pièce est ramenée côté blanc en retournant l'échiquier
+		int     retourne  = num > 6 ? 56 : 0;
+		Couleur couleur   = num > 6 ? Couleur.NOIR : Couleur.BLANC;
+		int     casePiece = Bitboard.premiereCase(piece)                        ^ retourne;
+		int     caseRoi   = Bitboard.premiereCase(num > 6 ? roiNoir  : roiBlanc) ^ retourne;
+		int     caseSeul  = Bitboard.premiereCase(num > 6 ? roiBlanc : roiNoir ) ^ retourne;
+		int     trait     = echiquier.getJoueurActif() == couleur ? 0 : 1;
+
+		return this.tabTables[type].get(TablesFinales.getIndex(trait, casePiece, caseRoi, caseSeul)) & 0xFF;
+	}
+
+	/**
+	 * Indique si un résultat lu dans les tables est un gain pour le joueur qui doit jouer.
+	 *
+	 * @param resultat Le résultat
+	 * @return {@code true} pour un gain.
+	 */
+	public static boolean estGain(int resultat) { return (resultat & 1) != 0; }
+
+	/**
+	 * Indique si un résultat lu dans les tables est une perte pour le joueur qui doit jouer.
+	 *
+	 * @param resultat Le résultat
+	 * @return {@code true} pour une perte.
+	 */
+	public static boolean estPerte(int resultat) { return resultat != NULLE && (resultat & 1) == 0; }
+}
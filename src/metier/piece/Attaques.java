@@ -0,0 +1,254 @@
+package metier.piece;
+
+import constants.Couleur;
+import metier.utils.Bitboard;
+
+/**
+ * Classe utilitaire contenant les tables d'attaques précalculées des pièces.
+ * Les cases attaquées par le Cavalier, le Roi et le Pion sont lues directement 
+ * dans une table indexée par la case de la pièce.
+ * Pour les pièces qui se déplacent en ligne (Tour, Fou, Reine), on utilise des 
+ * "magic bitboards" : les pièces présentes sur les lignes de la pièce sont 
+ * transformées, par une multiplication et un décalage, en un indice dans une table 
+ * qui contient les cases attaquées pour cette configuration.
+ * Chaque requête se fait donc en temps constant.
+ * 
+ * @author Ted Herambert
+ * @date 23/11/2024
+ * @version 1.0
+ */
+public final class Attaques
+{
+	// Directions des pièces qui se déplacent en ligne
+	private static final int[][] DIR_TOUR = { { -1,  0 }, { 1, 0 }, {  0, -1 }, { 0, 1 } };
+	private static final int[][] DIR_FOU  = { { -1, -1 }, { -1, 1 }, { 1, -1 }, { 1, 1 } };
+
+	// Sauts du Cavalier et du Roi
+	private static final int[][] SAUT_CAVALIER = { { -2, -1 }, { -2, 1 }, { -1, -2 }, { -1, 2 },
+	                                               {  1, -2 }, {  1, 2 }, {  2, -1 }, {  2, 1 } };
+	private static final int[][] SAUT_ROI      = { { -1, -1 }, { -1, 0 }, { -1, 1 }, { 0, -1 },
+	                                               {  0,  1 }, {  1, -1 }, {  1, 0 }, { 1,  1 } };
+
+	// Nombres magiques (trouvés hors ligne par recherche aléatoire, un par case)
+	private static final long[] MAGIQUE_TOUR = {
+		0x0200110042008020L, 0x0840200040001000L, 0x0200204080081200L, 0x0100042010000900L,
+		0x0180080080032400L, 0x03000400080A1300L, 0x0C00300421008208L, 0x0600020900902044L,
+		0x0416002081044600L, 0x1000804000802001L, 0x4800808010002000L, 0x0800801000800805L,
+		0x000A0006003020A8L, 0x0032000200100885L, 0x0041000100048200L, 0x00810008A8420100L,
+		0x2A00288000400080L, 0x6010084000200842L, 0x8030002000280400L, 0x1801090010010020L,
+		0x000C008008008006L, 0x4501080140200410L, 0x2080040001100802L, 0x0000520001531484L,
+		0x2820208080004000L, 0x01C0008180402000L, 0x00A0010100204010L, 0x0000100480080082L,
+		0x0008008080040008L, 0x0400020080040080L, 0xB800820400414810L, 0x100030A200110044L,
+		0x0480002006400240L, 0x4020200080804000L, 0x0000801006802000L, 0x0094201001000902L,
+		0x2110800400800800L, 0x0012001004040020L, 0x000808305C000205L, 0x8800088102000064L,
+		0x06008003C00A8020L, 0x0002201000424002L, 0x0001004420050010L, 0x202010010021000CL,
+		0x0800080004008080L, 0x0004000200048080L, 0x0000100102040008L, 0x88000500C2A20004L,
+		0x0641800040006280L, 0x10E8401081042100L, 0xD100884010220200L, 0x0000090010012500L,
+		0x0000080004008080L, 0x2834010002004040L, 0x0004812802104400L, 0x80001C8100440200L,
+		0x0081001048248001L, 0x3440008810402101L, 0x8010410020000811L, 0x082900205810021DL,
+		0x8001004800021005L, 0x0006001001480442L, 0x1000081110408204L, 0x100800850C002342L
+	};
+
+	private static final long[] MAGIQUE_FOU = {
+		0x8008080088304100L, 0x06200144010E4424L, 0x8504041422410000L, 0x0024070A00000104L,
+		0x8124042020808010L, 0x0002084404040000L, 0x1B80820120203000L, 0x0002210042304010L,
+		0x1000A10444084040L, 0x4302021021010100L, 0x0000440822024440L, 0x0048212040800122L,
+		0x3188040420100020L, 0x0D001A0884040808L, 0x0000004128201024L, 0x0820420044028800L,
+		0x0B09002042144800L, 0x4011044801080088L, 0x4001091808002083L, 0xE8C800040C119040L,
+		0x2A01801404A00010L, 0xA480205500884006L, 0x0020880402080300L, 0x3014826100480200L,
+		0x0020234810040101L, 0x1021101120222240L, 0x0014011030810400L, 0x0020080009004008L,
+		0x0541010000104000L, 0x0105020108480414L, 0x2002021100411020L, 0x000A002202840908L,
+		0x0214602100080208L, 0x8002480425825011L, 0x8000240114100101L, 0x0004020080080080L,
+		0x0002020200100808L, 0x10301A0022220092L, 0x002242004C220802L, 0x90140D8130420104L,
+		0x4408821050004200L, 0x0000820820240280L, 0x0004082808000408L, 0x00060042008C1802L,
+		0x200108010404A040L, 0x0440012041000080L, 0x2004500202000040L, 0x4002180041040090L,
+		0x0012008420080022L, 0x100A20AC04204230L, 0x0000005044100010L, 0x4600800020880801L,
+		0x000000129A020A00L, 0x0000208202620880L, 0x0211100108008040L, 0x042A0C8404084004L,
+		0x0001820041204800L, 0x0500860080B41000L, 0x400804102402080CL, 0x0000909104420218L,
+		0x50208002A0443400L, 0x8404002224410200L, 0x8384191010028508L, 0x8020010102008200L
+	};
+
+	// Tables d'attaques des pièces à sauts
+	private static final long[]   TAB_CAVALIER = new long[64];
+	private static final long[]   TAB_ROI      = new long[64];
+	private static final long[][] TAB_PION     = new long[2][64]; // indexé par Couleur.getValeur()
+
+	// Données des magic bitboards : masque des cases pertinentes, décalage et position dans la table
+	private static final long[] MASQUE_TOUR   = new long[64];
+	private static final long[] MASQUE_FOU    = new long[64];
+	private static final int[]  DECALAGE_TOUR = new int [64];
+	private static final int[]  DECALAGE_FOU  = new int [64];
+	private static final int[]  INDICE_TOUR   = new int [64];
+	private static final int[]  INDICE_FOU    = new int [64];
+	private static final long[] TAB_TOUR;
+	private static final long[] TAB_FOU;
+
+	static
+	{
+		for(int numCase = 0; numCase < 64; numCase++)
+		{
+			TAB_CAVALIER[numCase] = Attaques.calculerSauts(numCase, SAUT_CAVALIER);
+			TAB_ROI     [numCase] = Attaques.calculerSauts(numCase, SAUT_ROI);
+
+			int lig = Bitboard.getLig(numCase);
+			int col = Bitboard.getCol(numCase);
+			for(int dc = -1; dc <= 1; dc += 2)
+			{
+				if(col + dc < 0 || col + dc > 7) continue;
+				if(lig > 0) TAB_PION[Couleur.BLANC.getValeur()][numCase] |= Bitboard.masque(lig - 1, col + dc);
+				if(lig < 7) TAB_PION[Couleur.NOIR .getValeur()][numCase] |= Bitboard.masque(lig + 1, col + dc);
+			}
+		}
+
+		TAB_TOUR = Attaques.initMagiques(DIR_TOUR, MAGIQUE_TOUR, MASQUE_TOUR, DECALAGE_TOUR, INDICE_TOUR);
+		TAB_FOU  = Attaques.initMagiques(DIR_FOU,  MAGIQUE_FOU,  MASQUE_FOU,  DECALAGE_FOU,  INDICE_FOU );
+	}
+
+	/**
+	 * Constructeur privé pour empêcher l'instanciation de cette classe utilitaire.
+	 */
+	private Attaques() {}
+
+	/**
+	 * Retourne les cases attaquées par un Cavalier.
+	 * @param numCase La case du Cavalier (0-63).
+	 * @return Le bitboard des cases attaquées.
+	 */
+	public static long cavalier(int numCase) { return TAB_CAVALIER[numCase]; }
+
+	/**
+	 * Retourne les cases attaquées par un Roi.
+	 * @param numCase La case du Roi (0-63).
+	 * @return Le bitboard des cases attaquées.
+	 */
+	public static long roi(int numCase) { return TAB_ROI[numCase]; }
+
+	/**
+	 * Retourne les cases attaquées (en diagonale) par un Pion.
+	 * @param couleur La couleur du Pion.
+	 * @param numCase La case du Pion (0-63).
+	 * @return Le bitboard des cases attaquées.
+	 */
+	public static long pion(Couleur couleur, int numCase) { return TAB_PION[couleur.getValeur()][numCase]; }
+
+	/**
+	 * Retourne les cases attaquées par une Tour.
+	 * @param numCase    La case de la Tour (0-63).
+	 * @param occupation Le bitboard des cases occupées.
+	 * @return Le bitboard des cases attaquées, jusqu'à la première pièce incluse dans chaque direction.
+	 */
+	public static long tour(int numCase, long occupation)
+	{
+		return TAB_TOUR[INDICE_TOUR[numCase] + (int)(((occupation & MASQUE_TOUR[numCase]) * MAGIQUE_TOUR[numCase]) >>> DECALAGE_TOUR[numCase])];
+	}
+
+	/**
+	 * Retourne les cases attaquées par un Fou.
+	 * @param numCase    La case du Fou (0-63).
+	 * @param occupation Le bitboard des cases occupées.
+	 * @return Le bitboard des cases attaquées, jusqu'à la première pièce incluse dans chaque direction.
+	 */
+	public static long fou(int numCase, long occupation)
+	{
+		return TAB_FOU[INDICE_FOU[numCase] + (int)(((occupation & MASQUE_FOU[numCase]) * MAGIQUE_FOU[numCase]) >>> DECALAGE_FOU[numCase])];
+	}
+
+	/**
+	 * Retourne les cases attaquées par une Reine.
+	 * @param numCase    La case de la Reine (0-63).
+	 * @param occupation Le bitboard des cases occupées.
+	 * @return Le bitboard des cases attaquées, jusqu'à la première pièce incluse dans chaque direction.
+	 */
+	public static long reine(int numCase, long occupation) { return Attaques.tour(numCase, occupation) | Attaques.fou(numCase, occupation); }
+
+	/**
+	 * Calcule les cases atteintes par une liste de sauts depuis une case.
+	 * @param numCase  La case de départ.
+	 * @param tabSauts Les sauts (déplacement en ligne, déplacement en colonne).
+	 * @return Le bitboard des cases atteintes.
+	 */
+	private static long calculerSauts(int numCase, int[][] tabSauts)
+	{
+		long cases = Bitboard.VIDE;
+		for(int[] saut : tabSauts)
+		{
+			int lig = Bitboard.getLig(numCase) + saut[0];
+			int col = Bitboard.getCol(numCase) + saut[1];
+			if(0 <= lig && lig < 8 && 0 <= col && col < 8)
+				cases |= Bitboard.masque(lig, col);
+		}
+		return cases;
+	}
+
+	/**
+	 * Calcule, en parcourant les cases une à une, les cases atteintes en glissant 
+	 * depuis une case dans les directions données.
+	 * Utilisée uniquement pour remplir les tables.
+	 * @param numCase    La case de départ.
+	 * @param tabDir     Les directions (déplacement en ligne, déplacement en colonne).
+	 * @param occupation Le bitboard des cases occupées.
+	 * @param masque     {@code true} pour calculer le masque des cases pertinentes 
+	 *                   (sans les bords et sans tenir compte de l'occupation).
+	 * @return Le bitboard des cases atteintes.
+	 */
+	private static long calculerGlissement(int numCase, int[][] tabDir, long occupation, boolean masque)
+	{
+		long cases = Bitboard.VIDE;
+		for(int[] dir : tabDir)
+		{
+			int lig = Bitboard.getLig(numCase) + dir[0];
+			int col = Bitboard.getCol(numCase) + dir[1];
+			while(0 <= lig && lig < 8 && 0 <= col && col < 8)
+			{
+				// La dernière case d'une direction n'influence pas les cases attaquées
+				if(masque && !(0 <= lig + dir[0] && lig + dir[0] < 8 && 0 <= col + dir[1] && col + dir[1] < 8))
+					break;
+
+				cases |= Bitboard.masque(lig, col);
+				if(!masque && (occupation & Bitboard.masque(lig, col)) != 0) break;
+
+				lig += dir[0];
+				col += dir[1];
+			}
+		}
+		return cases;
+	}
+
+	/**
+	 * Remplit les tables des magic bitboards pour un type de déplacement.
+	 * @param tabDir      Les directions de déplacement.
+	 * @param tabMagiques Les nombres magiques de chaque case.
+	 * @param tabMasques  Tableau à remplir avec le masque des cases pertinentes de chaque case.
+	 * @param tabDecalage Tableau à remplir avec le décalage de chaque case.
+	 * @param tabIndices  Tableau à remplir avec la position de chaque case dans la table d'attaques.
+	 * @return La table d'attaques.
+	 */
+	private static long[] initMagiques(int[][] tabDir, long[] tabMagiques, long[] tabMasques, int[] tabDecalage, int[] tabIndices)
+	{
+		int taille = 0;
+		for(int numCase = 0; numCase < 64; numCase++)
+		{
+			tabMasques [numCase] = Attaques.calculerGlissement(numCase, tabDir, Bitboard.VIDE, true);
+			tabDecalage[numCase] = 64 - Bitboard.nbCases(tabMasques[numCase]);
+			tabIndices [numCase] = taille;
+			taille += 1 << Bitboard.nbCases(tabMasques[numCase]);
+		}
+
+		long[] tabAttaques = new long[taille];
+		for(int numCase = 0; numCase < 64; numCase++)
+		{
+			// Parcours de tous les sous-ensembles du masque
+			long masque     = tabMasques[numCase];
+			long occupation = Bitboard.VIDE;
+			do
+			{
+				int indice = tabIndices[numCase] + (int)((occupation * tabMagiques[numCase]) >>> tabDecalage[numCase]);
+				tabAttaques[indice] = Attaques.calculerGlissement(numCase, tabDir, occupation, false);
+				occupation = (occupation - masque) & masque;
+			}
+			while(occupation != 0);
+		}
+
+		return tabAttaques;
+	}
+}
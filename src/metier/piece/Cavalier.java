@@ -27,23 +27,14 @@ public class Cavalier extends Piece
     }
 
     /**
-     * Vérifie si le déplacement du Cavalier est valide.
+     * Calcule les cases attaquées par le Cavalier.
      * Le Cavalier se déplace en formant un "L", c'est-à-dire deux cases dans une direction
      * et une case dans la direction perpendiculaire.
 	 * 
-     * @param ligDest Ligne de destination
-     * @param colDest Colonne de destination
-     * @return true si le déplacement est valide, sinon false.
+     * @return Le bitboard des cases attaquées.
      */
     @Override
-    public boolean deplacementValide(int ligDest, int colDest) 
-    {
-        // Vérifie d'abord que le déplacement est valide au niveau des règles de base des pièces
-        return super.deplacementValide(ligDest, colDest)
-            // Vérifie que le déplacement du Cavalier respecte la forme "L"
-            && ((Math.abs(ligDest - this.lig) == 2 && Math.abs(colDest - this.col) == 1) 
-            ||  (Math.abs(ligDest - this.lig) == 1 && Math.abs(colDest - this.col) == 2));
-    }
+    public long getAttaques() { return Attaques.cavalier(this.getCase()); }
 
 	/**
 	 * Retourne le type de la pièce, ici "Cavalier".
@@ -24,54 +24,13 @@ public class Fou extends Piece
 	public Fou(Echiquier echiquier, int num, int lig, int col) { super(echiquier, num, lig, col); }
 
 	/**
-	 * Vérifie si le déplacement du Fou est valide.
-	 * Le Fou se déplace en diagonale.
+	 * Calcule les cases attaquées par le Fou.
+	 * Le Fou se déplace en diagonale, tant qu'aucune pièce ne se trouve sur le chemin.
 	 * 
-	 * @param ligDest Ligne de destination
-	 * @param colDest Colonne de destination
-	 * @return {@code true} si le déplacement est valide, {@code false} sinon.
+	 * @return Le bitboard des cases attaquées.
 	 */
-	public boolean deplacementValide(int ligDest,int colDest) 
-	{
-		
-		/**
-		 * 1. Vérifie d'abord que le déplacement est valide au niveau des règles de base des pièces
-		 * 2. Vérifie qu'il s'agit bien d'un déplacement en diagonale
-		 * 3. Vérifie qu'il n'y a pas d'autres pièces sur le chemin
-		 */
-		return    super.deplacementValide(ligDest, colDest) 
-		       && Math.abs(ligDest-this.lig) == Math.abs(colDest-this.col)
-			   && !this.autrePiece(ligDest, colDest);
-
-	}
-
-	/**
-	 * Vérifie s'il y a une autre pièce entre la position actuelle et la destination.
-	 * Cette méthode parcourt les cases entre la position actuelle et la destination
-	 * pour détecter une pièce se trouvant sur le chemin.
-	 * 
-	 * @param ligDest Ligne de destination
-	 * @param colDest Colonne de destination
-	 * @return {@code true} s'il y a une autre pièce sur le chemin, {@code false} sinon.
-	 */
-	private boolean autrePiece(int ligDest, int colDest)
-	{
-		// Calcul des directions pour parcourir le chemin (ligne et colonne)
-		int dirlig = 1;
-		int dircol = 1;
-		if(this.lig > ligDest) dirlig = -1;
-		if(this.col > colDest) dircol = -1;
-
-
-    	// Parcours des cases entre la position actuelle et la destination
-		Piece piece = null;
-		for(int k = 1; k < Math.abs(ligDest-this.lig); k++)
-		{
-			piece = this.echiquier.getPiece(this.lig + k * dirlig,this.col + k * dircol);
-			if (piece != null) return true; // Une pièce est présente sur le chemin
-		}
-		return false; // Aucune pièce sur le chemin
-	}
+	@Override
+	public long getAttaques() { return Attaques.fou(this.getCase(), this.echiquier.getOccupation()); }
 
 	/**
 	 * Retourne le type de la pièce, ici "Fou".
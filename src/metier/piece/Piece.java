@@ -3,6 +3,7 @@ package metier.piece;
 import constants.AppConstants;
 import constants.Couleur;
 import metier.Echiquier;
+import metier.utils.Bitboard;
 
 /**
  * La classe {@code Piece} représente une pièce d'échec sur un échiquier. 
@@ -67,9 +68,28 @@ public abstract class Piece
      */
     public boolean deplacementValide(int lig, int col) 
     {
-        return !(this.lig == lig && this.col == col) && !this.estMemeCouleur(this.echiquier.getPiece(lig, col));
+        return (this.getDeplacements() & Bitboard.masque(lig, col)) != 0;
     }
 
+    /**
+     * Calcule l'ensemble des cases vers lesquelles la pièce peut se déplacer.
+     * Par défaut, il s'agit des cases attaquées qui ne sont pas occupées par 
+     * une pièce de même couleur.
+     * @return Le bitboard des cases de destination valides.
+     */
+    public long getDeplacements()
+    {
+        return this.getAttaques() & ~this.echiquier.getOccupation(this.couleur);
+    }
+
+    /**
+     * Méthode abstraite qui calcule l'ensemble des cases attaquées par la pièce,
+     * y compris celles occupées par des pièces de même couleur (pièces protégées).
+     * Les classes filles utilisent les tables précalculées de {@link Attaques}.
+     * @return Le bitboard des cases attaquées.
+     */
+    public abstract long getAttaques();
+
     /**
      * Vérifie si cette pièce a la même couleur qu'une autre pièce.
      * 
@@ -94,6 +114,7 @@ public abstract class Piece
     public int     getNum    () { return this.num;     }
     public int     getLig    () { return this.lig;     }
     public int     getCol    () { return this.col;     }
+    public int     getCase   () { return Bitboard.getCase(this.lig, this.col); }
     public int     getX      () { return this.x;       }
     public int     getY      () { return this.y;       }
     public Couleur getCouleur() { return this.couleur; }
@@ -113,6 +134,19 @@ public abstract class Piece
         this.col = colDest;
     }
 
+    /**
+     * Place la pièce à une position (ligne, colonne) sans aucun autre effet 
+     * (pas de promotion, ni de mise à jour de la case de départ d'un pion).
+     * Utilisée pour jouer et annuler des coups lors de l'analyse d'une position.
+     * @param lig Ligne
+     * @param col Colonne
+     */
+    public void placer(int lig, int col)
+    {
+        this.lig = lig;
+        this.col = col;
+    }
+
     /**
      * Ajoute une valeur de déplacement à la position x de la pièce.
      * @param vitesse La valeur à ajouter à la position x.
@@ -2,6 +2,7 @@ package metier.piece;
 
 import constants.Couleur;
 import metier.Echiquier;
+import metier.utils.Bitboard;
 
 /**
  * Représente une pièce de type Pion dans le jeu d'échecs.
@@ -30,37 +31,46 @@ public class Pion extends Piece
 		this.caseDepart = true;
 	}
 
+	// Getter et setter
+	public boolean getCaseDepart()             { return this.caseDepart; }
+	public void    setCaseDepart(boolean b)    { this.caseDepart = b;    }
+
 	/**
-	 * Vérifie si le déplacement du Pion est valide.
+	 * Calcule les cases vers lesquelles le Pion peut se déplacer.
 	 * Le Pion peut se déplacer verticalement d'une ou deux cases (au premier mouvement), 
-	 * si aucune pièce ne bloque.
+	 * si la case de destination est libre.
      * Le Pion peut capturer en diagonale une pièce adverse.
 	 * 
-	 * @param ligDest Ligne de destination
-	 * @param colDest Colonne de destination
-	 * @return {@code true} si le déplacement est valide, {@code false} sinon.
+	 * @return Le bitboard des cases de destination valides.
 	 */
-	public boolean deplacementValide(int ligDest, int colDest)
-	{	
-		// Vérifie que le déplacement est valide au niveau des règles de base des pièces
-		if (!super.deplacementValide(ligDest, colDest))
-			return false;
-
-		int dir      = this.couleur == Couleur.BLANC ? -1 : 1;
+	@Override
+	public long getDeplacements()
+	{
+		long libres = ~this.echiquier.getOccupation();
+		long cases  = this.getAttaques() & this.echiquier.getOccupation(Couleur.autreCouleur(this.couleur));
 
-		// Déplacement vertical de deux cases
-		if(this.echiquier.getPiece(ligDest, colDest) == null && this.caseDepart) 
-			return colDest == this.col && (ligDest == this.lig + 2 * dir || ligDest == this.lig + dir);
+		int dir  = this.couleur == Couleur.BLANC ? -1 : 1;
+		int lig1 = this.lig + dir;
+		int lig2 = this.lig + 2 * dir;
 
-		// Déplacement vertical d'une case'
-		if(this.echiquier.getPiece(ligDest, colDest) == null)
-			return colDest == this.col && ligDest == this.lig + dir;
+		// Déplacement vertical d'une case
+		if(0 <= lig1 && lig1 <= 7)
+			cases |= Bitboard.masque(lig1, this.col) & libres;
 
-		// Capture diagonale (donc déplacement seulement s'il y a une pièce adverse sur la case de destination)
-		return Math.abs(colDest - this.col) == 1 && ligDest == this.lig + dir;
+		// Déplacement vertical de deux cases
+		if(this.caseDepart && 0 <= lig2 && lig2 <= 7)
+			cases |= Bitboard.masque(lig2, this.col) & libres;
 
+		return cases;
 	}
 
+	/**
+	 * Calcule les cases attaquées par le Pion (les deux cases en diagonale vers l'avant).
+	 * 
+	 * @return Le bitboard des cases attaquées.
+	 */
+	@Override
+	public long getAttaques() { return Attaques.pion(this.couleur, this.getCase()); }
 
     /**
      * Déplace le Pion vers une nouvelle position (ligne, colonne).
@@ -24,22 +24,13 @@ public class Roi extends Piece
 	public Roi(Echiquier echiquier, int num,int lig,int col) { super(echiquier, num, lig, col); }
 
 	/**
-	 * Vérifie si le déplacement de la Reine est valide.
+	 * Calcule les cases attaquées par le Roi.
 	 * Le Roi peut se déplacer d'une case dans n'importe quelle direction.
 	 * 
-	 * @param ligDest Ligne de destination
-	 * @param colDest Colonne de destination
-	 * @return {@code true} si le déplacement est valide, {@code false} sinon.
+	 * @return Le bitboard des cases attaquées.
 	 */
-    public boolean deplacementValide(int ligDest,int colDest)
-    {	
-		/**
-		 * 1. Vérifie d'abord que le déplacement est valide au niveau des règles de base des pièces
-		 * 2. Vérifie qu'il s'agit bien d'un déplacement d'une case dans n'importe quelle direction
-		 */
-		return    super.deplacementValide(ligDest, colDest) 
-		       && Math.abs(ligDest - this.lig) <= 1 && Math.abs(colDest - this.col) <= 1;
-    }
+	@Override
+	public long getAttaques() { return Attaques.roi(this.getCase()); }
 
 	/**
 	 * Retourne le type de la pièce, ici "Roi".
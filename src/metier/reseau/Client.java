@@ -1,12 +1,10 @@
 package metier.reseau;
 
 import constants.Couleur;
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.PrintWriter;
 import java.net.Socket;
-import java.util.Scanner;
+import java.nio.ByteBuffer;
+import metier.Coup;
 import metier.Echiquier;
 
 /**
@@ -14,6 +12,8 @@ import metier.Echiquier;
  * une partie) à partie d'un port et d'une adresse IP.
  * Pour des raisons de simplification, le joueur qui rejoind une partie (le client)
  * correspond au joueur "noir".
+ * Connecté à un serveur de parties ({@link Hebergeur}), le client reçoit sa
+ * couleur du serveur au début de la partie.
  * 
  * @author Ted Herambert
  * @date 23/11/2024
@@ -28,11 +28,17 @@ public class Client implements Runnable
     private String serveur;
     private int    port;
     private Socket toServer;
-    private String action; // déplacement effectué au format : ligOrig,colOrig,ligDest,ColDest
 
-    // Flux d'entrée et de sortie pour communiquer avec le serveur
-    private BufferedReader in;
-    private PrintWriter    out;
+    // Messages échangés avec le serveur (voir Protocole)
+    private Protocole        protocole;
+    private volatile boolean connexionOuverte; // Poignée de main faite, connexion pas encore fermée
+    private FileReception    fileReception;    // Messages qui modifient l'échiquier, appliqués par le thread de jeu
+    private MesuresConnexion mesures;          // Santé de la connexion (ping, débits, délai d'affichage)
+    private int[][]          disposition;      // Position reçue dans un message RESYNC (thread de la connexion)
+    private int[][]          dispositionJeu;   // Position lue dans la file de réception (thread de jeu)
+
+    // Dernier temps restant reçu de chaque joueur (message PENDULE), en millisecondes
+    private int[]     tabTemps;
 
     /**
      * Constructeur du client
@@ -42,15 +48,33 @@ public class Client implements Runnable
      */
     public Client(Echiquier echiquier, String serveur, int port)
     {
-        this.echiquier = echiquier;
-        this.serveur   = serveur;
-        this.port      = port;
-        this.action    = null;
+        this.echiquier      = echiquier;
+        this.serveur        = serveur;
+        this.port           = port;
+        this.mesures        = new MesuresConnexion();
+        this.fileReception  = new FileReception();
+        this.disposition    = new int[8][8];
+        this.dispositionJeu = new int[8][8];
+        this.tabTemps       = new int[2];
     }
 
+    /**
+     * Retourne le dernier temps restant reçu d'un joueur.
+     * @param couleur La couleur du joueur
+     * @return Le temps restant, en millisecondes (0 si aucun message PENDULE reçu).
+     */
+    public int getTemps(Couleur couleur) { return this.tabTemps[couleur.getValeur()]; }
+
+    /**
+     * Retourne les mesures de la connexion (temps d'aller-retour, débits, délai d'affichage des coups).
+     * @return Les mesures.
+     */
+    public MesuresConnexion getMesures() { return this.mesures; }
+
     /**
      * Méthode exécutée dans un thread pour gérer la communication avec le serveur.
-     * Elle gère la connexion, la réception des actions du serveur et met à jour l'échiquier.
+     * Elle gère la connexion et la réception des actions du serveur, qui sont appliquées à 
+     * l'échiquier par le thread de jeu (voir {@link #traiterReception()}).
      */
     @Override
     public void run() 
@@ -59,34 +83,25 @@ public class Client implements Runnable
         {
             // Connexion au serveur
             this.toServer = new Socket(this.serveur, this.port);
-			
-			this.echiquier.setConnexionEnCours(false);
-			this.echiquier.setConnexionReussie(true);
-            System.out.println("Connexion réussie !");
 
             // Initialisation du joueur avec la couleur NOIR et lancement du jeu
+            // (avant la fin de la connexion : la boucle de jeu n'est pas encore lancée)
             this.echiquier.setJoueur(Couleur.NOIR);
 
-            // Initialisation des flux d'entrée et de sortie pour la communication
-            this.in  = new BufferedReader(new InputStreamReader(this.toServer.getInputStream()));
-            this.out = new PrintWriter(this.toServer.getOutputStream(), true);
+			this.echiquier.setConnexionEnCours(false);
+			this.echiquier.setConnexionReussie(true);
+            System.out.println("Connexion réussie !");
+
+            // Initialisation du protocole et vérification de sa version
+            this.toServer.setTcpNoDelay(true);
+            this.protocole = new Protocole(this.toServer.getInputStream(), this.toServer.getOutputStream());
+            this.protocole.saluer();
+            this.connexionOuverte = true;
 
-            Scanner sc;
-            int ligOrig, colOrig, ligDest, colDest;
-            // Boucle pour recevoir les actions du serveur en continu
-            while((this.action = in.readLine()) != null)
+            int type;
+            while((type = this.protocole.lireMessage()) != Protocole.FIN)
             {
-                // Récupération des données
-                sc = new Scanner(this.action);
-                sc.useDelimiter(",");
-                ligOrig = sc.nextInt();
-                colOrig = sc.nextInt();
-                ligDest = sc.nextInt();
-                colDest = sc.nextInt();
-                sc.close();
-
-                // Déplacement de la pièce sur l'échiquier
-                this.echiquier.deplacer(ligOrig, colOrig, ligDest, colDest);
+                this.traiterMessage(type, this.protocole.getMessage());
             }
 
         } 
@@ -94,9 +109,124 @@ public class Client implements Runnable
         { 
             e.printStackTrace(); 
         } 
+		this.connexionOuverte = false;
 		this.echiquier.setConnexionEnCours(false);
     }
 
+    /**
+     * Traite un message reçu du serveur (thread de la connexion) : les messages qui 
+     * modifient l'échiquier sont ajoutés à la file de réception.
+     * @param type    Le type du message (voir {@link Protocole})
+     * @param message Le tampon, positionné au début du message
+     * @throws IOException Si la réponse ne peut pas être envoyée.
+     */
+    private void traiterMessage(int type, ByteBuffer message) throws IOException
+    {
+        switch(type)
+        {
+            case Protocole.COULEUR :
+                // Couleur attribuée par un serveur de parties (voir Hebergeur)
+                this.fileReception.ajouterCouleur(Protocole.getCouleur(message));
+                break;
+
+            case Protocole.COUP :
+                this.fileReception.ajouterCoup(Protocole.getCoup(message), System.nanoTime());
+                break;
+
+            case Protocole.ABANDON :
+                this.fileReception.ajouterAbandon();
+                break;
+
+            case Protocole.PENDULE :
+                this.tabTemps[0] = Protocole.getTemps(message, Couleur.BLANC);
+                this.tabTemps[1] = Protocole.getTemps(message, Couleur.NOIR);
+                break;
+
+            case Protocole.PING :
+                this.protocole.envoyerPing(Protocole.PONG, Protocole.getInstant(message));
+                break;
+
+            case Protocole.PONG :
+                this.mesures.enregistrerRtt(Protocole.getInstant(message), System.nanoTime());
+                break;
+
+            case Protocole.RESYNC :
+                if(Protocole.estDemandeResync(message))
+                {
+                    this.protocole.envoyerPosition(this.echiquier.getInstantane());
+                }
+                else
+                {
+                    // La position du serveur remplacera celle de l'échiquier
+                    Couleur trait = Protocole.getPosition(message, this.disposition);
+                    this.fileReception.ajouterPosition(this.disposition, trait, Protocole.getNumTour(message));
+                }
+                break;
+
+            default :
+                // Message inconnu (version ultérieure) ou sans objet : ignoré
+                break;
+        }
+    }
+
+    /**
+     * Applique à l'échiquier les messages reçus depuis le dernier appel, dans leur ordre 
+     * de réception. Appelée par le thread de jeu ({@code Echiquier.update()}), quand aucune 
+     * pièce n'est en déplacement : un coup appliqué lance son animation, les messages 
+     * suivants attendent donc sa fin.
+     */
+    public void traiterReception()
+    {
+        // Une fois par seconde, tant que la connexion est ouverte : ping (temps d'aller-retour) et calcul des débits
+        long maintenant = System.nanoTime();
+        if(this.connexionOuverte && this.mesures.actualiser(maintenant, this.protocole))
+            this.envoyerPing(maintenant);
+
+        FileReception file = this.fileReception;
+        while(!file.estVide())
+        {
+            Couleur adversaire = Couleur.autreCouleur(this.echiquier.getJoueur());
+            switch(file.getType())
+            {
+                case FileReception.COULEUR :
+                    this.echiquier.setJoueur(file.getCouleur());
+                    break;
+
+                case FileReception.COUP :
+                    // Déplacement de la pièce sur l'échiquier ; après un déplacement invalide (ou joué hors de son tour),
+                    // les deux échiquiers ne sont plus d'accord : la position du serveur est demandée
+                    int  coup    = file.getCoup();
+                    long instant = file.getInstant();
+                    file.suivant();
+                    if(this.echiquier.getJoueurActif() == adversaire && this.echiquier.estCoupValide(adversaire, coup))
+                    {
+                        this.echiquier.deplacer(coup);
+                        this.mesures.coupApplique(instant);
+                        return;
+                    }
+
+                    System.out.println("Déplacement invalide reçu : " + Coup.toString(coup));
+                    this.envoyerDemandeResync();
+                    continue;
+
+                case FileReception.ABANDON :
+                    this.echiquier.abandonner(adversaire);
+                    break;
+
+                case FileReception.POSITION :
+                    // La position du serveur remplace celle de l'échiquier
+                    Couleur trait = file.getPosition(this.dispositionJeu);
+                    this.echiquier.resynchroniser(this.dispositionJeu, trait, file.getNumTour());
+                    System.out.println("Position resynchronisée avec le serveur");
+                    break;
+
+                default :
+                    break;
+            }
+            file.suivant();
+        }
+    }
+
     /**
      * Méthode pour fermer la connexion avec le serveur.
      */
@@ -110,15 +240,65 @@ public class Client implements Runnable
     }
 
     /**
-     * Méthode pour envoyer un déplacement de pièce au serveur.
-     * @param ligOrig Ligne d'origine
-     * @param colOrig Colonne d'origine
-     * @param ligDest Ligne de destination
-     * @param colDest Colonne de destination
+     * Méthode pour envoyer un coup à l'adversaire.
+     * @param coup Le coup joué, codé sur 16 bits (voir {@link Coup})
+     */
+    public void envoyerDeplacement(int coup) 
+    {
+        // Envoi du coup
+        try
+        {
+            this.protocole.envoyerCoup(coup);
+        }
+        catch (IOException e)
+        {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Méthode pour demander la position du serveur.
+     */
+    private void envoyerDemandeResync() 
+    {
+        try
+        {
+            this.protocole.envoyerDemandeResync();
+        }
+        catch (IOException e)
+        {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Méthode pour envoyer un ping à l'adversaire.
+     * @param instant L'instant d'envoi (System.nanoTime), renvoyé dans sa réponse
      */
-    public void envoyerDeplacement(int ligOrig, int colOrig, int ligDest, int colDest) 
+    private void envoyerPing(long instant) 
     {
-        // Envoi du déplacement
-        this.out.println("" + ligOrig + "," + colOrig + "," + ligDest + "," + colDest);
+        try
+        {
+            this.protocole.envoyerPing(Protocole.PING, instant);
+        }
+        catch (IOException e)
+        {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Méthode pour envoyer l'abandon du joueur à l'adversaire.
+     */
+    public void envoyerAbandon() 
+    {
+        try
+        {
+            this.protocole.envoyerAbandon();
+        }
+        catch (IOException e)
+        {
+            e.printStackTrace();
+        }
     }
 }
@@ -0,0 +1,192 @@
+package metier.reseau;
+
+import constants.Couleur;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * La classe {@code FileReception} transmet les messages reçus du réseau qui modifient
+ * l'échiquier (coups, abandon, position, couleur) du thread de la connexion, qui les
+ * ajoute, au thread de jeu, qui les applique pendant {@code Echiquier.update()} :
+ * l'échiquier n'est ainsi modifié que par le thread de jeu, dans l'ordre de réception.
+ *
+ * Il s'agit d'un tampon circulaire sans verrou à un seul producteur et un seul
+ * consommateur : les entrées sont préallouées (aucune allocation par message) et
+ * chaque côté ne modifie que son propre indice. Une entrée est écrite avant que
+ * l'indice du producteur ne soit publié ({@code lazySet}, écriture ordonnée), et
+ * n'est réutilisée qu'après que le consommateur a publié le sien.
+ *
+ * @author Ted Herambert
+ * @date 23/11/2024
+ * @version 1.0
+ */
+public class FileReception
+{
+    // Types d'entrées
+    public static final int COUP     = 0;
+    public static final int ABANDON  = 1;
+    public static final int POSITION = 2;
+    public static final int COULEUR  = 3;
+
+    // Nombre d'entrées (puissance de 2) : bien plus que les messages reçus entre deux images
+    private static final int CAPACITE = 64;
+
+    // Taille d'une entrée : type, valeur (coup ou couleur), 64 cases, numéro du tour
+    private static final int TAILLE_ENTREE = 2 + 64 + 1;
+
+    private int[]  tabEntrees;
+    private long[] tabInstants; // Instant de réception de chaque entrée (System.nanoTime)
+
+    // Indices (non bornés) de la prochaine entrée à lire et à écrire
+    private AtomicLong tete;  // Modifié par le consommateur seulement
+    private AtomicLong queue; // Modifié par le producteur seulement
+
+    // Dernière valeur lue de l'indice de l'autre côté (évite de relire une variable partagée à chaque entrée)
+    private long teteConnue;  // Utilisée par le producteur
+    private long queueConnue; // Utilisée par le consommateur
+
+    /**
+     * Constructeur de la file, vide.
+     */
+    public FileReception()
+    {
+        this.tabEntrees  = new int[CAPACITE * TAILLE_ENTREE];
+        this.tabInstants = new long[CAPACITE];
+        this.tete        = new AtomicLong();
+        this.queue       = new AtomicLong();
+    }
+
+    /* ======================= */
+    /* Producteur              */
+    /* ======================= */
+
+    /**
+     * Ajoute un coup reçu.
+     * @param coup    Le coup, codé sur 16 bits (voir {@link metier.Coup})
+     * @param instant L'instant de réception du coup (System.nanoTime)
+     */
+    public void ajouterCoup(int coup, long instant)
+    {
+        int debut = this.reserver();
+        this.tabEntrees[debut]     = COUP;
+        this.tabEntrees[debut + 1] = coup;
+        this.tabInstants[debut / TAILLE_ENTREE] = instant;
+        this.publier();
+    }
+
+    /**
+     * Ajoute l'abandon de l'adversaire.
+     */
+    public void ajouterAbandon()
+    {
+        int debut = this.reserver();
+        this.tabEntrees[debut] = ABANDON;
+        this.publier();
+    }
+
+    /**
+     * Ajoute la couleur attribuée au joueur local.
+     * @param couleur La couleur
+     */
+    public void ajouterCouleur(Couleur couleur)
+    {
+        int debut = this.reserver();
+        this.tabEntrees[debut]     = COULEUR;
+        this.tabEntrees[debut + 1] = couleur.getValeur();
+        this.publier();
+    }
+
+    /**
+     * Ajoute une position qui remplace celle de l'échiquier.
+     * @param disposition Numéro de la pièce (0 si vide) de chaque case, indexé par [lig][col]
+     * @param trait       La couleur du joueur qui doit jouer
+     * @param numTour     Le numéro du tour
+     */
+    public void ajouterPosition(int[][] disposition, Couleur trait, int numTour)
+    {
+        int debut = this.reserver();
+        this.tabEntrees[debut]     = POSITION;
+        this.tabEntrees[debut + 1] = trait.getValeur();
+        for(int numCase = 0; numCase < 64; numCase++)
+            this.tabEntrees[debut + 2 + numCase] = disposition[numCase >>> 3][numCase & 7];
+        this.tabEntrees[debut + 2 + 64] = numTour;
+        this.publier();
+    }
+
+    /**
+     * Attend une entrée libre (la file n'est pleine que si le thread de jeu est arrêté
+     * ou très en retard : aucun message n'est perdu).
+     * @return La position de l'entrée libre dans le tableau des entrées.
+     */
+    private int reserver()
+    {
+        long queue = this.queue.get();
+        while(queue - this.teteConnue >= CAPACITE)
+        {
+            this.teteConnue = this.tete.get();
+            if(queue - this.teteConnue >= CAPACITE) LockSupport.parkNanos(100_000);
+        }
+
+        return (int)(queue & (CAPACITE - 1)) * TAILLE_ENTREE;
+    }
+
+    /**
+     * Rend visible au consommateur l'entrée qui vient d'être écrite.
+     */
+    private void publier()
+    {
+        this.queue.lazySet(this.queue.get() + 1);
+    }
+
+    /* ======================= */
+    /* Consommateur            */
+    /* ======================= */
+
+    /**
+     * Vérifie s'il reste une entrée à lire.
+     * @return {@code true} si la file est vide.
+     */
+    public boolean estVide()
+    {
+        long tete = this.tete.get();
+        if(tete < this.queueConnue) return false;
+
+        this.queueConnue = this.queue.get();
+        return tete >= this.queueConnue;
+    }
+
+    /**
+     * Retourne la position de la première entrée dans le tableau des entrées (file non vide).
+     * @return La position de l'entrée.
+     */
+    private int getDebut() { return (int)(this.tete.get() & (CAPACITE - 1)) * TAILLE_ENTREE; }
+
+    // Contenu de la première entrée (file non vide)
+    public int     getType   () { return this.tabEntrees[this.getDebut()];                                }
+    public int     getCoup   () { return this.tabEntrees[this.getDebut() + 1];                            }
+    public Couleur getCouleur() { return Couleur.fromInt(this.tabEntrees[this.getDebut() + 1]);          }
+    public int     getNumTour() { return this.tabEntrees[this.getDebut() + 2 + 64];                       }
+    public long    getInstant() { return this.tabInstants[this.getDebut() / TAILLE_ENTREE];              }
+
+    /**
+     * Lit la position de la première entrée (de type {@link #POSITION}).
+     * @param disposition Numéro de la pièce (0 si vide) de chaque case, indexé par [lig][col], rempli par la méthode
+     * @return Le trait de la position.
+     */
+    public Couleur getPosition(int[][] disposition)
+    {
+        int debut = this.getDebut();
+        for(int numCase = 0; numCase < 64; numCase++)
+            disposition[numCase >>> 3][numCase & 7] = this.tabEntrees[debut + 2 + numCase];
+
+        return Couleur.fromInt(this.tabEntrees[debut + 1]);
+    }
+
+    /**
+     * Passe à l'entrée suivante : la première entrée peut être réutilisée par le producteur.
+     */
+    public void suivant()
+    {
+        this.tete.lazySet(this.tete.get() + 1);
+    }
+}
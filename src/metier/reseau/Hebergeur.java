@@ -0,0 +1,54 @@
+package metier.reseau;
+
+import java.io.IOException;
+
+/**
+ * L'interface {@code Hebergeur} représente un serveur qui héberge un grand nombre
+ * de parties en réseau sur un même port : les connexions sont associées deux par deux,
+ * dans leur ordre d'arrivée, en parties (le premier joueur d'une partie a les blancs,
+ * le second les noirs) et le serveur relaie les coups de chaque joueur à son adversaire.
+ *
+ * Le protocole est celui de {@link Serveur} et {@link Client} ({@link Protocole}) :
+ * le serveur envoie sa poignée de main à chaque connexion, puis le message
+ * {@link Protocole#COULEUR} qui indique à chaque joueur sa couleur lorsque son
+ * adversaire est connecté.
+ * Les coups sont vérifiés par le serveur (voir {@link metier.Partie}) : un coup invalide,
+ * ou joué hors de son tour, n'est pas relayé et le joueur reçoit la position du serveur.
+ *
+ * @author Ted Herambert
+ * @date 23/11/2024
+ * @version 1.0
+ */
+public interface Hebergeur
+{
+    /**
+     * Ouvre le port d'écoute et démarre les threads du serveur.
+     * @throws IOException Si le port ne peut pas être ouvert.
+     */
+    public void demarrer() throws IOException;
+
+    /**
+     * Ferme le serveur : le port d'écoute et toutes les connexions.
+     */
+    public void close();
+
+    /**
+     * @return Le port d'écoute (connu après {@link #demarrer()} si le port demandé était 0).
+     */
+    public int getPort();
+
+    /**
+     * @return Le nombre de connexions ouvertes.
+     */
+    public int getNbConnexions();
+
+    /**
+     * @return Le nombre de parties dont les deux joueurs sont connectés.
+     */
+    public int getNbPartiesEnCours();
+
+    /**
+     * @return Le nombre de coups relayés depuis le démarrage.
+     */
+    public long getNbCoupsRelayes();
+}
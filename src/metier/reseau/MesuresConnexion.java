@@ -0,0 +1,170 @@
+package metier.reseau;
+
+import java.util.Arrays;
+
+/**
+ * La classe {@code MesuresConnexion} mesure la santé d'une connexion entre deux
+ * joueurs, pour diagnostiquer les parties en réseau qui "rament" :
+ * <ul>
+ *   <li>temps d'aller-retour (RTT) d'un ping : minimum, moyenne et 99e centile
+ *       des {@value #NB_RTT} derniers pings ;</li>
+ *   <li>débits en octets et en messages par seconde, dans chaque sens ;</li>
+ *   <li>délai entre la réception d'un coup et son affichage à l'écran.</li>
+ * </ul>
+ * Les instants sont ceux de l'horloge monotone ({@code System.nanoTime}) ; les
+ * durées sont retournées en microsecondes.
+ *
+ * Un ping est envoyé et les débits sont calculés une fois par seconde, depuis la
+ * boucle de jeu (voir {@link #actualiser(long, Protocole)}). Les RTT sont enregistrés
+ * par le thread de la connexion et lus par l'interface : ils sont protégés par
+ * {@code synchronized} (une opération par seconde).
+ *
+ * @author Ted Herambert
+ * @date 23/11/2024
+ * @version 1.0
+ */
+public class MesuresConnexion
+{
+    // Intervalle entre deux pings (et deux calculs des débits), en nanosecondes
+    private static final long INTERVALLE = 1_000_000_000L;
+
+    // Nombre de pings conservés pour le calcul du 99e centile
+    public static final int NB_RTT = 128;
+
+    // Temps d'aller-retour, en microsecondes
+    private long[] tabRtt;   // Derniers RTT (tampon circulaire)
+    private long[] tabTri;   // Copie triée des derniers RTT
+    private long   nbRtt;    // Nombre de RTT depuis le début de la connexion
+    private long   sommeRtt;
+    private long   rttMin;
+
+    // Débits, calculés une fois par seconde
+    private volatile double octetsRecusParSeconde;
+    private volatile double octetsEnvoyesParSeconde;
+    private volatile double messagesRecusParSeconde;
+    private volatile double messagesEnvoyesParSeconde;
+
+    // Compteurs du protocole lors du dernier calcul (boucle de jeu seulement)
+    private long instantMesure;
+    private long nbOctetsRecus;
+    private long nbOctetsEnvoyes;
+    private long nbMessagesRecus;
+    private long nbMessagesEnvoyes;
+
+    // Délai entre la réception d'un coup et son affichage, en microsecondes
+    private volatile long instantCoupRecu; // Réception du dernier coup appliqué, pas encore affiché (0 si aucun)
+    private volatile long delaiAffichage;  // Dernier délai mesuré
+    private volatile long delaiAffichageMax;
+    private volatile long sommeDelaisAffichage;
+    private volatile long nbAffichages;
+
+    /**
+     * Constructeur des mesures, sans mesure.
+     */
+    public MesuresConnexion()
+    {
+        this.tabRtt = new long[NB_RTT];
+        this.tabTri = new long[NB_RTT];
+        this.rttMin = Long.MAX_VALUE;
+    }
+
+    // Getters
+    public double getOctetsRecusParSeconde    () { return this.octetsRecusParSeconde;     }
+    public double getOctetsEnvoyesParSeconde  () { return this.octetsEnvoyesParSeconde;   }
+    public double getMessagesRecusParSeconde  () { return this.messagesRecusParSeconde;   }
+    public double getMessagesEnvoyesParSeconde() { return this.messagesEnvoyesParSeconde; }
+    public long   getDelaiAffichage           () { return this.delaiAffichage;            }
+    public long   getDelaiAffichageMax        () { return this.delaiAffichageMax;         }
+    public long   getNbAffichages             () { return this.nbAffichages;              }
+
+    public synchronized long getNbRtt  () { return this.nbRtt;                                       }
+    public synchronized long getRttMin () { return this.nbRtt == 0 ? 0 : this.rttMin;                }
+    public synchronized long getRttMoyen() { return this.nbRtt == 0 ? 0 : this.sommeRtt / this.nbRtt; }
+
+    /**
+     * Retourne le délai moyen entre la réception d'un coup et son affichage.
+     * @return Le délai moyen, en microsecondes (0 si aucun coup affiché).
+     */
+    public long getDelaiAffichageMoyen() { return this.sommeDelaisAffichage / Math.max(1, this.nbAffichages); }
+
+    /**
+     * Retourne le 99e centile des derniers temps d'aller-retour.
+     * @return Le RTT, en microsecondes (0 si aucun ping).
+     */
+    public synchronized long getRttP99()
+    {
+        int nb = (int) Math.min(this.nbRtt, NB_RTT);
+        if(nb == 0) return 0;
+
+        System.arraycopy(this.tabRtt, 0, this.tabTri, 0, nb);
+        Arrays.sort(this.tabTri, 0, nb);
+        return this.tabTri[Math.min(nb - 1, (int)(nb * 0.99))];
+    }
+
+    /**
+     * Enregistre le temps d'aller-retour d'un ping (réception du PONG).
+     * @param instantPing L'instant d'envoi du ping, renvoyé dans le PONG
+     * @param maintenant  L'instant de réception du PONG
+     */
+    public synchronized void enregistrerRtt(long instantPing, long maintenant)
+    {
+        long rtt = (maintenant - instantPing) / 1000;
+        if(rtt < 0) return;
+
+        this.tabRtt[(int)(this.nbRtt % NB_RTT)] = rtt;
+        this.nbRtt++;
+        this.sommeRtt += rtt;
+        this.rttMin    = Math.min(this.rttMin, rtt);
+    }
+
+    /**
+     * Calcule les débits, une fois par seconde. Appelée à chaque image par la boucle de jeu.
+     * @param maintenant L'instant courant
+     * @param protocole  Le protocole de la connexion (compteurs d'octets et de messages)
+     * @return {@code true} si une seconde s'est écoulée : un ping doit être envoyé.
+     */
+    public boolean actualiser(long maintenant, Protocole protocole)
+    {
+        if(this.instantMesure != 0 && maintenant - this.instantMesure < INTERVALLE) return false;
+
+        if(this.instantMesure != 0)
+        {
+            double duree = (maintenant - this.instantMesure) / 1e9;
+            this.octetsRecusParSeconde     = (protocole.getNbOctetsRecus    () - this.nbOctetsRecus    ) / duree;
+            this.octetsEnvoyesParSeconde   = (protocole.getNbOctetsEnvoyes  () - this.nbOctetsEnvoyes  ) / duree;
+            this.messagesRecusParSeconde   = (protocole.getNbMessagesRecus  () - this.nbMessagesRecus  ) / duree;
+            this.messagesEnvoyesParSeconde = (protocole.getNbMessagesEnvoyes() - this.nbMessagesEnvoyes) / duree;
+        }
+
+        this.instantMesure     = maintenant;
+        this.nbOctetsRecus     = protocole.getNbOctetsRecus    ();
+        this.nbOctetsEnvoyes   = protocole.getNbOctetsEnvoyes  ();
+        this.nbMessagesRecus   = protocole.getNbMessagesRecus  ();
+        this.nbMessagesEnvoyes = protocole.getNbMessagesEnvoyes();
+        return true;
+    }
+
+    /**
+     * Indique qu'un coup reçu vient d'être appliqué à l'échiquier (boucle de jeu).
+     * @param instantReception L'instant de réception du coup
+     */
+    public void coupApplique(long instantReception) { this.instantCoupRecu = instantReception; }
+
+    /**
+     * Indique que l'échiquier vient d'être dessiné : le dernier coup appliqué, s'il n'a
+     * pas encore été mesuré, est affiché. Appelée par l'interface.
+     * @param maintenant L'instant du dessin
+     */
+    public void echiquierAffiche(long maintenant)
+    {
+        long instantCoupRecu = this.instantCoupRecu;
+        if(instantCoupRecu == 0) return;
+        this.instantCoupRecu = 0;
+
+        long delai = (maintenant - instantCoupRecu) / 1000;
+        this.delaiAffichage        = delai;
+        this.delaiAffichageMax     = Math.max(this.delaiAffichageMax, delai);
+        this.sommeDelaisAffichage += delai;
+        this.nbAffichages++;
+    }
+}
@@ -0,0 +1,562 @@
+package metier.reseau;
+
+import constants.Couleur;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.ReentrantLock;
+import metier.Coup;
+import metier.Instantane;
+
+/**
+ * La classe {@code Protocole} définit le protocole binaire des parties en réseau
+ * et lit/écrit ses messages sur une connexion.
+ *
+ * Chaque message est précédé de sa longueur : un octet de longueur n (1 à 255), puis
+ * n octets, dont le premier est le type du message et les suivants son contenu
+ * (entiers en big-endian) :
+ * <ul>
+ *   <li>{@link #BONJOUR} : octet magique et version du protocole, envoyé par chaque
+ *       côté à l'ouverture de la connexion (voir {@link #saluer()}) ;</li>
+ *   <li>{@link #COUP} : coup joué, codé sur 16 bits (voir {@link Coup}), 4 octets en tout ;</li>
+ *   <li>{@link #ABANDON} : le joueur abandonne la partie ;</li>
+ *   <li>{@link #PENDULE} : temps restant des blancs puis des noirs, en millisecondes ;</li>
+ *   <li>{@link #PING} / {@link #PONG} : instant d'envoi (horloge monotone de l'émetteur,
+ *       {@code System.nanoTime}), renvoyé tel quel dans la réponse ;</li>
+ *   <li>{@link #RESYNC} : sans contenu, demande de la position ; sinon, la position
+ *       (une case par demi-octet, trait et numéro du tour) ;</li>
+ *   <li>{@link #COULEUR} : couleur attribuée au joueur par un serveur de parties.</li>
+ * </ul>
+ * Un message d'un type inconnu est ignoré : une version ultérieure peut en ajouter
+ * sans changer de version.
+ *
+ * Les méthodes statiques encodent et décodent les messages dans des {@link ByteBuffer}
+ * fournis par l'appelant (utilisées directement par le serveur {@code java.nio}) ;
+ * une instance lit et écrit les messages d'une connexion bloquante, avec deux tampons
+ * réutilisés : aucun objet n'est alloué par message.
+ *
+ * @author Ted Herambert
+ * @date 23/11/2024
+ * @version 1.0
+ */
+public class Protocole
+{
+    // Version du protocole, vérifiée à l'ouverture de la connexion
+    public static final int VERSION = 1;
+
+    // Premier octet du message BONJOUR (identifie le jeu)
+    private static final int MAGIQUE = 0xEC;
+
+    // Types de messages
+    public static final int BONJOUR = 0;
+    public static final int COUP    = 1;
+    public static final int ABANDON = 2;
+    public static final int PENDULE = 3;
+    public static final int PING    = 4;
+    public static final int PONG    = 5;
+    public static final int RESYNC  = 6;
+    public static final int COULEUR = 7;
+
+    // Valeur retournée par lireMessage() quand la connexion est fermée
+    public static final int FIN = -1;
+
+    // Taille maximale d'un message, octet de longueur compris
+    public static final int TAILLE_MAX = 256;
+
+    // Taille du contenu d'un message RESYNC contenant une position
+    private static final int TAILLE_POSITION = 32 + 1 + 2;
+
+    // Taille minimale du contenu de chaque type de message connu, en octets
+    private static final int[] TAB_TAILLES_CONTENU = { 2, 2, 0, 8, 8, 8, 0, 1 };
+
+    // Flux de la connexion
+    private InputStream  in;
+    private OutputStream out;
+
+    // Tampons réutilisés : la lecture est en mode lecture (messages reçus entre position
+    // et limite, position au début du dernier message lu), l'écriture en mode écriture
+    private ByteBuffer lecture;
+    private ByteBuffer ecriture;
+    private int        longueurDernier; // Taille du dernier message lu, consommé à la lecture suivante
+
+    // Les messages peuvent être envoyés par plusieurs threads (verrou plutôt que synchronized,
+    // qui bloquerait le thread porteur d'un thread virtuel pendant l'écriture, voir ServeurThreads)
+    private ReentrantLock verrouEcriture;
+
+    // Compteurs (voir MesuresConnexion) : chacun n'est modifié que par un thread à la fois
+    // (le thread de lecture, ou celui qui tient le verrou d'écriture)
+    private volatile long nbOctetsRecus;
+    private volatile long nbMessagesRecus;
+    private volatile long nbOctetsEnvoyes;
+    private volatile long nbMessagesEnvoyes;
+
+    /**
+     * Constructeur du protocole d'une connexion.
+     * @param in  Le flux d'entrée de la connexion
+     * @param out Le flux de sortie de la connexion (sans tampon : chaque message est écrit en une fois)
+     */
+    public Protocole(InputStream in, OutputStream out)
+    {
+        this.in       = in;
+        this.out      = out;
+        this.lecture  = ByteBuffer.allocate(4 * TAILLE_MAX);
+        this.ecriture = ByteBuffer.allocate(TAILLE_MAX);
+        this.lecture.limit(0);
+
+        this.verrouEcriture = new ReentrantLock();
+    }
+
+    // Getters
+    public long getNbOctetsRecus    () { return this.nbOctetsRecus;     }
+    public long getNbMessagesRecus  () { return this.nbMessagesRecus;   }
+    public long getNbOctetsEnvoyes  () { return this.nbOctetsEnvoyes;   }
+    public long getNbMessagesEnvoyes() { return this.nbMessagesEnvoyes; }
+
+    /* ======================= */
+    /* Connexion bloquante     */
+    /* ======================= */
+
+    /**
+     * Poignée de main : envoie le message BONJOUR et vérifie celui de l'autre côté.
+     * @throws IOException Si la connexion est fermée ou si l'autre côté n'utilise pas
+     *                     le même protocole (ou pas la même version).
+     */
+    public void saluer() throws IOException
+    {
+        this.envoyerBonjour();
+        this.verifierBonjour();
+    }
+
+    /**
+     * Envoie le message BONJOUR (première moitié de la poignée de main).
+     * @throws IOException Si la connexion est en erreur.
+     */
+    public void envoyerBonjour() throws IOException
+    {
+        this.verrouEcriture.lock();
+        try
+        {
+            Protocole.ecrireBonjour(this.ecriture);
+            this.envoyer();
+        }
+        finally
+        {
+            this.verrouEcriture.unlock();
+        }
+    }
+
+    /**
+     * Attend le message BONJOUR de l'autre côté (seconde moitié de la poignée de main).
+     * @throws IOException Si la connexion est fermée ou si l'autre côté n'utilise pas
+     *                     le même protocole (ou pas la même version).
+     */
+    public void verifierBonjour() throws IOException
+    {
+        if(this.lireMessage() != BONJOUR || !Protocole.estCompatible(this.lecture))
+            throw new IOException("Protocole incompatible (version " + VERSION + " attendue)");
+    }
+
+    /**
+     * Attend le message suivant. Son contenu se lit ensuite avec les méthodes statiques
+     * de décodage appliquées à {@link #getMessage()}, jusqu'à l'appel suivant.
+     * @return Le type du message, {@link #FIN} si la connexion est fermée.
+     * @throws IOException Si la connexion est en erreur ou si un message est invalide.
+     */
+    public int lireMessage() throws IOException
+    {
+        this.lecture.position(this.lecture.position() + this.longueurDernier);
+        this.longueurDernier = 0;
+
+        while(Protocole.getType(this.lecture) < 0)
+        {
+            if(this.lecture.remaining() > 0 && this.lecture.get(this.lecture.position()) == 0)
+                throw new IOException("Message vide reçu");
+
+            this.lecture.compact();
+            int nbOctets = this.in.read(this.lecture.array(), this.lecture.position(), this.lecture.remaining());
+            if(nbOctets < 0) return FIN;
+            this.lecture.position(this.lecture.position() + nbOctets);
+            this.lecture.flip();
+        }
+
+        this.longueurDernier = Protocole.getLongueur(this.lecture);
+        if(!Protocole.estBienForme(this.lecture))
+            throw new IOException("Message invalide reçu (type " + Protocole.getType(this.lecture) + ")");
+
+        this.nbOctetsRecus  += this.longueurDernier;
+        this.nbMessagesRecus++;
+        return Protocole.getType(this.lecture);
+    }
+
+    /**
+     * Retourne le tampon du dernier message lu, positionné au début du message.
+     * Le tampon ne doit pas être modifié.
+     * @return Le tampon de lecture.
+     */
+    public ByteBuffer getMessage() { return this.lecture; }
+
+    /**
+     * Envoie un coup.
+     * @param coup Le coup, codé sur 16 bits (voir {@link Coup})
+     * @throws IOException Si la connexion est en erreur.
+     */
+    public void envoyerCoup(int coup) throws IOException
+    {
+        this.verrouEcriture.lock();
+        try
+        {
+            Protocole.ecrireCoup(this.ecriture, coup);
+            this.envoyer();
+        }
+        finally
+        {
+            this.verrouEcriture.unlock();
+        }
+    }
+
+    /**
+     * Envoie la couleur attribuée au joueur (serveur de parties).
+     * @param couleur La couleur
+     * @throws IOException Si la connexion est en erreur.
+     */
+    public void envoyerCouleur(Couleur couleur) throws IOException
+    {
+        this.verrouEcriture.lock();
+        try
+        {
+            Protocole.ecrireCouleur(this.ecriture, couleur);
+            this.envoyer();
+        }
+        finally
+        {
+            this.verrouEcriture.unlock();
+        }
+    }
+
+    /**
+     * Envoie l'abandon du joueur.
+     * @throws IOException Si la connexion est en erreur.
+     */
+    public void envoyerAbandon() throws IOException
+    {
+        this.verrouEcriture.lock();
+        try
+        {
+            Protocole.ecrireAbandon(this.ecriture);
+            this.envoyer();
+        }
+        finally
+        {
+            this.verrouEcriture.unlock();
+        }
+    }
+
+    /**
+     * Envoie le temps restant des deux joueurs.
+     * @param msBlancs Temps restant des blancs, en millisecondes
+     * @param msNoirs  Temps restant des noirs, en millisecondes
+     * @throws IOException Si la connexion est en erreur.
+     */
+    public void envoyerPendule(int msBlancs, int msNoirs) throws IOException
+    {
+        this.verrouEcriture.lock();
+        try
+        {
+            Protocole.ecrirePendule(this.ecriture, msBlancs, msNoirs);
+            this.envoyer();
+        }
+        finally
+        {
+            this.verrouEcriture.unlock();
+        }
+    }
+
+    /**
+     * Envoie un ping ou la réponse à un ping.
+     * @param type    {@link #PING} ou {@link #PONG}
+     * @param instant L'instant d'envoi du ping (System.nanoTime de son émetteur)
+     * @throws IOException Si la connexion est en erreur.
+     */
+    public void envoyerPing(int type, long instant) throws IOException
+    {
+        this.verrouEcriture.lock();
+        try
+        {
+            Protocole.ecrirePing(this.ecriture, type, instant);
+            this.envoyer();
+        }
+        finally
+        {
+            this.verrouEcriture.unlock();
+        }
+    }
+
+    /**
+     * Envoie une demande de position.
+     * @throws IOException Si la connexion est en erreur.
+     */
+    public void envoyerDemandeResync() throws IOException
+    {
+        this.verrouEcriture.lock();
+        try
+        {
+            Protocole.ecrireDemandeResync(this.ecriture);
+            this.envoyer();
+        }
+        finally
+        {
+            this.verrouEcriture.unlock();
+        }
+    }
+
+    /**
+     * Envoie une position.
+     * @param instantane La position
+     * @throws IOException Si la connexion est en erreur.
+     */
+    public void envoyerPosition(Instantane instantane) throws IOException
+    {
+        this.verrouEcriture.lock();
+        try
+        {
+            Protocole.ecrirePosition(this.ecriture, instantane);
+            this.envoyer();
+        }
+        finally
+        {
+            this.verrouEcriture.unlock();
+        }
+    }
+
+    /**
+     * Envoie le message écrit dans le tampon d'écriture, puis vide le tampon.
+     * Appelée avec le verrou d'écriture.
+     * @throws IOException Si la connexion est en erreur.
+     */
+    private void envoyer() throws IOException
+    {
+        try
+        {
+            this.out.write(this.ecriture.array(), 0, this.ecriture.position());
+            this.out.flush();
+            this.nbOctetsEnvoyes  += this.ecriture.position();
+            this.nbMessagesEnvoyes++;
+        }
+        finally
+        {
+            this.ecriture.clear();
+        }
+    }
+
+    /* ======================= */
+    /* Encodage                */
+    /* ======================= */
+
+    /**
+     * Écrit l'en-tête d'un message (tampon en mode écriture).
+     * @param tampon        Le tampon
+     * @param type          Le type du message
+     * @param tailleContenu La taille du contenu, en octets
+     */
+    private static void ecrireEntete(ByteBuffer tampon, int type, int tailleContenu)
+    {
+        tampon.put((byte)(1 + tailleContenu));
+        tampon.put((byte) type);
+    }
+
+    /**
+     * Écrit un message BONJOUR (octet magique et version).
+     * @param tampon Le tampon (mode écriture)
+     */
+    public static void ecrireBonjour(ByteBuffer tampon)
+    {
+        Protocole.ecrireEntete(tampon, BONJOUR, 2);
+        tampon.put((byte) MAGIQUE);
+        tampon.put((byte) VERSION);
+    }
+
+    /**
+     * Écrit un message COUP.
+     * @param tampon Le tampon (mode écriture)
+     * @param coup   Le coup, codé sur 16 bits (voir {@link Coup})
+     */
+    public static void ecrireCoup(ByteBuffer tampon, int coup)
+    {
+        Protocole.ecrireEntete(tampon, COUP, 2);
+        tampon.putShort((short) coup);
+    }
+
+    /**
+     * Écrit un message ABANDON.
+     * @param tampon Le tampon (mode écriture)
+     */
+    public static void ecrireAbandon(ByteBuffer tampon)
+    {
+        Protocole.ecrireEntete(tampon, ABANDON, 0);
+    }
+
+    /**
+     * Écrit un message PENDULE.
+     * @param tampon   Le tampon (mode écriture)
+     * @param msBlancs Temps restant des blancs, en millisecondes
+     * @param msNoirs  Temps restant des noirs, en millisecondes
+     */
+    public static void ecrirePendule(ByteBuffer tampon, int msBlancs, int msNoirs)
+    {
+        Protocole.ecrireEntete(tampon, PENDULE, 8);
+        tampon.putInt(msBlancs);
+        tampon.putInt(msNoirs);
+    }
+
+    /**
+     * Écrit un message PING ou PONG.
+     * @param tampon  Le tampon (mode écriture)
+     * @param type    {@link #PING} ou {@link #PONG}
+     * @param instant L'instant d'envoi du ping (System.nanoTime de son émetteur)
+     */
+    public static void ecrirePing(ByteBuffer tampon, int type, long instant)
+    {
+        Protocole.ecrireEntete(tampon, type, 8);
+        tampon.putLong(instant);
+    }
+
+    /**
+     * Écrit un message RESYNC sans contenu (demande de la position).
+     * @param tampon Le tampon (mode écriture)
+     */
+    public static void ecrireDemandeResync(ByteBuffer tampon)
+    {
+        Protocole.ecrireEntete(tampon, RESYNC, 0);
+    }
+
+    /**
+     * Écrit un message COULEUR.
+     * @param tampon  Le tampon (mode écriture)
+     * @param couleur La couleur attribuée au joueur
+     */
+    public static void ecrireCouleur(ByteBuffer tampon, Couleur couleur)
+    {
+        Protocole.ecrireEntete(tampon, COULEUR, 1);
+        tampon.put((byte) couleur.getValeur());
+    }
+
+    /**
+     * Écrit un message RESYNC contenant une position : deux cases par octet, trait, numéro du tour.
+     * @param tampon     Le tampon
+     * @param instantane La position
+     */
+    public static void ecrirePosition(ByteBuffer tampon, Instantane instantane)
+    {
+        Protocole.ecrireEntete(tampon, RESYNC, TAILLE_POSITION);
+        for(int numCase = 0; numCase < 64; numCase += 2)
+            tampon.put((byte)(instantane.getNumPiece(numCase) << 4 | instantane.getNumPiece(numCase + 1)));
+        tampon.put((byte) instantane.getJoueurActif().getValeur());
+        tampon.putShort((short) instantane.getNumTour());
+    }
+
+    /* ======================= */
+    /* Décodage                */
+    /* ======================= */
+
+    /**
+     * Retourne le type du message qui commence à la position du tampon (mode lecture).
+     * @param tampon Le tampon
+     * @return Le type, -1 si le message n'est pas encore complet (ou si sa longueur est nulle).
+     */
+    public static int getType(ByteBuffer tampon)
+    {
+        if(tampon.remaining() < 2) return -1;
+
+        int longueur = tampon.get(tampon.position()) & 0xFF;
+        if(longueur == 0 || tampon.remaining() < 1 + longueur) return -1;
+
+        return tampon.get(tampon.position() + 1) & 0xFF;
+    }
+
+    /**
+     * Vérifie que le contenu d'un message complet est assez long pour son type
+     * (un message d'un type inconnu est toujours bien formé).
+     * @param tampon Le tampon, positionné au début du message
+     * @return {@code true} si le message peut être décodé.
+     */
+    public static boolean estBienForme(ByteBuffer tampon)
+    {
+        int type = Protocole.getType(tampon);
+        return type >= 0 && (type >= TAB_TAILLES_CONTENU.length || Protocole.getTailleContenu(tampon) >= TAB_TAILLES_CONTENU[type]);
+    }
+
+    /**
+     * Retourne la taille du message complet qui commence à la position du tampon.
+     * @param tampon Le tampon
+     * @return La taille, octet de longueur compris.
+     */
+    public static int getLongueur(ByteBuffer tampon) { return 1 + (tampon.get(tampon.position()) & 0xFF); }
+
+    /**
+     * Retourne la taille du contenu du message qui commence à la position du tampon.
+     * @param tampon Le tampon
+     * @return La taille du contenu, en octets.
+     */
+    public static int getTailleContenu(ByteBuffer tampon) { return (tampon.get(tampon.position()) & 0xFF) - 1; }
+
+    /**
+     * Passe le message qui commence à la position du tampon.
+     * @param tampon Le tampon
+     */
+    public static void passer(ByteBuffer tampon) { tampon.position(tampon.position() + Protocole.getLongueur(tampon)); }
+
+    /**
+     * Vérifie qu'un message BONJOUR vient du même jeu, avec la même version du protocole.
+     * @param tampon Le tampon, positionné au début du message
+     * @return {@code true} si le protocole est compatible.
+     */
+    public static boolean estCompatible(ByteBuffer tampon)
+    {
+        return Protocole.getTailleContenu(tampon) >= 2
+            && (tampon.get(tampon.position() + 2) & 0xFF) == MAGIQUE
+            && (tampon.get(tampon.position() + 3) & 0xFF) == VERSION;
+    }
+
+    // Contenu des messages COUP, PING/PONG, COULEUR et RESYNC (tampon positionné au début du message)
+    public static int     getCoup         (ByteBuffer tampon) { return tampon.getShort(tampon.position() + 2) & 0xFFFF;             }
+    public static long    getInstant      (ByteBuffer tampon) { return tampon.getLong (tampon.position() + 2);                      }
+    public static Couleur getCouleur      (ByteBuffer tampon) { return Couleur.fromInt(tampon.get(tampon.position() + 2) & 1);      }
+    public static boolean estDemandeResync(ByteBuffer tampon) { return Protocole.getTailleContenu(tampon) < TAILLE_POSITION;        }
+
+    /**
+     * Retourne le temps restant d'un joueur d'un message PENDULE.
+     * @param tampon  Le tampon
+     * @param couleur La couleur du joueur
+     * @return Le temps restant, en millisecondes.
+     */
+    public static int getTemps(ByteBuffer tampon, Couleur couleur)
+    {
+        return tampon.getInt(tampon.position() + 2 + 4 * couleur.getValeur());
+    }
+
+    /**
+     * Lit la position d'un message RESYNC.
+     * @param tampon      Le tampon
+     * @param disposition Numéro de la pièce (0 si vide) de chaque case, indexé par [lig][col], rempli par la méthode
+     * @return Le trait de la position.
+     */
+    public static Couleur getPosition(ByteBuffer tampon, int[][] disposition)
+    {
+        int debut = tampon.position() + 2;
+        for(int numCase = 0; numCase < 64; numCase++)
+        {
+            int octet = tampon.get(debut + numCase / 2);
+            disposition[numCase >>> 3][numCase & 7] = (numCase % 2 == 0 ? octet >>> 4 : octet) & 0xF;
+        }
+
+        return Couleur.fromInt(tampon.get(debut + 32) & 1);
+    }
+
+    /**
+     * Retourne le numéro du tour d'un message RESYNC contenant une position.
+     * @param tampon Le tampon
+     * @return Le numéro du tour.
+     */
+    public static int getNumTour(ByteBuffer tampon) { return tampon.getShort(tampon.position() + 2 + 33) & 0xFFFF; }
+}
@@ -1,13 +1,12 @@
 package metier.reseau;
 
-import java.io.BufferedReader;
+import constants.Couleur;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.PrintWriter;
 import java.net.ServerSocket;
+import java.nio.ByteBuffer;
 import java.net.Socket;
 import java.net.UnknownHostException;
-import java.util.Scanner;
+import metier.Coup;
 import metier.Echiquier;
 
 /**
@@ -29,11 +28,15 @@ public class Serveur implements Runnable
     private int          port;
     private ServerSocket serverSocket;
     private Socket       toClient;
-    private String       action; // déplacement effectué au format : ligOrig,colOrig,ligDest,ColDest
 
-    // Flux d'entrée et de sortie pour communiquer avec le client
-    private BufferedReader in;
-    private PrintWriter    out;
+    // Messages échangés avec le client (voir Protocole)
+    private Protocole        protocole;
+    private volatile boolean connexionOuverte; // Poignée de main faite, connexion pas encore fermée
+    private FileReception    fileReception;    // Messages qui modifient l'échiquier, appliqués par le thread de jeu
+    private MesuresConnexion mesures;          // Santé de la connexion (ping, débits, délai d'affichage)
+
+    // Dernier temps restant reçu de chaque joueur (message PENDULE), en millisecondes
+    private int[]        tabTemps;
 
     /**
      * Constructeur du serveur.
@@ -42,14 +45,30 @@ public class Serveur implements Runnable
      */
     public Serveur(Echiquier echiquier, int port)
     {
-        this.echiquier = echiquier;
-        this.port      = port;
-        this.action    = null;
+        this.echiquier     = echiquier;
+        this.port          = port;
+        this.mesures       = new MesuresConnexion();
+        this.fileReception = new FileReception();
+        this.tabTemps      = new int[2];
     }
 
+    /**
+     * Retourne le dernier temps restant reçu d'un joueur.
+     * @param couleur La couleur du joueur
+     * @return Le temps restant, en millisecondes (0 si aucun message PENDULE reçu).
+     */
+    public int getTemps(Couleur couleur) { return this.tabTemps[couleur.getValeur()]; }
+
+    /**
+     * Retourne les mesures de la connexion (temps d'aller-retour, débits, délai d'affichage des coups).
+     * @return Les mesures.
+     */
+    public MesuresConnexion getMesures() { return this.mesures; }
+
     /**
      * Méthode exécutée dans un thread pour gérer les connexions et la communication avec le client.
-     * Elle gère la réception des actions du client et met à jour l'échiquier.
+     * Elle gère la réception des actions du client, qui sont appliquées à l'échiquier par le 
+     * thread de jeu (voir {@link #traiterReception()}).
      */
     @Override
     public void run() 
@@ -66,25 +85,16 @@ public class Serveur implements Runnable
 
 			// Par défaut, le joueur est initialisé avec la couleur BLANC
 
-            // Initialisation des flux d'entrée et de sortie pour la communication
-            this.in  = new BufferedReader(new InputStreamReader(this.toClient.getInputStream()));
-            this.out = new PrintWriter(this.toClient.getOutputStream(), true);
+            // Initialisation du protocole et vérification de sa version
+            this.toClient.setTcpNoDelay(true);
+            this.protocole = new Protocole(this.toClient.getInputStream(), this.toClient.getOutputStream());
+            this.protocole.saluer();
+            this.connexionOuverte = true;
             
-			Scanner sc;
-            int ligOrig, colOrig, ligDest, colDest;
-            while((this.action = in.readLine()) != null)
+            int type;
+            while((type = this.protocole.lireMessage()) != Protocole.FIN)
             {
-				// Récupération des données
-                sc = new Scanner(this.action);
-                sc.useDelimiter(",");
-                ligOrig = sc.nextInt();
-                colOrig = sc.nextInt();
-                ligDest = sc.nextInt();
-                colDest = sc.nextInt();
-                sc.close();
-
-                // Déplacement de la pièce sur l'échiquier
-                this.echiquier.deplacer(ligOrig, colOrig, ligDest, colDest);
+                this.traiterMessage(type, this.protocole.getMessage());
             }
         } 
         catch (UnknownHostException e) { 
@@ -93,9 +103,101 @@ public class Serveur implements Runnable
         catch (IOException e)          { 
             e.printStackTrace(); // Erreur d'entrée/sortie
         }
+		this.connexionOuverte = false;
 		this.echiquier.setConnexionEnCours(false);
     }
 
+    /**
+     * Traite un message reçu du client (thread de la connexion) : les messages qui 
+     * modifient l'échiquier sont ajoutés à la file de réception.
+     * @param type    Le type du message (voir {@link Protocole})
+     * @param message Le tampon, positionné au début du message
+     * @throws IOException Si la réponse ne peut pas être envoyée.
+     */
+    private void traiterMessage(int type, ByteBuffer message) throws IOException
+    {
+        switch(type)
+        {
+            case Protocole.COUP :
+                this.fileReception.ajouterCoup(Protocole.getCoup(message), System.nanoTime());
+                break;
+
+            case Protocole.ABANDON :
+                this.fileReception.ajouterAbandon();
+                break;
+
+            case Protocole.PENDULE :
+                this.tabTemps[0] = Protocole.getTemps(message, Couleur.BLANC);
+                this.tabTemps[1] = Protocole.getTemps(message, Couleur.NOIR);
+                break;
+
+            case Protocole.PING :
+                this.protocole.envoyerPing(Protocole.PONG, Protocole.getInstant(message));
+                break;
+
+            case Protocole.PONG :
+                this.mesures.enregistrerRtt(Protocole.getInstant(message), System.nanoTime());
+                break;
+
+            case Protocole.RESYNC :
+                // Seules les demandes sont traitées : la position du serveur fait référence
+                if(Protocole.estDemandeResync(message))
+                    this.protocole.envoyerPosition(this.echiquier.getInstantane());
+                break;
+
+            default :
+                // Message inconnu (version ultérieure) ou sans objet : ignoré
+                break;
+        }
+    }
+
+    /**
+     * Applique à l'échiquier les messages reçus depuis le dernier appel, dans leur ordre 
+     * de réception. Appelée par le thread de jeu ({@code Echiquier.update()}), quand aucune 
+     * pièce n'est en déplacement : un coup appliqué lance son animation, les messages 
+     * suivants attendent donc sa fin.
+     */
+    public void traiterReception()
+    {
+        // Une fois par seconde, tant que la connexion est ouverte : ping (temps d'aller-retour) et calcul des débits
+        long maintenant = System.nanoTime();
+        if(this.connexionOuverte && this.mesures.actualiser(maintenant, this.protocole))
+            this.envoyerPing(maintenant);
+
+        FileReception file = this.fileReception;
+        while(!file.estVide())
+        {
+            Couleur adversaire = Couleur.autreCouleur(this.echiquier.getJoueur());
+            switch(file.getType())
+            {
+                case FileReception.COUP :
+                    // Déplacement de la pièce sur l'échiquier ; après un déplacement invalide (ou joué hors de son tour),
+                    // le client reçoit la position du serveur, qui fait référence
+                    int  coup    = file.getCoup();
+                    long instant = file.getInstant();
+                    file.suivant();
+                    if(this.echiquier.getJoueurActif() == adversaire && this.echiquier.estCoupValide(adversaire, coup))
+                    {
+                        this.echiquier.deplacer(coup);
+                        this.mesures.coupApplique(instant);
+                        return;
+                    }
+
+                    System.out.println("Déplacement invalide reçu : " + Coup.toString(coup));
+                    this.envoyerPosition();
+                    continue;
+
+                case FileReception.ABANDON :
+                    this.echiquier.abandonner(adversaire);
+                    break;
+
+                default :
+                    break;
+            }
+            file.suivant();
+        }
+    }
+
     /**
      * Méthode pour fermer la connexion avec le client et le serveur.
      */
@@ -110,15 +212,65 @@ public class Serveur implements Runnable
     }
 
     /**
-     * Méthode pour envoyer un mouvement de pièce au client.
-     * @param ligOrig Ligne d'origine
-     * @param colOrig Colonne d'origine
-     * @param ligDest Ligne de destination
-     * @param colDest Colonne de destination
+     * Méthode pour envoyer un coup à l'adversaire.
+     * @param coup Le coup joué, codé sur 16 bits (voir {@link Coup})
+     */
+    public void envoyerDeplacement(int coup) 
+    {
+        // Envoi du coup
+        try
+        {
+            this.protocole.envoyerCoup(coup);
+        }
+        catch (IOException e)
+        {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Méthode pour envoyer la position de l'échiquier au client.
+     */
+    private void envoyerPosition() 
+    {
+        try
+        {
+            this.protocole.envoyerPosition(this.echiquier.getInstantane());
+        }
+        catch (IOException e)
+        {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Méthode pour envoyer un ping à l'adversaire.
+     * @param instant L'instant d'envoi (System.nanoTime), renvoyé dans sa réponse
      */
-    public void envoyerDeplacement(int ligOrig, int colOrig, int ligDest, int colDest) 
+    private void envoyerPing(long instant) 
     {
-        // Envoi du mouvement
-        this.out.println("" + ligOrig + "," + colOrig + "," + ligDest + "," + colDest);
+        try
+        {
+            this.protocole.envoyerPing(Protocole.PING, instant);
+        }
+        catch (IOException e)
+        {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Méthode pour envoyer l'abandon du joueur à l'adversaire.
+     */
+    public void envoyerAbandon() 
+    {
+        try
+        {
+            this.protocole.envoyerAbandon();
+        }
+        catch (IOException e)
+        {
+            e.printStackTrace();
+        }
     }
 }
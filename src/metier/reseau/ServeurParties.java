@@ -0,0 +1,522 @@
+package metier.reseau;
+
+import constants.Couleur;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import metier.Coup;
+import metier.Partie;
+
+/**
+ * La classe {@code ServeurParties} est un {@link Hebergeur} dont toutes les
+ * entrées/sorties sont multiplexées avec {@code java.nio} ({@link Selector},
+ * {@link SocketChannel} non bloquants) sur un petit nombre fixe de boucles
+ * d'événements, chacune dans son propre thread, au lieu de bloquer un thread par
+ * connexion comme {@link Serveur}. Les deux joueurs d'une partie sont gérés par la
+ * même boucle : une partie n'est donc jamais modifiée par deux threads.
+ * La première boucle accepte aussi les nouvelles connexions.
+ *
+ * Les messages ({@link Protocole}) sont décodés et encodés directement dans les
+ * tampons de chaque connexion, sans allocation par message.
+ *
+ * @author Ted Herambert
+ * @date 23/11/2024
+ * @version 1.0
+ */
+public class ServeurParties implements Hebergeur
+{
+    // Taille des tampons de lecture et d'écriture de chaque connexion, en octets
+    private static final int TAILLE_TAMPON = 512;
+
+    // Informations pour la gestion du serveur
+    private int                 port;
+    private ServerSocketChannel canalServeur;
+    private Boucle[]            tabBoucles;
+    private Thread[]            tabThreads;
+    private volatile boolean    enCours;
+
+    // Partie dont le premier joueur attend son adversaire (protégée par le verrou du serveur)
+    private Jeu partieEnAttente;
+    private int nbPartiesCreees;
+
+    // Statistiques
+    private AtomicInteger nbConnexions;     // Connexions ouvertes
+    private AtomicInteger nbPartiesEnCours; // Parties dont les deux joueurs sont connectés
+    private AtomicLong    nbCoupsRelayes;   // Coups relayés depuis le démarrage
+
+    /**
+     * Constructeur du serveur.
+     * @param port      Le port sur lequel le serveur écoute les connexions (0 pour un port libre)
+     * @param nbBoucles Le nombre de boucles d'événements (threads)
+     */
+    public ServeurParties(int port, int nbBoucles)
+    {
+        this.port             = port;
+        this.tabBoucles       = new Boucle[Math.max(1, nbBoucles)];
+        this.tabThreads       = new Thread[this.tabBoucles.length];
+        this.nbConnexions     = new AtomicInteger();
+        this.nbPartiesEnCours = new AtomicInteger();
+        this.nbCoupsRelayes   = new AtomicLong();
+    }
+
+    // Getters
+    @Override public int  getPort            () { return this.port;                   }
+    @Override public int  getNbConnexions    () { return this.nbConnexions    .get(); }
+    @Override public int  getNbPartiesEnCours() { return this.nbPartiesEnCours.get(); }
+    @Override public long getNbCoupsRelayes  () { return this.nbCoupsRelayes  .get(); }
+              public int  getNbBoucles       () { return this.tabBoucles.length;      }
+
+    /**
+     * Ouvre le port d'écoute et démarre les boucles d'événements.
+     * @throws IOException Si le port ne peut pas être ouvert.
+     */
+    @Override
+    public void demarrer() throws IOException
+    {
+        this.canalServeur = ServerSocketChannel.open();
+        this.canalServeur.bind(new InetSocketAddress(this.port), 1024);
+        this.canalServeur.configureBlocking(false);
+        this.port    = this.canalServeur.socket().getLocalPort();
+        this.enCours = true;
+
+        for(int i = 0; i < this.tabBoucles.length; i++)
+            this.tabBoucles[i] = new Boucle();
+
+        this.canalServeur.register(this.tabBoucles[0].selecteur, SelectionKey.OP_ACCEPT);
+
+        for(int i = 0; i < this.tabBoucles.length; i++)
+        {
+            this.tabThreads[i] = new Thread(this.tabBoucles[i], "ServeurParties-" + i);
+            this.tabThreads[i].start();
+        }
+    }
+
+    /**
+     * Ferme le serveur : le port d'écoute et toutes les connexions.
+     */
+    @Override
+    public void close()
+    {
+        this.enCours = false;
+        for(Boucle boucle : this.tabBoucles)
+            if(boucle != null) boucle.selecteur.wakeup();
+
+        for(Thread thread : this.tabThreads)
+        {
+            try
+            {
+                if(thread != null) thread.join();
+            }
+            catch(InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        try
+        {
+            if(this.canalServeur != null) this.canalServeur.close();
+        }
+        catch(IOException e)
+        {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Accepte les connexions en attente et les associe en parties.
+     * Appelée par la première boucle.
+     * @throws IOException Si une connexion ne peut pas être configurée.
+     */
+    private void accepter() throws IOException
+    {
+        SocketChannel canal;
+        while((canal = this.canalServeur.accept()) != null)
+        {
+            canal.configureBlocking(false);
+            canal.socket().setTcpNoDelay(true);
+            this.nbConnexions.incrementAndGet();
+            this.apparier(canal);
+        }
+    }
+
+    /**
+     * Associe une connexion à la partie en attente d'un adversaire, ou à une nouvelle partie.
+     * Appelée par la première boucle, et par la boucle d'une partie fermée avant que son
+     * second joueur n'ait été enregistré (voir {@link Boucle#enregistrerNouvelles()}).
+     * @param canal Le canal de la connexion, déjà configuré
+     */
+    private synchronized void apparier(SocketChannel canal)
+    {
+        // Une partie dont le premier joueur est parti entre-temps est abandonnée
+        if(this.partieEnAttente == null || this.partieEnAttente.fermee)
+        {
+            Boucle boucle = this.tabBoucles[this.nbPartiesCreees++ % this.tabBoucles.length];
+            this.partieEnAttente = new Jeu(boucle);
+            boucle.ajouter(new Connexion(canal, this.partieEnAttente, Couleur.BLANC));
+        }
+        else
+        {
+            this.partieEnAttente.boucle.ajouter(new Connexion(canal, this.partieEnAttente, Couleur.NOIR));
+            this.partieEnAttente = null;
+        }
+    }
+
+    /**
+     * Boucle d'événements : multiplexe les entrées/sorties de ses connexions avec un sélecteur.
+     */
+    private class Boucle implements Runnable
+    {
+        private Selector                           selecteur;
+        private ConcurrentLinkedQueue<Connexion>   fileNouvelles; // Connexions à enregistrer
+
+        /**
+         * Constructeur de la boucle.
+         * @throws IOException Si le sélecteur ne peut pas être ouvert.
+         */
+        private Boucle() throws IOException
+        {
+            this.selecteur     = Selector.open();
+            this.fileNouvelles = new ConcurrentLinkedQueue<>();
+        }
+
+        /**
+         * Confie une nouvelle connexion à la boucle (depuis n'importe quel thread).
+         * @param connexion La connexion
+         */
+        private void ajouter(Connexion connexion)
+        {
+            this.fileNouvelles.add(connexion);
+            this.selecteur.wakeup();
+        }
+
+        /**
+         * Méthode exécutée dans le thread de la boucle.
+         */
+        @Override
+        public void run()
+        {
+            try
+            {
+                while(ServeurParties.this.enCours)
+                {
+                    this.selecteur.select();
+                    this.enregistrerNouvelles();
+
+                    Iterator<SelectionKey> it = this.selecteur.selectedKeys().iterator();
+                    while(it.hasNext())
+                    {
+                        SelectionKey cle = it.next();
+                        it.remove();
+
+                        if(!cle.isValid()) continue;
+
+                        if(cle.isAcceptable())
+                        {
+                            try
+                            {
+                                ServeurParties.this.accepter();
+                            }
+                            catch(IOException e)
+                            {
+                                e.printStackTrace();
+                            }
+                            continue;
+                        }
+
+                        Connexion connexion = (Connexion) cle.attachment();
+                        try
+                        {
+                            if(cle.isWritable()) this.vider(connexion);
+                            if(cle.isReadable()) this.lire  (connexion);
+                        }
+                        catch(IOException e)
+                        {
+                            this.fermer(connexion.jeu);
+                        }
+                    }
+                }
+            }
+            catch(IOException e)
+            {
+                e.printStackTrace();
+            }
+
+            // Fermeture de toutes les connexions de la boucle
+            for(SelectionKey cle : this.selecteur.keys())
+                if(cle.attachment() != null) this.fermer(((Connexion) cle.attachment()).jeu);
+
+            try
+            {
+                this.selecteur.close();
+            }
+            catch(IOException e)
+            {
+                e.printStackTrace();
+            }
+        }
+
+        /**
+         * Enregistre les connexions confiées à la boucle et commence les parties complètes.
+         */
+        private void enregistrerNouvelles()
+        {
+            Connexion connexion;
+            while((connexion = this.fileNouvelles.poll()) != null)
+            {
+                Jeu jeu = connexion.jeu;
+
+                // Le premier joueur est parti avant l'arrivée du second : celui-ci attend un autre adversaire
+                if(jeu.fermee)
+                {
+                    ServeurParties.this.apparier(connexion.canal);
+                    continue;
+                }
+
+                jeu.tabJoueurs[connexion.couleur.getValeur()] = connexion;
+
+                try
+                {
+                    connexion.cle = connexion.canal.register(this.selecteur, SelectionKey.OP_READ, connexion);
+                    Protocole.ecrireBonjour(this.getEcriture(connexion));
+                    this.vider(connexion);
+
+                    // Les deux joueurs sont connectés : chacun reçoit sa couleur
+                    if(jeu.tabJoueurs[0] != null && jeu.tabJoueurs[1] != null)
+                    {
+                        ServeurParties.this.nbPartiesEnCours.incrementAndGet();
+                        jeu.partie = new Partie();
+                        for(Connexion joueur : jeu.tabJoueurs)
+                        {
+                            Protocole.ecrireCouleur(this.getEcriture(joueur), joueur.couleur);
+                            this.vider(joueur);
+                        }
+                    }
+                }
+                catch(IOException e)
+                {
+                    this.fermer(jeu);
+                }
+            }
+        }
+
+        /**
+         * Lit les données reçues d'une connexion et traite chaque message complet.
+         * @param connexion La connexion
+         * @throws IOException Si la connexion est fermée ou en erreur, ou si un message est invalide.
+         */
+        private void lire(Connexion connexion) throws IOException
+        {
+            ByteBuffer lecture = connexion.lecture;
+            if(connexion.canal.read(lecture) < 0)
+                throw new IOException("Connexion fermée");
+
+            lecture.flip();
+            int type;
+            while((type = Protocole.getType(lecture)) >= 0)
+            {
+                if(!Protocole.estBienForme(lecture))
+                    throw new IOException("Message invalide");
+
+                // Le premier message doit être la poignée de main, dans la même version du protocole
+                if(!connexion.salue)
+                {
+                    if(type != Protocole.BONJOUR || !Protocole.estCompatible(lecture))
+                        throw new IOException("Protocole incompatible");
+                    connexion.salue = true;
+                }
+                else
+                {
+                    this.traiterMessage(connexion, type, lecture);
+                    if(connexion.jeu.fermee) return;
+                }
+                Protocole.passer(lecture);
+            }
+
+            // Message de longueur nulle : ce n'est pas un client du jeu
+            if(lecture.hasRemaining() && lecture.get(lecture.position()) == 0)
+                throw new IOException("Message vide");
+            lecture.compact();
+        }
+
+        /**
+         * Traite un message reçu : vérifie les coups et les relaie à l'adversaire,
+         * répond aux pings et aux demandes de position.
+         * @param connexion La connexion qui a envoyé le message
+         * @param type      Le type du message
+         * @param message   Le tampon de lecture, positionné au début du message
+         * @throws IOException Si la réponse ne peut pas être envoyée.
+         */
+        private void traiterMessage(Connexion connexion, int type, ByteBuffer message) throws IOException
+        {
+            Jeu       jeu        = connexion.jeu;
+            Connexion adversaire = jeu.tabJoueurs[Couleur.autreCouleur(connexion.couleur).getValeur()];
+
+            switch(type)
+            {
+                case Protocole.COUP :
+                    // Le coup est relayé s'il est valide et joué par le joueur actif d'une partie
+                    // commencée ; sinon, le joueur reçoit la position du serveur
+                    int coup = Protocole.getCoup(message);
+                    if(jeu.partie == null || jeu.partie.getJoueurActif() != connexion.couleur || !jeu.partie.jouer(coup))
+                    {
+                        System.out.println("Déplacement invalide reçu : " + Coup.toString(coup));
+                        this.envoyerPosition(connexion);
+                        return;
+                    }
+
+                    Protocole.ecrireCoup(this.getEcriture(adversaire), coup);
+                    this.vider(adversaire);
+                    ServeurParties.this.nbCoupsRelayes.incrementAndGet();
+                    break;
+
+                case Protocole.ABANDON :
+                    if(jeu.partie == null) return;
+                    jeu.partie.getEchiquier().abandonner(connexion.couleur);
+                    Protocole.ecrireAbandon(this.getEcriture(adversaire));
+                    this.vider(adversaire);
+                    break;
+
+                case Protocole.PENDULE :
+                    if(adversaire == null) return;
+                    Protocole.ecrirePendule(this.getEcriture(adversaire), Protocole.getTemps(message, Couleur.BLANC), Protocole.getTemps(message, Couleur.NOIR));
+                    this.vider(adversaire);
+                    break;
+
+                case Protocole.PING :
+                    Protocole.ecrirePing(this.getEcriture(connexion), Protocole.PONG, Protocole.getInstant(message));
+                    this.vider(connexion);
+                    break;
+
+                case Protocole.RESYNC :
+                    // Seules les demandes sont traitées : la position du serveur fait référence
+                    if(Protocole.estDemandeResync(message)) this.envoyerPosition(connexion);
+                    break;
+
+                default :
+                    // Message inconnu (version ultérieure) ou sans objet : ignoré
+                    break;
+            }
+        }
+
+        /**
+         * Envoie la position de la partie à un joueur (sans effet si la partie n'est pas commencée).
+         * @param connexion La connexion du joueur
+         * @throws IOException Si la position ne peut pas être envoyée.
+         */
+        private void envoyerPosition(Connexion connexion) throws IOException
+        {
+            if(connexion.jeu.partie == null) return;
+
+            Protocole.ecrirePosition(this.getEcriture(connexion), connexion.jeu.partie.getInstantane());
+            this.vider(connexion);
+        }
+
+        /**
+         * Retourne le tampon d'écriture d'une connexion, s'il peut recevoir un message.
+         * @param connexion La connexion
+         * @return Le tampon d'écriture.
+         * @throws IOException Si le tampon d'écriture est plein (client qui ne lit plus).
+         */
+        private ByteBuffer getEcriture(Connexion connexion) throws IOException
+        {
+            if(connexion.ecriture.remaining() < Protocole.TAILLE_MAX)
+                throw new IOException("Tampon d'écriture plein");
+
+            return connexion.ecriture;
+        }
+
+        /**
+         * Envoie le contenu du tampon d'écriture d'une connexion. Ce qui n'a pas pu être
+         * envoyé le sera quand la connexion sera de nouveau prête en écriture.
+         * @param connexion La connexion
+         * @throws IOException Si la connexion est fermée ou en erreur.
+         */
+        private void vider(Connexion connexion) throws IOException
+        {
+            ByteBuffer ecriture = connexion.ecriture;
+            ecriture.flip();
+            connexion.canal.write(ecriture);
+            ecriture.compact();
+
+            if(ecriture.position() > 0) connexion.cle.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            else                        connexion.cle.interestOps(SelectionKey.OP_READ);
+        }
+
+        /**
+         * Ferme une partie et les connexions de ses joueurs.
+         * @param jeu La partie
+         */
+        private void fermer(Jeu jeu)
+        {
+            if(!jeu.fermee && jeu.partie != null)
+                ServeurParties.this.nbPartiesEnCours.decrementAndGet();
+            jeu.fermee = true;
+
+            for(int i = 0; i < 2; i++)
+            {
+                Connexion connexion = jeu.tabJoueurs[i];
+                if(connexion == null) continue;
+                jeu.tabJoueurs[i] = null;
+
+                try
+                {
+                    connexion.canal.close();
+                }
+                catch(IOException e)
+                {
+                    e.printStackTrace();
+                }
+                ServeurParties.this.nbConnexions.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Partie hébergée par le serveur.
+     */
+    private static class Jeu
+    {
+        private Boucle           boucle;     // Boucle qui gère les deux joueurs
+        private Connexion[]      tabJoueurs; // Joueurs, indexés par Couleur.getValeur()
+        private Partie           partie;     // Créée quand les deux joueurs sont connectés
+        private volatile boolean fermee;     // Un joueur s'est déconnecté
+
+        private Jeu(Boucle boucle)
+        {
+            this.boucle     = boucle;
+            this.tabJoueurs = new Connexion[2];
+        }
+    }
+
+    /**
+     * Connexion d'un joueur, avec ses tampons de lecture et d'écriture.
+     */
+    private static class Connexion
+    {
+        private SocketChannel canal;
+        private SelectionKey  cle;
+        private Jeu           jeu;
+        private Couleur       couleur;
+        private ByteBuffer    lecture;
+        private ByteBuffer    ecriture; // En mode écriture (données en attente entre 0 et position)
+        private boolean       salue;    // Poignée de main reçue
+
+        private Connexion(SocketChannel canal, Jeu jeu, Couleur couleur)
+        {
+            this.canal    = canal;
+            this.jeu      = jeu;
+            this.couleur  = couleur;
+            this.lecture  = ByteBuffer.allocate(TAILLE_TAMPON);
+            this.ecriture = ByteBuffer.allocate(TAILLE_TAMPON);
+        }
+    }
+}
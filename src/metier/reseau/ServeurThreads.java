@@ -0,0 +1,427 @@
+package metier.reseau;
+
+import constants.Couleur;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import metier.Coup;
+import metier.Partie;
+
+/**
+ * La classe {@code ServeurThreads} est un {@link Hebergeur} qui garde le style
+ * bloquant de {@link Serveur} et {@link Client} (un thread par connexion, qui lit
+ * les messages avec un {@link Protocole} bloquant), mais dont les threads peuvent être des
+ * threads virtuels (Java 21) : un thread bloqué sur une lecture ne coûte alors que
+ * quelques Ko de mémoire au lieu d'une pile de thread système.
+ *
+ * Le code est compilé pour Java 8 : les threads virtuels sont créés par réflexion
+ * ({@code Executors.newVirtualThreadPerTaskExecutor()}). Sur une JVM qui ne les
+ * propose pas, le serveur utilise des threads système ({@code Executors.newCachedThreadPool()}),
+ * c'est-à-dire l'approche d'un thread par connexion de {@link Serveur}.
+ *
+ * Les coups d'une partie sont vérifiés et relayés sous un verrou {@link ReentrantLock}
+ * (et non un bloc {@code synchronized}, qui bloquerait le thread porteur d'un thread
+ * virtuel pendant l'écriture vers l'adversaire).
+ *
+ * @author Ted Herambert
+ * @date 23/11/2024
+ * @version 1.0
+ */
+public class ServeurThreads implements Hebergeur
+{
+    // Informations pour la gestion du serveur
+    private int              port;
+    private boolean          virtuels;        // Threads virtuels demandés
+    private boolean          threadsVirtuels; // Threads virtuels effectivement utilisés
+    private ServerSocket     serverSocket;
+    private ExecutorService  executeur;
+    private volatile boolean enCours;
+
+    // Connexions ouvertes, fermées avec le serveur
+    private Set<Socket> ensSockets;
+
+    // Statistiques
+    private AtomicInteger nbConnexions;     // Connexions ouvertes
+    private AtomicInteger nbPartiesEnCours; // Parties dont les deux joueurs sont connectés
+    private AtomicLong    nbCoupsRelayes;   // Coups relayés depuis le démarrage
+
+    /**
+     * Constructeur du serveur.
+     * @param port     Le port sur lequel le serveur écoute les connexions (0 pour un port libre)
+     * @param virtuels {@code true} pour des threads virtuels (si la JVM les propose),
+     *                 {@code false} pour des threads système
+     */
+    public ServeurThreads(int port, boolean virtuels)
+    {
+        this.port             = port;
+        this.virtuels         = virtuels;
+        this.ensSockets       = ConcurrentHashMap.newKeySet();
+        this.nbConnexions     = new AtomicInteger();
+        this.nbPartiesEnCours = new AtomicInteger();
+        this.nbCoupsRelayes   = new AtomicLong();
+    }
+
+    // Getters
+    @Override public int     getPort            () { return this.port;                   }
+    @Override public int     getNbConnexions    () { return this.nbConnexions    .get(); }
+    @Override public int     getNbPartiesEnCours() { return this.nbPartiesEnCours.get(); }
+    @Override public long    getNbCoupsRelayes  () { return this.nbCoupsRelayes  .get(); }
+              public boolean estVirtuel         () { return this.threadsVirtuels;        }
+
+    /**
+     * Crée un exécuteur qui lance chaque tâche dans un nouveau thread virtuel.
+     * @return L'exécuteur, {@code null} si la JVM ne propose pas les threads virtuels.
+     */
+    public static ExecutorService creerExecuteurVirtuel()
+    {
+        try
+        {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch(ReflectiveOperationException | UnsupportedOperationException e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Ouvre le port d'écoute et démarre le thread qui accepte les connexions.
+     * @throws IOException Si le port ne peut pas être ouvert.
+     */
+    @Override
+    public void demarrer() throws IOException
+    {
+        this.serverSocket = new ServerSocket(this.port, 1024);
+        this.port         = this.serverSocket.getLocalPort();
+        this.enCours      = true;
+
+        this.executeur       = this.virtuels ? ServeurThreads.creerExecuteurVirtuel() : null;
+        this.threadsVirtuels = this.executeur != null;
+        if(this.executeur == null)
+            this.executeur = Executors.newCachedThreadPool();
+
+        this.executeur.execute(this::accepter);
+    }
+
+    /**
+     * Ferme le serveur : le port d'écoute et toutes les connexions.
+     */
+    @Override
+    public void close()
+    {
+        this.enCours = false;
+        try
+        {
+            if(this.serverSocket != null) this.serverSocket.close();
+        }
+        catch(IOException e)
+        {
+            e.printStackTrace();
+        }
+
+        for(Socket socket : this.ensSockets)
+            this.fermer(socket);
+
+        if(this.executeur != null)
+        {
+            this.executeur.shutdown();
+            try
+            {
+                this.executeur.awaitTermination(5, TimeUnit.SECONDS);
+            }
+            catch(InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Accepte les connexions et les associe en parties. Le thread du premier joueur
+     * d'une partie est lancé dès sa connexion, celui du second quand la partie commence.
+     */
+    private void accepter()
+    {
+        Jeu partieEnAttente = null;
+
+        try
+        {
+            while(this.enCours)
+            {
+                Socket socket = this.serverSocket.accept();
+                this.ensSockets.add(socket);
+                this.nbConnexions.incrementAndGet();
+                try
+                {
+                    socket.setTcpNoDelay(true);
+                }
+                catch(IOException e)
+                {
+                    this.fermer(socket);
+                    continue;
+                }
+
+                // Le second joueur rejoint la partie en attente, si son premier joueur est toujours connecté
+                if(partieEnAttente != null && this.completer(partieEnAttente, socket))
+                {
+                    partieEnAttente = null;
+                    continue;
+                }
+
+                // Nouvelle partie : le thread du premier joueur est lancé dès maintenant, pour
+                // détecter sa déconnexion pendant qu'il attend son adversaire
+                try
+                {
+                    Jeu jeu = new Jeu();
+                    jeu.tabSockets   [Couleur.BLANC.getValeur()] = socket;
+                    jeu.tabProtocoles[Couleur.BLANC.getValeur()] = new Protocole(socket.getInputStream(), socket.getOutputStream());
+                    jeu.tabProtocoles[Couleur.BLANC.getValeur()].envoyerBonjour();
+                    partieEnAttente = jeu;
+                    this.executeur.execute(() -> this.jouer(jeu, Couleur.BLANC));
+                }
+                catch(IOException e)
+                {
+                    this.fermer(socket);
+                    partieEnAttente = null;
+                }
+            }
+        }
+        catch(IOException e)
+        {
+            // Fermeture du serveur
+            if(this.enCours) e.printStackTrace();
+        }
+
+        // Le premier joueur d'une partie incomplète est déconnecté
+        if(partieEnAttente != null)
+            this.fermer(partieEnAttente.tabSockets[Couleur.BLANC.getValeur()]);
+    }
+
+    /**
+     * Ajoute le second joueur à une partie en attente et commence la partie : chaque
+     * joueur reçoit sa couleur avant le lancement du thread du second joueur (un coup
+     * pouvant lui être relayé dès le premier coup de l'adversaire).
+     * @param jeu    La partie en attente
+     * @param socket La connexion du second joueur
+     * @return {@code false} si le premier joueur s'est déconnecté entre-temps : le second
+     *         joueur doit attendre un autre adversaire.
+     */
+    private boolean completer(Jeu jeu, Socket socket)
+    {
+        jeu.verrou.lock();
+        try
+        {
+            if(jeu.fermee) return false;
+
+            // Le premier joueur est prévenu en premier : s'il est parti, le second joueur attend un autre adversaire
+            try
+            {
+                jeu.tabProtocoles[Couleur.BLANC.getValeur()].envoyerCouleur(Couleur.BLANC);
+            }
+            catch(IOException e)
+            {
+                jeu.fermee = true;
+                this.fermer(jeu.tabSockets[Couleur.BLANC.getValeur()]);
+                return false;
+            }
+
+            jeu.tabSockets   [Couleur.NOIR.getValeur()] = socket;
+            jeu.tabProtocoles[Couleur.NOIR.getValeur()] = new Protocole(socket.getInputStream(), socket.getOutputStream());
+            jeu.tabProtocoles[Couleur.NOIR.getValeur()].envoyerBonjour();
+            jeu.tabProtocoles[Couleur.NOIR.getValeur()].envoyerCouleur(Couleur.NOIR);
+
+            jeu.commencee = true;
+            this.nbPartiesEnCours.incrementAndGet();
+        }
+        catch(IOException e)
+        {
+            // Le second joueur est parti : la partie est abandonnée
+            jeu.fermee = true;
+            this.fermer(jeu.tabSockets[Couleur.BLANC.getValeur()]);
+            this.fermer(socket);
+            return true;
+        }
+        finally
+        {
+            jeu.verrou.unlock();
+        }
+
+        this.executeur.execute(() -> this.jouer(jeu, Couleur.NOIR));
+        return true;
+    }
+
+    /**
+     * Méthode exécutée dans le thread d'un joueur : reçoit ses messages et relaie ses
+     * coups à son adversaire, jusqu'à la déconnexion d'un des joueurs.
+     * @param jeu     La partie
+     * @param couleur La couleur du joueur
+     */
+    private void jouer(Jeu jeu, Couleur couleur)
+    {
+        Socket socket     = jeu.tabSockets[couleur.getValeur()];
+        int    adversaire = Couleur.autreCouleur(couleur).getValeur();
+
+        try
+        {
+            Protocole protocole = jeu.tabProtocoles[couleur.getValeur()];
+            protocole.verifierBonjour();
+
+            int type;
+            while((type = protocole.lireMessage()) != Protocole.FIN)
+            {
+                this.traiterMessage(jeu, couleur, type, protocole.getMessage());
+            }
+        }
+        catch(IOException e)
+        {
+            // Connexion fermée ou en erreur : la partie est terminée
+        }
+
+        // Le premier des deux joueurs qui se déconnecte ferme la partie
+        jeu.verrou.lock();
+        try
+        {
+            if(!jeu.fermee && jeu.commencee)
+                this.nbPartiesEnCours.decrementAndGet();
+            jeu.fermee = true;
+        }
+        finally
+        {
+            jeu.verrou.unlock();
+        }
+        this.fermer(socket);
+        if(jeu.tabSockets[adversaire] != null) this.fermer(jeu.tabSockets[adversaire]);
+    }
+
+    /**
+     * Traite un message reçu d'un joueur : vérifie ses coups et les relaie à son
+     * adversaire, répond aux pings et aux demandes de position.
+     * @param jeu     La partie
+     * @param couleur La couleur du joueur
+     * @param type    Le type du message
+     * @param message Le tampon de lecture, positionné au début du message
+     * @throws IOException Si un message ne peut pas être envoyé.
+     */
+    private void traiterMessage(Jeu jeu, Couleur couleur, int type, ByteBuffer message) throws IOException
+    {
+        // Tant que l'adversaire n'est pas arrivé, seuls les pings ont un sens
+        if(!jeu.commencee && type != Protocole.PING) return;
+
+        Protocole protocole  = jeu.tabProtocoles[couleur.getValeur()];
+        Protocole adversaire = jeu.tabProtocoles[Couleur.autreCouleur(couleur).getValeur()];
+
+        switch(type)
+        {
+            case Protocole.COUP :
+                // Le coup est relayé s'il est valide et joué par le joueur actif ;
+                // sinon, le joueur reçoit la position du serveur
+                int coup = Protocole.getCoup(message);
+                jeu.verrou.lock();
+                try
+                {
+                    if(jeu.partie.getJoueurActif() != couleur || !jeu.partie.jouer(coup))
+                    {
+                        System.out.println("Déplacement invalide reçu : " + Coup.toString(coup));
+                        protocole.envoyerPosition(jeu.partie.getInstantane());
+                        return;
+                    }
+
+                    adversaire.envoyerCoup(coup);
+                    this.nbCoupsRelayes.incrementAndGet();
+                }
+                finally
+                {
+                    jeu.verrou.unlock();
+                }
+                break;
+
+            case Protocole.ABANDON :
+                jeu.verrou.lock();
+                try
+                {
+                    jeu.partie.getEchiquier().abandonner(couleur);
+                    adversaire.envoyerAbandon();
+                }
+                finally
+                {
+                    jeu.verrou.unlock();
+                }
+                break;
+
+            case Protocole.PENDULE :
+                adversaire.envoyerPendule(Protocole.getTemps(message, Couleur.BLANC), Protocole.getTemps(message, Couleur.NOIR));
+                break;
+
+            case Protocole.PING :
+                protocole.envoyerPing(Protocole.PONG, Protocole.getInstant(message));
+                break;
+
+            case Protocole.RESYNC :
+                // Seules les demandes sont traitées : la position du serveur fait référence
+                if(!Protocole.estDemandeResync(message)) return;
+                jeu.verrou.lock();
+                try
+                {
+                    protocole.envoyerPosition(jeu.partie.getInstantane());
+                }
+                finally
+                {
+                    jeu.verrou.unlock();
+                }
+                break;
+
+            default :
+                // Message inconnu (version ultérieure) ou sans objet : ignoré
+                break;
+        }
+    }
+
+    /**
+     * Ferme la connexion d'un joueur (sans effet si elle est déjà fermée).
+     * @param socket La connexion
+     */
+    private void fermer(Socket socket)
+    {
+        if(!this.ensSockets.remove(socket)) return;
+
+        try
+        {
+            socket.close();
+        }
+        catch(IOException e)
+        {
+            e.printStackTrace();
+        }
+        this.nbConnexions.decrementAndGet();
+    }
+
+    /**
+     * Partie hébergée par le serveur.
+     */
+    private static class Jeu
+    {
+        private Socket[]         tabSockets;    // Connexions des joueurs, indexées par Couleur.getValeur()
+        private Protocole[]      tabProtocoles; // Messages échangés avec les joueurs
+        private Partie           partie;
+        private volatile boolean commencee;     // Les deux joueurs sont connectés et ont reçu leur couleur
+        private boolean          fermee;        // Un joueur s'est déconnecté
+        private ReentrantLock    verrou;        // Protège la partie (et l'ordre des coups relayés)
+
+        private Jeu()
+        {
+            this.tabSockets    = new Socket[2];
+            this.tabProtocoles = new Protocole[2];
+            this.partie        = new Partie();
+            this.verrou        = new ReentrantLock();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package metier.utils;
+
+/**
+ * Classe utilitaire contenant des méthodes statiques pour manipuler des bitboards.
+ * Un bitboard est un {@code long} dont chaque bit représente une case de l'échiquier :
+ * la case (lig, col) correspond au bit d'indice {@code lig * 8 + col}.
+ *
+ * @author Ted Herambert
+ * @date 23/11/2024
+ * @version 1.0
+ */
+public final class Bitboard
+{
+	// Bitboard vide et bitboard plein
+	public static final long VIDE  = 0L;
+	public static final long PLEIN = 0xFFFFFFFFFFFFFFFFL;
+
+	/**
+	 * Constructeur privé pour empêcher l'instanciation de cette classe utilitaire.
+	 */
+	private Bitboard() {}
+
+	/**
+	 * Calcule l'indice de la case (0-63) à partir de ses coordonnées.
+	 *
+	 * @param lig Ligne de la case.
+	 * @param col Colonne de la case.
+	 * @return L'indice de la case.
+	 */
+	public static int getCase(int lig, int col) { return (lig << 3) | col; }
+
+	/**
+	 * Retourne la ligne d'une case.
+	 *
+	 * @param numCase L'indice de la case (0-63).
+	 * @return La ligne de la case.
+	 */
+	public static int getLig(int numCase) { return numCase >>> 3; }
+
+	/**
+	 * Retourne la colonne d'une case.
+	 *
+	 * @param numCase L'indice de la case (0-63).
+	 * @return La colonne de la case.
+	 */
+	public static int getCol(int numCase) { return numCase & 7; }
+
+	/**
+	 * Retourne le bitboard ne contenant que la case donnée.
+	 *
+	 * @param numCase L'indice de la case (0-63).
+	 * @return Le bitboard de la case.
+	 */
+	public static long masque(int numCase) { return 1L << numCase; }
+
+	/**
+	 * Retourne le bitboard ne contenant que la case (lig, col).
+	 *
+	 * @param lig Ligne de la case.
+	 * @param col Colonne de la case.
+	 * @return Le bitboard de la case.
+	 */
+	public static long masque(int lig, int col) { return 1L << ((lig << 3) | col); }
+
+	/**
+	 * Vérifie si une case appartient au bitboard.
+	 *
+	 * @param bitboard Le bitboard.
+	 * @param numCase  L'indice de la case (0-63).
+	 * @return {@code true} si la case est présente, {@code false} sinon.
+	 */
+	public static boolean contient(long bitboard, int numCase) { return (bitboard & (1L << numCase)) != 0; }
+
+	/**
+	 * Retourne l'indice de la première case du bitboard (bit de poids faible).
+	 *
+	 * @param bitboard Le bitboard (non vide).
+	 * @return L'indice de la première case.
+	 */
+	public static int premiereCase(long bitboard) { return Long.numberOfTrailingZeros(bitboard); }
+
+	/**
+	 * Retourne le nombre de cases présentes dans le bitboard.
+	 *
+	 * @param bitboard Le bitboard.
+	 * @return Le nombre de cases.
+	 */
+	public static int nbCases(long bitboard) { return Long.bitCount(bitboard); }
+}
@@ -0,0 +1,117 @@
+package metier.utils;
+
+import constants.Couleur;
+import metier.Echiquier;
+import metier.piece.Piece;
+
+/**
+ * Classe utilitaire permettant de lire et d'écrire une position au format FEN 
+ * (Forsyth-Edwards Notation), par exemple :
+ * {@code rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w}.
+ * Seuls les deux premiers champs (disposition des pièces et joueur qui doit jouer) 
+ * sont utilisés, les règles du jeu ne comportant ni roque ni prise en passant.
+ * La première rangée du FEN correspond à la ligne 0 de l'échiquier.
+ * 
+ * @author Ted Herambert
+ * @date 23/11/2024
+ * @version 1.0
+ */
+public final class Fen
+{
+	// Lettre de chaque pièce, indexée par son numéro (1-12)
+	private static final String LETTRES = " PRNBQKprnbqk";
+
+	// Position de départ
+	public static final String DEPART = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w";
+
+	/**
+	 * Constructeur privé pour empêcher l'instanciation de cette classe utilitaire.
+	 */
+	private Fen() {}
+
+	/**
+	 * Lit la disposition des pièces d'une position FEN.
+	 * 
+	 * @param fen La position au format FEN.
+	 * @return Le numéro de la pièce (0 si vide) de chaque case, indexé par [lig][col].
+	 * @throws IllegalArgumentException Si la position n'est pas valide.
+	 */
+	public static int[][] lireDisposition(String fen)
+	{
+		int[][]  disposition = new int[8][8];
+		String[] tabRangees  = fen.trim().split("\\s+")[0].split("/");
+
+		if(tabRangees.length != 8)
+			throw new IllegalArgumentException("Position FEN non valide : " + fen);
+
+		for(int lig = 0; lig < 8; lig++)
+		{
+			int col = 0;
+			for(char c : tabRangees[lig].toCharArray())
+			{
+				if(Character.isDigit(c))
+				{
+					col += c - '0';
+				}
+				else
+				{
+					int num = LETTRES.indexOf(c);
+					if(num < 1 || col > 7)
+						throw new IllegalArgumentException("Position FEN non valide : " + fen);
+					disposition[lig][col++] = num;
+				}
+			}
+
+			if(col != 8)
+				throw new IllegalArgumentException("Position FEN non valide : " + fen);
+		}
+
+		return disposition;
+	}
+
+	/**
+	 * Lit la couleur du joueur qui doit jouer dans une position FEN.
+	 * 
+	 * @param fen La position au format FEN.
+	 * @return La couleur du joueur qui doit jouer (BLANC si le champ est absent).
+	 */
+	public static Couleur lireTrait(String fen)
+	{
+		String[] tabChamps = fen.trim().split("\\s+");
+		return tabChamps.length > 1 && tabChamps[1].equals("b") ? Couleur.NOIR : Couleur.BLANC;
+	}
+
+	/**
+	 * Écrit la position d'un échiquier au format FEN.
+	 * 
+	 * @param echiquier L'échiquier.
+	 * @return La position au format FEN.
+	 */
+	public static String ecrire(Echiquier echiquier)
+	{
+		StringBuilder sb = new StringBuilder();
+
+		for(int lig = 0; lig < 8; lig++)
+		{
+			int nbVides = 0;
+			for(int col = 0; col < 8; col++)
+			{
+				Piece piece = echiquier.getPiece(lig, col);
+				if(piece == null)
+				{
+					nbVides++;
+					continue;
+				}
+
+				if(nbVides > 0) sb.append(nbVides);
+				nbVides = 0;
+				sb.append(LETTRES.charAt(piece.getNum()));
+			}
+
+			if(nbVides > 0) sb.append(nbVides);
+			if(lig < 7)     sb.append('/');
+		}
+
+		return sb.append(echiquier.getJoueurActif() == Couleur.BLANC ? " w" : " b").toString();
+	}
+}
@@ -0,0 +1,84 @@
+package outils;
+
+import metier.moteur.Moteur;
+import metier.moteur.TableTransposition;
+import metier.utils.Fen;
+
+/**
+ * Outil en ligne de commande (sans interface graphique) qui mesure l'accélération 
+ * de la recherche parallèle de l'ordinateur : pour un nombre de threads croissant 
+ * (1, 2, 4... jusqu'à N), il mesure le temps nécessaire pour terminer une profondeur 
+ * donnée sur plusieurs positions, et le compare au temps obtenu avec un seul thread.
+ * La table de transposition est vidée avant chaque recherche.
+ * 
+ * Utilisation (depuis le dossier bin) :
+ * <pre>
+ *   java outils.Acceleration [profondeur] [nbThreadsMax] [tailleMo]
+ * </pre>
+ * 
+ * @author Ted Herambert
+ * @date 23/11/2024
+ * @version 1.0
+ */
+public class Acceleration
+{
+	// Positions de test
+	static final String[] TAB_FEN = {
+		Fen.DEPART,
+		"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w",
+		"rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w",
+		"8/2P1k3/8/8/8/8/3Kp3/8 w"
+	};
+
+	// Temps accordé à chaque recherche : la recherche s'arrête à la profondeur demandée
+	private static final long DUREE_MAX_MS = 24L * 3600 * 1000;
+
+	/**
+	 * Point d'entrée de l'outil.
+	 * 
+	 * @param args [profondeur] [nbThreadsMax] [tailleMo]
+	 */
+	public static void main(String[] args)
+	{
+		int profondeur   = args.length > 0 ? Integer.parseInt(args[0]) : 7;
+		int nbThreadsMax = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		int tailleMo     = args.length > 2 ? Integer.parseInt(args[2]) : 256;
+
+		TableTransposition table = new TableTransposition(tailleMo);
+
+		System.out.println("Profondeur " + profondeur + ", " + TAB_FEN.length + " positions, " 
+		                   + Runtime.getRuntime().availableProcessors() + " processeurs");
+
+		// Préchauffage (compilation à la volée), non mesuré
+		Moteur prechauffage = new Moteur(DUREE_MAX_MS, table);
+		prechauffage.setProfondeurMax(profondeur - 1);
+		for(String fen : TAB_FEN)
+			prechauffage.chercher(Fen.lireDisposition(fen), Fen.lireTrait(fen));
+
+		double dureeReference = 0;
+		for(int nbThreads = 1; nbThreads <= nbThreadsMax; nbThreads = (nbThreads < nbThreadsMax && nbThreads * 2 > nbThreadsMax ? nbThreadsMax : nbThreads * 2))
+		{
+			Moteur moteur = new Moteur(DUREE_MAX_MS, table);
+			moteur.setNbThreads(nbThreads);
+			moteur.setProfondeurMax(profondeur);
+
+			long duree    = 0;
+			long nbNoeuds = 0;
+			for(String fen : TAB_FEN)
+			{
+				table.vider();
+
+				long debut = System.nanoTime();
+				moteur.chercher(Fen.lireDisposition(fen), Fen.lireTrait(fen));
+				duree    += System.nanoTime() - debut;
+				nbNoeuds += moteur.getNbNoeuds();
+			}
+
+			if(nbThreads == 1) dureeReference = duree;
+			System.out.printf("%3d threads : %8.3f s  %12d noeuds  %10.0f noeuds/s  accélération x%.2f%n",
+			                  nbThreads, duree / 1e9, nbNoeuds, nbNoeuds * 1e9 / duree, dureeReference / duree);
+
+			if(nbThreads == nbThreadsMax) break;
+		}
+	}
+}
@@ -0,0 +1,259 @@
+package outils;
+
+import controleur.Controleur;
+import ihm.joueur.PanelJoueur;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import constants.AppConstants;
+import metier.Echiquier;
+import metier.reseau.Protocole;
+import metier.piece.Piece;
+import metier.utils.Fen;
+
+/**
+ * Outil en ligne de commande qui mesure les performances des chemins critiques 
+ * du jeu : règles des pièces, déplacements, détection de fin de jeu, lecture des 
+ * messages réseau et dessin de l'échiquier.
+ * 
+ * Chaque mesure commence par des itérations de préchauffage (pour laisser le 
+ * compilateur JIT optimiser le code), puis affiche le temps moyen par opération 
+ * (avec son écart type), le nombre d'octets alloués par opération et le nombre 
+ * de passages du ramasse-miettes pendant la mesure.
+ * 
+ * Utilisation (depuis le dossier bin) :
+ * <pre>
+ *   java -Djava.awt.headless=true outils.Benchmark            toutes les mesures
+ *   java -Djava.awt.headless=true outils.Benchmark deplacer   les mesures dont le nom contient "deplacer"
+ * </pre>
+ * 
+ * @author Ted Herambert
+ * @date 23/11/2024
+ * @version 1.0
+ */
+public class Benchmark
+{
+	// Paramètres des mesures
+	private static final int NB_ITERATIONS_PRECHAUFFAGE = 5;
+	private static final int NB_ITERATIONS_MESURE       = 10;
+	private static final int DUREE_ITERATION_MS         = 200;
+
+	// Position de milieu de partie utilisée par la plupart des mesures
+	private static final String FEN_MILIEU = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w";
+
+	// Les résultats des opérations y sont accumulés pour que le JIT ne les supprime pas
+	private static volatile long puits;
+
+	/**
+	 * Interface représentant une opération à mesurer.
+	 */
+	private interface Operation
+	{
+		/**
+		 * Exécute l'opération une fois.
+		 * @return Une valeur dépendant du résultat de l'opération.
+		 */
+		long executer();
+	}
+
+	/**
+	 * Mesure une opération et affiche le résultat.
+	 * 
+	 * @param nom Le nom de la mesure.
+	 * @param op  L'opération à mesurer.
+	 */
+	private static void mesurer(String nom, Operation op)
+	{
+		for(int i = 0; i < NB_ITERATIONS_PRECHAUFFAGE; i++)
+			Benchmark.iteration(op);
+
+		ThreadMXBean threadBean  = ManagementFactory.getThreadMXBean();
+		long         allocDebut  = Benchmark.getOctetsAlloues(threadBean);
+		long         gcDebut     = Benchmark.getNbPassagesGC();
+
+		double[] tabNsParOp = new double[NB_ITERATIONS_MESURE];
+		long     nbOps      = 0;
+		for(int i = 0; i < NB_ITERATIONS_MESURE; i++)
+		{
+			long[] mesure = Benchmark.iteration(op);
+			tabNsParOp[i] = (double) mesure[1] / mesure[0];
+			nbOps        += mesure[0];
+		}
+
+		long allocFin = Benchmark.getOctetsAlloues(threadBean);
+		long gcFin    = Benchmark.getNbPassagesGC();
+
+		double moyenne = 0;
+		for(double ns : tabNsParOp) moyenne += ns;
+		moyenne /= tabNsParOp.length;
+
+		double variance = 0;
+		for(double ns : tabNsParOp) variance += (ns - moyenne) * (ns - moyenne);
+		double ecartType = Math.sqrt(variance / tabNsParOp.length);
+
+		String alloc = allocDebut < 0 ? "n/d" : String.format("%.1f", (double)(allocFin - allocDebut) / nbOps);
+		System.out.printf("%-32s %12.1f ns/op  +/- %8.1f  %12.0f op/s  %10s o/op  %4d gc%n",
+		                  nom, moyenne, ecartType, 1e9 / moyenne, alloc, gcFin - gcDebut);
+	}
+
+	/**
+	 * Exécute l'opération en boucle pendant la durée d'une itération.
+	 * 
+	 * @param op L'opération.
+	 * @return Le nombre d'opérations exécutées et la durée en nanosecondes.
+	 */
+	private static long[] iteration(Operation op)
+	{
+		long duree = DUREE_ITERATION_MS * 1_000_000L;
+		long nbOps = 0;
+		long somme = 0;
+		long debut = System.nanoTime();
+		long fin;
+		do
+		{
+			// Les opérations sont exécutées par paquets pour limiter le coût de nanoTime
+			for(int i = 0; i < 64; i++)
+				somme += op.executer();
+			nbOps += 64;
+			fin = System.nanoTime();
+		}
+		while(fin - debut < duree);
+
+		puits += somme;
+		return new long[] { nbOps, fin - debut };
+	}
+
+	/**
+	 * Retourne le nombre d'octets alloués par le thread courant, si la JVM le permet.
+	 * 
+	 * @param threadBean Le gestionnaire des threads de la JVM.
+	 * @return Le nombre d'octets alloués, ou -1 si la mesure n'est pas disponible.
+	 */
+	private static long getOctetsAlloues(ThreadMXBean threadBean)
+	{
+		if(threadBean instanceof com.sun.management.ThreadMXBean)
+			return ((com.sun.management.ThreadMXBean) threadBean).getThreadAllocatedBytes(Thread.currentThread().getId());
+		return -1;
+	}
+
+	/**
+	 * Retourne le nombre total de passages du ramasse-miettes depuis le lancement de la JVM.
+	 * 
+	 * @return Le nombre de passages.
+	 */
+	private static long getNbPassagesGC()
+	{
+		long nb = 0;
+		for(GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+			nb += Math.max(0, gc.getCollectionCount());
+		return nb;
+	}
+
+	/**
+	 * Crée un échiquier à partir d'une position FEN.
+	 * 
+	 * @param fen La position.
+	 * @return L'échiquier.
+	 */
+	private static Echiquier creerEchiquier(String fen)
+	{
+		return new Echiquier(Fen.lireDisposition(fen), Fen.lireTrait(fen));
+	}
+
+	/**
+	 * Ajoute la mesure de deplacementValide sur les 64 cases pour chaque type de pièce.
+	 * 
+	 * @param tabNoms       Les noms des mesures.
+	 * @param tabOperations Les opérations.
+	 */
+	private static void ajouterDeplacementValide(ArrayList<String> tabNoms, ArrayList<Operation> tabOperations)
+	{
+		Echiquier echiquier = Benchmark.creerEchiquier(FEN_MILIEU);
+
+		for(int num = 1; num <= 6; num++)
+		{
+			// Première pièce blanche de ce type
+			Piece piece = null;
+			for(int numCase = 0; numCase < 64 && piece == null; numCase++)
+				if(echiquier.getPiece(numCase / 8, numCase % 8) != null && echiquier.getPiece(numCase / 8, numCase % 8).getNum() == num)
+					piece = echiquier.getPiece(numCase / 8, numCase % 8);
+
+			final Piece p = piece;
+			tabNoms.add("deplacementValide." + p.getType());
+			tabOperations.add(() -> {
+				long nb = 0;
+				for(int lig = 0; lig < 8; lig++)
+					for(int col = 0; col < 8; col++)
+						if(p.deplacementValide(lig, col)) nb++;
+				return nb;
+			});
+		}
+	}
+
+	/**
+	 * Point d'entrée de l'outil.
+	 * 
+	 * @param args Filtre optionnel sur le nom des mesures.
+	 */
+	public static void main(String[] args)
+	{
+		String filtre = args.length > 0 ? args[0] : "";
+
+		ArrayList<String>    tabNoms       = new ArrayList<String>();
+		ArrayList<Operation> tabOperations = new ArrayList<Operation>();
+
+		// Règles des pièces
+		Benchmark.ajouterDeplacementValide(tabNoms, tabOperations);
+
+		// Déplacement d'un cavalier aller-retour (g1-f3, f3-g1)
+		Echiquier echiquierDeplacer = Benchmark.creerEchiquier(Fen.DEPART);
+		tabNoms.add("Echiquier.deplacer");
+		tabOperations.add(() -> {
+			echiquierDeplacer.deplacer(7, 6, 5, 5);
+			echiquierDeplacer.setPieceEnDeplacement(null);
+			echiquierDeplacer.deplacer(5, 5, 7, 6);
+			echiquierDeplacer.setPieceEnDeplacement(null);
+			if(echiquierDeplacer.getNbCoupsHistorique() > 100_000) echiquierDeplacer.init();
+			return echiquierDeplacer.getOccupation();
+		});
+
+		// Détection de fin de jeu
+		Echiquier echiquierFin = Benchmark.creerEchiquier(FEN_MILIEU);
+		tabNoms.add("Echiquier.estFinJeu");
+		tabOperations.add(() -> echiquierFin.estFinJeu() ? 1 : 0);
+
+		// Encodage puis lecture d'un coup envoyé par le réseau, dans un tampon réutilisé (voir Protocole)
+		ByteBuffer tamponCoup = ByteBuffer.allocate(Protocole.TAILLE_MAX);
+		tabNoms.add("Protocole (coup écrit puis lu)");
+		tabOperations.add(() -> {
+			tamponCoup.clear();
+			Protocole.ecrireCoup(tamponCoup, 6964);
+			tamponCoup.flip();
+			return Protocole.getType(tamponCoup) == Protocole.COUP ? Protocole.getCoup(tamponCoup) : -1;
+		});
+
+		// Dessin de l'échiquier dans une image hors écran, avec une pièce sélectionnée
+		Echiquier echiquierDessin = Benchmark.creerEchiquier(FEN_MILIEU);
+		echiquierDessin.setPieceSelectionnee(echiquierDessin.getPiece(5, 5));
+		PanelJoueur   panel = new PanelJoueur(new Controleur(echiquierDessin), null);
+		BufferedImage image = new BufferedImage(AppConstants.LARGEUR_FRAME_JOUEUR, AppConstants.HAUTEUR_FRAME_JOUEUR, 
+		                                        BufferedImage.TYPE_INT_ARGB);
+		Graphics2D    g2    = image.createGraphics(); // Créé une seule fois : sa création n'est pas mesurée
+		panel.setSize(AppConstants.LARGEUR_FRAME_JOUEUR, AppConstants.HAUTEUR_FRAME_JOUEUR);
+		tabNoms.add("PanelJoueur.paintComponent");
+		tabOperations.add(() -> {
+			panel.paintComponent(g2);
+			return image.getRGB(400, 400);
+		});
+
+		for(int i = 0; i < tabNoms.size(); i++)
+			if(tabNoms.get(i).contains(filtre))
+				Benchmark.mesurer(tabNoms.get(i), tabOperations.get(i));
+
+		g2.dispose();
+	}
+}
@@ -0,0 +1,322 @@
+package outils;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Random;
+import metier.Echiquier;
+import metier.Partie;
+import metier.reseau.Hebergeur;
+import metier.reseau.Protocole;
+import metier.reseau.ServeurParties;
+import metier.reseau.ServeurThreads;
+
+/**
+ * Outil en ligne de commande (sans interface graphique) qui mesure combien de
+ * parties simultanées un serveur de parties ({@link Hebergeur}) tient dans une JVM,
+ * et avec quelle latence, selon son mode :
+ * <ul>
+ *   <li>{@code nio} : {@link ServeurParties}, boucles d'événements {@code java.nio} ;</li>
+ *   <li>{@code virtuel} : {@link ServeurThreads}, un thread virtuel par connexion (Java 21) ;</li>
+ *   <li>{@code plateforme} : {@link ServeurThreads}, un thread système par connexion
+ *       (l'approche de {@link metier.reseau.Serveur}).</li>
+ * </ul>
+ * Le serveur est lancé dans la JVM de l'outil, puis les joueurs se connectent deux par
+ * deux et jouent des coups aléatoires, en réfléchissant un temps fixe avant chaque coup.
+ * Les joueurs sont simulés par une seule boucle {@code java.nio}, pour que leur coût
+ * dépende peu du mode mesuré. L'outil affiche le temps de connexion, le nombre de
+ * threads, la mémoire utilisée par partie, le nombre de coups relayés par seconde et
+ * la latence d'un coup (de son envoi à sa réception par l'adversaire).
+ *
+ * Chaque connexion utilise deux descripteurs de fichiers (côté joueur et côté serveur) :
+ * la limite du système ({@code ulimit -n}) doit dépasser 4 fois le nombre de parties.
+ *
+ * Utilisation (depuis le dossier bin) :
+ * <pre>
+ *   java outils.ChargeServeur [nio|virtuel|plateforme] [nbParties] [reflexionMs] [dureeS]
+ * </pre>
+ *
+ * @author Ted Herambert
+ * @date 23/11/2024
+ * @version 1.0
+ */
+public class ChargeServeur
+{
+	// Nombre maximal de coups d'une partie (au-delà, les joueurs ne jouent plus)
+	private static final int NB_COUPS_MAX_PARTIE = 400;
+
+	/**
+	 * Partie vue par les deux joueurs simulés : ils partagent la même {@link Partie},
+	 * puisqu'ils sont dans la même JVM.
+	 */
+	private static class PartieSimulee
+	{
+		private Partie partie       = new Partie();
+		private Random random;
+		private long   instantEnvoi; // Instant (System.nanoTime) d'envoi du dernier coup
+		private int    nbCouleurs;   // Nombre de joueurs qui ont reçu leur couleur
+
+		private PartieSimulee(long graine) { this.random = new Random(graine); }
+	}
+
+	/**
+	 * Joueur simulé : une connexion au serveur.
+	 */
+	private static class Joueur
+	{
+		private SocketChannel canal;
+		private PartieSimulee partie;
+		private int           couleur = -1;
+		private long          echeance; // Instant où le joueur doit jouer
+		private ByteBuffer    lecture   = ByteBuffer.allocate(2 * Protocole.TAILLE_MAX);
+		private ByteBuffer    ecriture  = ByteBuffer.allocate(16);
+	}
+
+	// Latences mesurées, en microsecondes
+	private static long[] tabLatences = new long[1 << 16];
+	private static int    nbLatences;
+
+	/**
+	 * Point d'entrée de l'outil.
+	 *
+	 * @param args [nio|virtuel|plateforme] [nbParties] [reflexionMs] [dureeS]
+	 * @throws IOException          Si le serveur ne peut pas être lancé ou un joueur connecté.
+	 * @throws InterruptedException Si le thread principal est interrompu.
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException
+	{
+		String mode        = args.length > 0 ? args[0] : "nio";
+		int    nbParties   = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+		long   reflexionNs = (args.length > 2 ? Long.parseLong(args[2]) : 100) * 1_000_000L;
+		long   dureeNs     = (args.length > 3 ? Long.parseLong(args[3]) : 10) * 1_000_000_000L;
+
+		long memoireDebut = ChargeServeur.getMemoireTas();
+		long rssDebut     = ChargeServeur.getMemoireProcessus();
+		int  threadsDebut = ManagementFactory.getThreadMXBean().getThreadCount();
+
+		Hebergeur serveur;
+		switch(mode)
+		{
+			case "nio"        : serveur = new ServeurParties(0, Runtime.getRuntime().availableProcessors()); break;
+			case "virtuel"    : serveur = new ServeurThreads(0, true);  break;
+			case "plateforme" : serveur = new ServeurThreads(0, false); break;
+			default :
+				System.out.println("Mode inconnu : " + mode + " (nio, virtuel ou plateforme)");
+				return;
+		}
+		serveur.demarrer();
+
+		String description = mode;
+		if(serveur instanceof ServeurThreads && mode.equals("virtuel") && !((ServeurThreads) serveur).estVirtuel())
+			description += " (threads virtuels indisponibles sur cette JVM : threads système utilisés)";
+		System.out.println("Serveur " + description + ", " + nbParties + " parties, réflexion " + reflexionNs / 1_000_000 + " ms");
+
+		// Connexion des joueurs, dans l'ordre : le serveur associe les connexions 2k et 2k+1
+		Selector selecteur = Selector.open();
+		Joueur[] tabJoueurs = new Joueur[2 * nbParties];
+		long     debut      = System.nanoTime();
+		for(int i = 0; i < tabJoueurs.length; i++)
+		{
+			Joueur joueur = new Joueur();
+			joueur.canal  = SocketChannel.open(new InetSocketAddress("localhost", serveur.getPort()));
+			joueur.canal.socket().setTcpNoDelay(true);
+			Protocole.ecrireBonjour(joueur.ecriture);
+			ChargeServeur.envoyer(joueur);
+			joueur.canal.configureBlocking(false);
+			joueur.canal.register(selecteur, SelectionKey.OP_READ, joueur);
+			joueur.partie = i % 2 == 0 ? new PartieSimulee(i) : tabJoueurs[i - 1].partie;
+			tabJoueurs[i] = joueur;
+		}
+		double dureeConnexion = (System.nanoTime() - debut) / 1e9;
+
+		// Jeu : les joueurs dont c'est le tour sont dans une file triée par échéance (réflexion constante)
+		ArrayDeque<Joueur> fileCoups   = new ArrayDeque<>();
+		int[]              tabCoups    = new int[Echiquier.NB_COUPS_MAX];
+		long               fin         = System.nanoTime() + dureeNs;
+		long               coupsDebut  = -1;
+		long               debutMesure = 0;
+		int                maxParties  = 0;
+
+		while(System.nanoTime() < fin)
+		{
+			long attente = fileCoups.isEmpty() ? 10 : Math.max(1, (fileCoups.peek().echeance - System.nanoTime()) / 1_000_000);
+			selecteur.select(attente);
+
+			Iterator<SelectionKey> it = selecteur.selectedKeys().iterator();
+			while(it.hasNext())
+			{
+				SelectionKey cle = it.next();
+				it.remove();
+				ChargeServeur.lire((Joueur) cle.attachment(), fileCoups, reflexionNs);
+			}
+
+			long maintenant = System.nanoTime();
+			while(!fileCoups.isEmpty() && fileCoups.peek().echeance <= maintenant)
+				ChargeServeur.jouer(fileCoups.poll(), tabCoups);
+
+			// La mesure du débit commence quand toutes les parties ont commencé
+			maxParties = Math.max(maxParties, serveur.getNbPartiesEnCours());
+			if(coupsDebut < 0 && serveur.getNbPartiesEnCours() == nbParties)
+			{
+				coupsDebut  = serveur.getNbCoupsRelayes();
+				debutMesure = maintenant;
+			}
+		}
+
+		// Mesures avec toutes les connexions ouvertes
+		int  threads = ManagementFactory.getThreadMXBean().getThreadCount() - threadsDebut;
+		long memoire = ChargeServeur.getMemoireTas()      - memoireDebut;
+		long rss     = ChargeServeur.getMemoireProcessus() - rssDebut;
+		double dureeMesure = (System.nanoTime() - debutMesure) / 1e9;
+		long   nbCoups     = coupsDebut < 0 ? 0 : serveur.getNbCoupsRelayes() - coupsDebut;
+
+		for(Joueur joueur : tabJoueurs)
+			joueur.canal.close();
+		selecteur.close();
+		serveur.close();
+
+		long[] tabTriees = Arrays.copyOf(tabLatences, nbLatences);
+		Arrays.sort(tabTriees);
+
+		System.out.printf("Connexion de %d joueurs en %.2f s, %d parties simultanées%n", tabJoueurs.length, dureeConnexion, maxParties);
+		System.out.printf("Threads : %d de plus, mémoire (tas) : %.1f Mo, soit %.1f Ko par partie (joueurs simulés compris)%n",
+		                  threads, memoire / 1048576.0, memoire / 1024.0 / nbParties);
+		if(rss > 0)
+			System.out.printf("Mémoire du processus : %.1f Mo de plus, soit %.1f Ko par partie%n", rss / 1048576.0, rss / 1024.0 / nbParties);
+		System.out.printf("%d coups relayés en %.1f s : %.0f coups/s%n", nbCoups, dureeMesure, nbCoups / dureeMesure);
+		if(tabTriees.length > 0)
+			System.out.printf("Latence d'un coup : médiane %d µs, p99 %d µs, max %d µs (%d coups)%n",
+			                  tabTriees[tabTriees.length / 2], tabTriees[(int)(tabTriees.length * 0.99)],
+			                  tabTriees[tabTriees.length - 1], tabTriees.length);
+	}
+
+	/**
+	 * Lit les messages reçus par un joueur : sa couleur, puis les coups de son adversaire.
+	 *
+	 * @param joueur      Le joueur
+	 * @param fileCoups   La file des joueurs qui doivent jouer
+	 * @param reflexionNs Le temps de réflexion avant chaque coup, en nanosecondes
+	 * @throws IOException Si la connexion est en erreur.
+	 */
+	private static void lire(Joueur joueur, ArrayDeque<Joueur> fileCoups, long reflexionNs) throws IOException
+	{
+		ByteBuffer lecture = joueur.lecture;
+		if(joueur.canal.read(lecture) < 0) return;
+
+		long maintenant = System.nanoTime();
+		lecture.flip();
+		int type;
+		while((type = Protocole.getType(lecture)) >= 0)
+		{
+			PartieSimulee partie = joueur.partie;
+			switch(type)
+			{
+				case Protocole.COULEUR :
+					joueur.couleur = Protocole.getCouleur(lecture).getValeur();
+					partie.nbCouleurs++;
+					break;
+
+				case Protocole.COUP :
+					if(nbLatences == tabLatences.length) tabLatences = Arrays.copyOf(tabLatences, 2 * nbLatences);
+					tabLatences[nbLatences++] = (maintenant - partie.instantEnvoi) / 1000;
+					break;
+
+				default :
+					// Poignée de main du serveur
+					break;
+			}
+			Protocole.passer(lecture);
+
+			// Le joueur actif réfléchit avant de jouer
+			if(type != Protocole.BONJOUR && partie.nbCouleurs == 2 && partie.partie.getJoueurActif().getValeur() == joueur.couleur)
+			{
+				joueur.echeance = maintenant + reflexionNs;
+				fileCoups.add(joueur);
+			}
+		}
+		lecture.compact();
+	}
+
+	/**
+	 * Joue un coup aléatoire pour un joueur et l'envoie au serveur.
+	 *
+	 * @param joueur   Le joueur
+	 * @param tabCoups Tableau de coups réutilisé
+	 * @throws IOException Si la connexion est en erreur.
+	 */
+	private static void jouer(Joueur joueur, int[] tabCoups) throws IOException
+	{
+		PartieSimulee partie = joueur.partie;
+		if(partie.partie.estTerminee() || partie.partie.getNbCoupsJoues() >= NB_COUPS_MAX_PARTIE) return;
+
+		int nbCoups = partie.partie.genererCoups(tabCoups);
+		if(nbCoups == 0) return;
+
+		int coup = tabCoups[partie.random.nextInt(nbCoups)];
+		partie.partie.jouer(coup);
+		partie.instantEnvoi = System.nanoTime();
+
+		Protocole.ecrireCoup(joueur.ecriture, coup);
+		ChargeServeur.envoyer(joueur);
+	}
+
+	/**
+	 * Envoie le message écrit dans le tampon d'écriture d'un joueur, puis vide le tampon.
+	 *
+	 * @param joueur Le joueur
+	 * @throws IOException Si la connexion est en erreur.
+	 */
+	private static void envoyer(Joueur joueur) throws IOException
+	{
+		joueur.ecriture.flip();
+		while(joueur.ecriture.hasRemaining())
+			joueur.canal.write(joueur.ecriture);
+		joueur.ecriture.clear();
+	}
+
+	/**
+	 * Retourne la mémoire utilisée du tas, après un passage du ramasse-miettes.
+	 *
+	 * @return La mémoire utilisée, en octets.
+	 * @throws InterruptedException Si le thread principal est interrompu.
+	 */
+	private static long getMemoireTas() throws InterruptedException
+	{
+		System.gc();
+		Thread.sleep(100);
+		Runtime runtime = Runtime.getRuntime();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	/**
+	 * Retourne la mémoire physique utilisée par le processus (piles des threads comprises).
+	 *
+	 * @return La mémoire utilisée, en octets, 0 si elle n'est pas connue (système autre que Linux).
+	 */
+	private static long getMemoireProcessus()
+	{
+		Path statut = Paths.get("/proc/self/status");
+		try
+		{
+			if(Files.exists(statut))
+				for(String ligne : Files.readAllLines(statut))
+					if(ligne.startsWith("VmRSS:"))
+						return Long.parseLong(ligne.replaceAll("[^0-9]", "")) * 1024;
+		}
+		catch(IOException | NumberFormatException e)
+		{
+			// Mémoire inconnue
+		}
+		return 0;
+	}
+}
@@ -0,0 +1,85 @@
+package outils;
+
+import metier.moteur.Moteur;
+import metier.moteur.TableTransposition;
+import metier.utils.Fen;
+
+/**
+ * Outil en ligne de commande (sans interface graphique) qui mesure l'efficacité de 
+ * l'ordonnancement des coups de l'ordinateur (MVV-LVA, coups tueurs et historique) : 
+ * il cherche plusieurs positions à une profondeur donnée, avec et sans ordonnancement, 
+ * et affiche le nombre de noeuds, le temps et la proportion de coupures beta 
+ * obtenues dès le premier coup.
+ * 
+ * Utilisation (depuis le dossier bin) :
+ * <pre>
+ *   java outils.ComparaisonOrdre [profondeur] [tailleMo]
+ * </pre>
+ * 
+ * @author Ted Herambert
+ * @date 23/11/2024
+ * @version 1.0
+ */
+public class ComparaisonOrdre
+{
+	// Temps accordé à chaque recherche : la recherche s'arrête à la profondeur demandée
+	private static final long DUREE_MAX_MS = 24L * 3600 * 1000;
+
+	/**
+	 * Point d'entrée de l'outil.
+	 * 
+	 * @param args [profondeur] [tailleMo]
+	 */
+	public static void main(String[] args)
+	{
+		int profondeur = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+		int tailleMo   = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+
+		TableTransposition table  = new TableTransposition(tailleMo);
+		Moteur             moteur = new Moteur(DUREE_MAX_MS, table);
+		moteur.setProfondeurMax(profondeur);
+
+		System.out.println("Profondeur " + profondeur);
+		System.out.printf("%-60s %14s %14s %10s%n", "Position", "Sans ordre", "Avec ordre", "Rapport");
+
+		long totalSans = 0;
+		long totalAvec = 0;
+		for(String fen : Acceleration.TAB_FEN)
+		{
+			long[] tabSans = ComparaisonOrdre.chercher(moteur, table, fen, false);
+			long[] tabAvec = ComparaisonOrdre.chercher(moteur, table, fen, true );
+			totalSans += tabSans[0];
+			totalAvec += tabAvec[0];
+
+			System.out.printf("%-60s %14d %14d %9.1fx%n", fen, tabSans[0], tabAvec[0], (double) tabSans[0] / tabAvec[0]);
+			System.out.printf("%-60s %12.3f s %12.3f s%n", "  temps", tabSans[1] / 1e9, tabAvec[1] / 1e9);
+			System.out.printf("%-60s %12.1f %% %12.1f %%%n", "  coupures au premier coup", tabSans[2] / 10.0, tabAvec[2] / 10.0);
+			System.out.printf("%-60s %14d %14d%n", "  dont noeuds de quiescence", tabSans[3], tabAvec[3]);
+		}
+
+		System.out.printf("%-60s %14d %14d %9.1fx%n", "Total", totalSans, totalAvec, (double) totalSans / totalAvec);
+	}
+
+	/**
+	 * Cherche une position avec une table de transposition vide.
+	 * 
+	 * @param moteur         Le moteur
+	 * @param table          Sa table de transposition
+	 * @param fen            La position
+	 * @param ordonnancement {@code true} pour ordonner les coups
+	 * @return Le nombre de noeuds, la durée en nanosecondes, la proportion (pour 1000) 
+	 *         de coupures obtenues dès le premier coup et le nombre de noeuds de quiescence.
+	 */
+	private static long[] chercher(Moteur moteur, TableTransposition table, String fen, boolean ordonnancement)
+	{
+		table.vider();
+		moteur.setOrdonnancement(ordonnancement);
+
+		long debut = System.nanoTime();
+		moteur.chercher(Fen.lireDisposition(fen), Fen.lireTrait(fen));
+		long duree = System.nanoTime() - debut;
+
+		return new long[] { moteur.getNbNoeuds(), duree, 1000 * moteur.getNbCoupuresPremierCoup() / Math.max(1, moteur.getNbCoupures()),
+		                    moteur.getNbNoeudsQuiescence() };
+	}
+}
@@ -0,0 +1,114 @@
+package outils;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import metier.Coup;
+import metier.Echiquier;
+import metier.moteur.Bibliotheque;
+
+/**
+ * Outil en ligne de commande (sans interface graphique) qui crée la bibliothèque
+ * d'ouvertures de l'ordinateur (fichier au format Polyglot, voir {@link Bibliotheque})
+ * à partir d'un fichier texte de variantes.
+ *
+ * Chaque ligne du fichier texte est une variante jouée depuis la position de départ,
+ * écrite en notation "e2e4" ; les lignes vides et celles qui commencent par # sont
+ * ignorées. Le poids d'un coup est le nombre de variantes qui le jouent dans la même position.
+ *
+ * Utilisation (depuis le dossier bin) :
+ * <pre>
+ *   java outils.CreationBibliotheque [variantes.txt] [bibliotheque.bin]
+ * </pre>
+ *
+ * @author Ted Herambert
+ * @date 23/11/2024
+ * @version 1.0
+ */
+public class CreationBibliotheque
+{
+	// Fichiers utilisés par défaut
+	private static final String FICHIER_VARIANTES = "../res/ouvertures.txt";
+	private static final String FICHIER_SORTIE    = "../res/ouvertures.bin";
+
+	/**
+	 * Point d'entrée de l'outil.
+	 *
+	 * @param args [variantes.txt] [bibliotheque.bin]
+	 * @throws IOException Si un fichier ne peut pas être lu ou écrit.
+	 */
+	public static void main(String[] args) throws IOException
+	{
+		String fichierVariantes = args.length > 0 ? args[0] : FICHIER_VARIANTES;
+		String fichierSortie    = args.length > 1 ? args[1] : FICHIER_SORTIE;
+
+		// Positions et coups de toutes les variantes : { clé, coup au format Polyglot }
+		List<long[]> lstEntrees  = new ArrayList<>();
+		Echiquier    echiquier   = new Echiquier();
+		int          nbLignes    = 0;
+		int          nbVariantes = 0;
+
+		for(String ligne : Files.readAllLines(Paths.get(fichierVariantes), StandardCharsets.UTF_8))
+		{
+			nbLignes++;
+			ligne = ligne.trim();
+			if(ligne.isEmpty() || ligne.startsWith("#")) continue;
+
+			echiquier.init();
+			for(String texte : ligne.split("\\s+"))
+			{
+				int coup = Coup.lire(texte);
+				if(coup == Coup.AUCUN || !echiquier.estCoupValide(echiquier.getJoueurActif(), coup))
+				{
+					System.out.println("Ligne " + nbLignes + " : coup invalide " + texte + ", fin de la variante ignorée");
+					break;
+				}
+
+				coup = echiquier.completerCoup(coup);
+				lstEntrees.add(new long[] { echiquier.getCle(), Bibliotheque.versPolyglot(coup) });
+				echiquier.jouerCoup(coup);
+			}
+			nbVariantes++;
+		}
+
+		// Tri par clé (non signée) puis par coup, comme l'attend la recherche dichotomique
+		lstEntrees.sort((e1, e2) -> e1[0] != e2[0] ? Long.compareUnsigned(e1[0], e2[0]) : Long.compare(e1[1], e2[1]));
+
+		// Écriture : les coups identiques d'une même position sont regroupés et leur nombre donne le poids
+		int nbEntrees = 0;
+		try(DataOutputStream sortie = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fichierSortie))))
+		{
+			for(int i = 0; i < lstEntrees.size(); )
+			{
+				long[] entree = lstEntrees.get(i);
+				int    poids  = 0;
+				while(i < lstEntrees.size() && lstEntrees.get(i)[0] == entree[0] && lstEntrees.get(i)[1] == entree[1])
+				{
+					poids++;
+					i++;
+				}
+
+				sortie.writeLong (entree[0]);
+				sortie.writeShort((int) entree[1]);
+				sortie.writeShort(Math.min(poids, 0xFFFF));
+				sortie.writeInt  (0);
+				nbEntrees++;
+			}
+		}
+
+		System.out.println(nbVariantes + " variantes, " + nbEntrees + " entrées écrites dans " + fichierSortie);
+
+		// Vérification : relecture du fichier et coup proposé pour la position de départ
+		Bibliotheque bibliotheque = Bibliotheque.ouvrir(fichierSortie);
+		echiquier.init();
+		int coup = bibliotheque.chercherCoup(echiquier);
+		System.out.println("Coup proposé depuis la position de départ : " + (coup == Coup.AUCUN ? "aucun" : Coup.toString(coup)));
+	}
+}
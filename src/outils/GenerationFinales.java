@@ -0,0 +1,348 @@
+package outils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.stream.IntStream;
+
+import constants.AppConstants;
+import constants.Couleur;
+import metier.moteur.TablesFinales;
+import metier.piece.Attaques;
+import metier.utils.Bitboard;
+
+/**
+ * Outil en ligne de commande (sans interface graphique) qui calcule les tables de
+ * finales de l'ordinateur (roi et pièce contre roi, voir {@link TablesFinales}) et
+ * les écrit sur le disque.
+ *
+ * Le calcul est une analyse rétrograde : on part des positions où le roi adverse
+ * peut être capturé immédiatement (gain en 1 demi-coup), puis chaque passe trouve
+ * les positions situées un demi-coup plus loin de la fin :
+ * <ul>
+ *   <li>passe impaire n : gain en n si un coup mène à une position perdue en n-1 ;</li>
+ *   <li>passe paire n : perte en n si tous les coups mènent à des positions gagnées
+ *       pour l'adversaire (en n-1 demi-coups au plus).</li>
+ * </ul>
+ * Les positions jamais atteintes restent nulles. Chaque passe est répartie sur tous
+ * les coeurs : les positions sont traitées par blocs de 64 (une case de pièce, une
+ * case de roi fort, les 64 cases du roi seul) et chaque bloc ne modifie que ses propres
+ * octets et son propre mot des ensembles de positions (bitsets de 64 bits par mot).
+ * La table KPK dépend de la table KQK (promotion) : elle est calculée après.
+ *
+ * Règles prises en compte : celles du jeu (pas d'échec ni de pat, le roi peut être
+ * capturé, promotion en reine, avance de deux cases du pion depuis sa case de départ
+ * si la case d'arrivée est libre).
+ *
+ * Utilisation (depuis le dossier bin) :
+ * <pre>
+ *   java outils.GenerationFinales [dossier]
+ * </pre>
+ *
+ * @author Ted Herambert
+ * @date 23/11/2024
+ * @version 1.0
+ */
+public class GenerationFinales
+{
+	// Ordre de calcul des tables (types de pièces) : la Reine avant le Pion
+	private static final int[] TAB_TYPES = { 5, 2, 4, 3, 1 };
+
+	// Résultat maximal d'une position (un octet)
+	private static final int RESULTAT_MAX = 255;
+
+	private int    type;         // Type de la pièce de la table calculée (1 : Pion ... 5 : Reine)
+	private byte[] tabResultats; // Résultat de chaque position (voir TablesFinales)
+	private byte[] tabReines;    // Table KQK, pour les promotions du Pion (null pour les autres tables)
+	private long[] tabResolues;  // Positions dont le résultat est connu (bitset)
+	private long[] tabIllegales; // Positions impossibles : cases confondues, pion sur la première ou dernière rangée
+
+	/**
+	 * Constructeur du générateur d'une table.
+	 *
+	 * @param type      Le type de pièce (1 : Pion ... 5 : Reine)
+	 * @param tabReines La table KQK déjà calculée (utilisée pour les promotions du Pion)
+	 */
+	public GenerationFinales(int type, byte[] tabReines)
+	{
+		this.type         = type;
+		this.tabResultats = new byte[TablesFinales.NB_POSITIONS];
+		this.tabReines    = tabReines;
+		this.tabResolues  = new long[TablesFinales.NB_POSITIONS / 64];
+		this.tabIllegales = new long[TablesFinales.NB_POSITIONS / 64];
+	}
+
+	/**
+	 * Point d'entrée de l'outil.
+	 *
+	 * @param args [dossier]
+	 * @throws IOException Si une table ne peut pas être écrite.
+	 */
+	public static void main(String[] args) throws IOException
+	{
+		File dossier = new File(args.length > 0 ? args[0] : AppConstants.DOSSIER_FINALES);
+		if(!dossier.isDirectory() && !dossier.mkdirs())
+			throw new IOException("Impossible de créer le dossier " + dossier);
+
+		System.out.println(Runtime.getRuntime().availableProcessors() + " coeurs disponibles");
+
+		byte[] tabReines = null;
+		for(int type : TAB_TYPES)
+		{
+			long              debut      = System.nanoTime();
+			GenerationFinales generation = new GenerationFinales(type, tabReines);
+			int               nbPasses   = generation.calculer();
+			long              duree      = System.nanoTime() - debut;
+
+			File fichier = new File(dossier, TablesFinales.getNomFichier(type));
+			try(OutputStream sortie = new FileOutputStream(fichier))
+			{
+				sortie.write(generation.tabResultats);
+			}
+
+			if(type == 5) tabReines = generation.tabResultats;
+			System.out.printf("%s : %d passes en %.2f s, %s%n", fichier.getName(), nbPasses, duree / 1e9, generation.getStatistiques());
+		}
+	}
+
+	/**
+	 * Calcule la table.
+	 *
+	 * @return Le nombre de passes effectuées.
+	 */
+	public int calculer()
+	{
+		IntStream.range(0, this.tabIllegales.length).parallel().forEach(this::marquerIllegales);
+
+		// Les positions de la table KPK peuvent dépendre de positions KQK éloignées de la fin
+		int resultatMax = 0;
+		if(this.tabReines != null)
+			for(byte resultat : this.tabReines)
+				resultatMax = Math.max(resultatMax, resultat & 0xFF);
+
+		int n             = 0;
+		int nbPassesVides = 0;
+		while(nbPassesVides < 2 || n <= resultatMax + 1)
+		{
+			if(++n > RESULTAT_MAX) throw new IllegalStateException("Distance trop grande dans la table " + TablesFinales.getNomFichier(this.type));
+
+			final int passe = n;
+			int nbTrouvees = IntStream.range(0, this.tabResolues.length).parallel().map(mot -> this.traiterBloc(mot, passe)).sum();
+			nbPassesVides  = nbTrouvees == 0 ? nbPassesVides + 1 : 0;
+		}
+
+		return n;
+	}
+
+	/**
+	 * Marque les positions impossibles d'un bloc de 64 positions.
+	 *
+	 * @param mot L'indice du bloc (et du mot des bitsets)
+	 */
+	private void marquerIllegales(int mot)
+	{
+		int casePiece = (mot >>> 5) & 63;
+		int caseRoi   = GenerationFinales.getCaseRoi(mot);
+		int ligPiece  = Bitboard.getLig(casePiece);
+
+		if(casePiece == caseRoi || this.type == 1 && (ligPiece == 0 || ligPiece == 7))
+		{
+			this.tabIllegales[mot] = Bitboard.PLEIN;
+			return;
+		}
+
+		this.tabIllegales[mot] = Bitboard.masque(casePiece) | Bitboard.masque(caseRoi);
+	}
+
+	/**
+	 * Traite les positions non résolues d'un bloc de 64 positions pendant une passe.
+	 *
+	 * @param mot   L'indice du bloc (et du mot des bitsets)
+	 * @param passe Le numéro de la passe (distance cherchée, en demi-coups)
+	 * @return Le nombre de positions résolues.
+	 */
+	private int traiterBloc(int mot, int passe)
+	{
+		int  trait     = mot >>> 11;
+		int  casePiece = (mot >>> 5) & 63;
+		int  caseRoi   = GenerationFinales.getCaseRoi(mot);
+		long restantes = ~(this.tabResolues[mot] | this.tabIllegales[mot]);
+
+		int  nbTrouvees = 0;
+		long resolues   = 0;
+		while(restantes != 0)
+		{
+			int caseSeul = Bitboard.premiereCase(restantes);
+			restantes &= restantes - 1;
+
+			int resultat = trait == 0 ? this.evaluerFort  (passe, casePiece, caseRoi, caseSeul)
+			                          : this.evaluerFaible(passe, casePiece, caseRoi, caseSeul);
+			if(resultat != TablesFinales.NULLE)
+			{
+				this.tabResultats[mot * 64 + caseSeul] = (byte) resultat;
+				resolues |= Bitboard.masque(caseSeul);
+				nbTrouvees++;
+			}
+		}
+
+		this.tabResolues[mot] |= resolues;
+		return nbTrouvees;
+	}
+
+	/**
+	 * Évalue une position où le joueur qui a la pièce doit jouer.
+	 *
+	 * @param passe     Le numéro de la passe
+	 * @param casePiece La case de la pièce
+	 * @param caseRoi   La case de son roi
+	 * @param caseSeul  La case du roi seul
+	 * @return La passe si la position est résolue pendant cette passe, {@link TablesFinales#NULLE} sinon.
+	 */
+	private int evaluerFort(int passe, int casePiece, int caseRoi, int caseSeul)
+	{
+		long occupation = Bitboard.masque(casePiece) | Bitboard.masque(caseRoi) | Bitboard.masque(caseSeul);
+		long roiSeul    = Bitboard.masque(caseSeul);
+
+		// Destinations du roi et de la pièce (les cases de son propre camp sont exclues)
+		long destRoi   = Attaques.roi(caseRoi) & ~Bitboard.masque(casePiece);
+		long destPiece = this.getDeplacements(casePiece, occupation) & ~Bitboard.masque(caseRoi);
+
+		if(((destRoi | destPiece) & roiSeul) != 0) return passe == 1 ? 1 : TablesFinales.NULLE;
+		if(passe == 1) return TablesFinales.NULLE;
+
+		int resultatMax = 0;
+		while(destRoi != 0)
+		{
+			int dest = Bitboard.premiereCase(destRoi);
+			destRoi &= destRoi - 1;
+
+			int resultat = this.tabResultats[TablesFinales.getIndex(1, casePiece, dest, caseSeul)] & 0xFF;
+			if(passe % 2 == 1 && resultat == passe - 1) return passe;
+			if(!TablesFinales.estGain(resultat)) resultatMax = RESULTAT_MAX + 1;
+			resultatMax = Math.max(resultatMax, resultat);
+		}
+
+		while(destPiece != 0)
+		{
+			int dest = Bitboard.premiereCase(destPiece);
+			destPiece &= destPiece - 1;
+
+			// Promotion du pion : la position suivante est dans la table KQK
+			int resultat = this.type == 1 && Bitboard.getLig(dest) == 0
+			             ? this.tabReines   [TablesFinales.getIndex(1, dest, caseRoi, caseSeul)] & 0xFF
+			             : this.tabResultats[TablesFinales.getIndex(1, dest, caseRoi, caseSeul)] & 0xFF;
+			if(passe % 2 == 1 && resultat == passe - 1) return passe;
+			if(!TablesFinales.estGain(resultat)) resultatMax = RESULTAT_MAX + 1;
+			resultatMax = Math.max(resultatMax, resultat);
+		}
+
+		return passe % 2 == 0 && resultatMax <= passe - 1 ? passe : TablesFinales.NULLE;
+	}
+
+	/**
+	 * Évalue une position où le joueur qui n'a que son roi doit jouer.
+	 *
+	 * @param passe     Le numéro de la passe
+	 * @param casePiece La case de la pièce adverse
+	 * @param caseRoi   La case du roi adverse
+	 * @param caseSeul  La case du roi seul
+	 * @return La passe si la position est résolue pendant cette passe, {@link TablesFinales#NULLE} sinon.
+	 */
+	private int evaluerFaible(int passe, int casePiece, int caseRoi, int caseSeul)
+	{
+		long destRoi = Attaques.roi(caseSeul);
+
+		if((destRoi & Bitboard.masque(caseRoi)) != 0) return passe == 1 ? 1 : TablesFinales.NULLE;
+		if(passe == 1) return TablesFinales.NULLE;
+
+		int resultatMax = 0;
+
+		// Capture de la pièce : il ne reste que les deux rois, la partie est nulle 
+		// sauf si la pièce était protégée par son roi (qui capture alors le roi seul)
+		if((destRoi & Bitboard.masque(casePiece)) != 0)
+		{
+			int resultat = (Attaques.roi(caseRoi) & Bitboard.masque(casePiece)) != 0 ? 1 : TablesFinales.NULLE;
+			if(passe % 2 == 1 && resultat == passe - 1) return passe;
+			if(!TablesFinales.estGain(resultat)) resultatMax = RESULTAT_MAX + 1;
+			resultatMax = Math.max(resultatMax, resultat);
+			destRoi &= ~Bitboard.masque(casePiece);
+		}
+
+		while(destRoi != 0)
+		{
+			int dest = Bitboard.premiereCase(destRoi);
+			destRoi &= destRoi - 1;
+
+			int resultat = this.tabResultats[TablesFinales.getIndex(0, casePiece, caseRoi, dest)] & 0xFF;
+			if(passe % 2 == 1 && resultat == passe - 1) return passe;
+			if(!TablesFinales.estGain(resultat)) resultatMax = RESULTAT_MAX + 1;
+			resultatMax = Math.max(resultatMax, resultat);
+		}
+
+		return passe % 2 == 0 && resultatMax <= passe - 1 ? passe : TablesFinales.NULLE;
+	}
+
+	/**
+	 * Calcule les cases de destination de la pièce du joueur fort (blanche).
+	 *
+	 * @param casePiece  La case de la pièce
+	 * @param occupation Les cases occupées
+	 * @return Le bitboard des cases de destination (y compris la case d'un roi).
+	 */
+	private long getDeplacements(int casePiece, long occupation)
+	{
+		switch(this.type)
+		{
+			case 2  : return Attaques.tour    (casePiece, occupation);
+			case 3  : return Attaques.cavalier(casePiece);
+			case 4  : return Attaques.fou     (casePiece, occupation);
+			case 5  : return Attaques.reine   (casePiece, occupation);
+			default : break;
+		}
+
+		// Pion : captures en diagonale, avance d'une case, ou de deux depuis la case de départ
+		long cases = Attaques.pion(Couleur.BLANC, casePiece) & occupation;
+		long avant = Bitboard.masque(casePiece - 8) & ~occupation;
+		if(Bitboard.getLig(casePiece) == 6)
+			avant |= Bitboard.masque(casePiece - 16) & ~occupation;
+
+		return cases | avant;
+	}
+
+	/**
+	 * Retourne la case du roi fort d'un bloc de positions (colonnes a à d).
+	 *
+	 * @param mot L'indice du bloc
+	 * @return La case du roi (0-63).
+	 */
+	private static int getCaseRoi(int mot)
+	{
+		int roi = mot & 31;
+		return Bitboard.getCase(roi >>> 2, roi & 3);
+	}
+
+	/**
+	 * Retourne le nombre de positions gagnées, perdues et nulles de la table, et la plus longue distance.
+	 *
+	 * @return Les statistiques de la table.
+	 */
+	private String getStatistiques()
+	{
+		long nbGains = 0, nbPertes = 0, nbLegales = 0;
+		int  resultatMax = 0;
+		for(int i = 0; i < TablesFinales.NB_POSITIONS; i++)
+		{
+			if(Bitboard.contient(this.tabIllegales[i / 64], i % 64)) continue;
+
+			int resultat = this.tabResultats[i] & 0xFF;
+			nbLegales++;
+			if(TablesFinales.estGain (resultat)) nbGains++;
+			if(TablesFinales.estPerte(resultat)) nbPertes++;
+			resultatMax = Math.max(resultatMax, resultat);
+		}
+
+		return String.format("%d positions : %d gains, %d pertes, %d nulles, distance maximale %d demi-coups",
+		                     nbLegales, nbGains, nbPertes, nbLegales - nbGains - nbPertes, resultatMax);
+	}
+}
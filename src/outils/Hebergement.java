@@ -0,0 +1,81 @@
+package outils;
+
+import java.io.IOException;
+import metier.reseau.Hebergeur;
+import metier.reseau.ServeurParties;
+import metier.reseau.ServeurThreads;
+
+/**
+ * Outil en ligne de commande (sans interface graphique) qui héberge des parties en
+ * réseau avec un {@link Hebergeur} : les joueurs qui se connectent (bouton
+ * "Multijoueur", option "Rejoindre une partie") sont associés deux par deux en parties.
+ * Le nombre de connexions, de parties en cours et de coups relayés par seconde est
+ * affiché régulièrement.
+ *
+ * Modes du serveur : {@code nio} ({@link ServeurParties}, boucles d'événements),
+ * {@code virtuel} ou {@code plateforme} ({@link ServeurThreads}, un thread virtuel ou
+ * système par connexion).
+ *
+ * Utilisation (depuis le dossier bin) :
+ * <pre>
+ *   java outils.Hebergement [port] [nio|virtuel|plateforme] [nbBoucles]
+ * </pre>
+ *
+ * @author Ted Herambert
+ * @date 23/11/2024
+ * @version 1.0
+ */
+public class Hebergement
+{
+	// Intervalle entre deux affichages des statistiques, en millisecondes
+	private static final long INTERVALLE_STATISTIQUES = 10_000;
+
+	/**
+	 * Point d'entrée de l'outil.
+	 *
+	 * @param args [port] [nio|virtuel|plateforme] [nbBoucles]
+	 * @throws IOException          Si le port ne peut pas être ouvert.
+	 * @throws InterruptedException Si le thread principal est interrompu.
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException
+	{
+		int    port      = args.length > 0 ? Integer.parseInt(args[0]) : 1234;
+		String mode      = args.length > 1 ? args[1] : "nio";
+		int    nbBoucles = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+		Hebergeur serveur;
+		String    description;
+		switch(mode)
+		{
+			case "nio" :
+				serveur     = new ServeurParties(port, nbBoucles);
+				description = nbBoucles + " boucles d'événements";
+				break;
+			case "virtuel" :
+			case "plateforme" :
+				serveur     = new ServeurThreads(port, mode.equals("virtuel"));
+				description = null;
+				break;
+			default :
+				System.out.println("Mode inconnu : " + mode + " (nio, virtuel ou plateforme)");
+				return;
+		}
+		serveur.demarrer();
+
+		if(serveur instanceof ServeurThreads)
+			description = ((ServeurThreads) serveur).estVirtuel() ? "un thread virtuel par connexion" : "un thread système par connexion";
+		System.out.println("Serveur de parties sur le port " + serveur.getPort() + " (" + description + ")");
+
+		long nbCoupsPrecedent = 0;
+		while(true)
+		{
+			Thread.sleep(INTERVALLE_STATISTIQUES);
+
+			long nbCoups = serveur.getNbCoupsRelayes();
+			System.out.printf("%d connexions, %d parties en cours, %.0f coups relayés/s%n",
+			                  serveur.getNbConnexions(), serveur.getNbPartiesEnCours(),
+			                  (nbCoups - nbCoupsPrecedent) * 1000.0 / INTERVALLE_STATISTIQUES);
+			nbCoupsPrecedent = nbCoups;
+		}
+	}
+}
@@ -0,0 +1,279 @@
+package outils;
+
+import constants.Couleur;
+import metier.Coup;
+import metier.Echiquier;
+import metier.piece.Piece;
+import metier.piece.Pion;
+import metier.utils.Fen;
+
+/**
+ * Outil en ligne de commande (sans interface graphique) qui compte les positions 
+ * atteignables à une profondeur donnée ("perft").
+ * Il permet de vérifier la génération des coups, en comparant les résultats à une 
+ * table de référence, et d'en mesurer la vitesse (positions par seconde).
+ * 
+ * Utilisation (depuis le dossier bin) :
+ * <pre>
+ *   java outils.Perft                        vérifie la table de référence
+ *   java outils.Perft 5                      perft de profondeur 5 depuis la position de départ
+ *   java outils.Perft 4 "8/8/8/3k4/8/8/3P4/3K4 w"  perft depuis une position FEN
+ *   java outils.Perft 3 --sondage            génère les coups avec les règles de référence (64 cases)
+ *   java outils.Perft 3 --detail             affiche le nombre de positions pour chaque coup
+ * </pre>
+ * 
+ * L'option --sondage génère les coups sans les bitboards : chaque case d'arrivée est 
+ * testée avec une implémentation indépendante des règles (géométrie des déplacements 
+ * et cases libres sur le chemin, lues avec {@link Echiquier#getPiece(int, int)}). 
+ * Les deux générations doivent donner les mêmes nombres de positions.
+ * 
+ * Règles prises en compte : celles du jeu (pas de roque, ni de prise en passant, 
+ * ni d'échec). La partie se termine lorsqu'un roi est capturé : une position 
+ * dans laquelle le joueur qui doit jouer n'a plus de roi n'a donc aucun coup.
+ * 
+ * @author Ted Herambert
+ * @date 23/11/2024
+ * @version 1.0
+ */
+public class Perft
+{
+	// Table de référence : positions et nombre de positions atteintes aux profondeurs 1, 2, 3...
+	// Les valeurs diffèrent des valeurs habituelles des échecs à cause des règles simplifiées 
+	// (pas d'échec, ni de roque, ni de prise en passant, promotion en reine uniquement, 
+	// et avance de deux cases du pion dès que la case d'arrivée est libre).
+	private static final String[] TAB_FEN_REFERENCE = {
+		Fen.DEPART,
+		"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w",
+		"8/2P1k3/8/8/8/8/3Kp3/8 w",
+		"rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w"
+	};
+
+	private static final long[][] TAB_NB_REFERENCE = {
+		{ 20, 400, 8982, 201378, 5050956 },
+		{ 49, 2090, 102724, 4390310 },
+		{ 9, 80, 805, 7451, 116037, 1663010 },
+		{ 40, 1396, 58714, 2116403 }
+	};
+
+	private Echiquier echiquier;
+	private int[][]   tabCoups; // Un tableau de coups par profondeur, réutilisé
+	private boolean   sondage;  // true pour générer les coups avec les règles de référence
+
+	/**
+	 * Constructeur de Perft.
+	 * 
+	 * @param fen        La position de départ au format FEN.
+	 * @param profondeur La profondeur maximale.
+	 * @param sondage    {@code true} pour générer les coups en testant les 64 cases 
+	 *                   avec les règles de référence (voir {@link #deplacementReference(Piece, int, int)}).
+	 */
+	public Perft(String fen, int profondeur, boolean sondage)
+	{
+		this.echiquier = new Echiquier(Fen.lireDisposition(fen), Fen.lireTrait(fen));
+		this.tabCoups  = new int[profondeur + 1][Echiquier.NB_COUPS_MAX];
+		this.sondage   = sondage;
+	}
+
+	/**
+	 * Compte les positions atteintes à une profondeur donnée.
+	 * 
+	 * @param profondeur La profondeur.
+	 * @return Le nombre de positions.
+	 */
+	public long perft(int profondeur)
+	{
+		if(profondeur == 0) return 1;
+
+		int[] tabCoups = this.tabCoups[profondeur];
+		int   nbCoups  = this.genererCoups(tabCoups);
+
+		if(profondeur == 1) return nbCoups;
+
+		long nbPositions = 0;
+		for(int i = 0; i < nbCoups; i++)
+		{
+			this.echiquier.jouerCoup(tabCoups[i]);
+			nbPositions += this.perft(profondeur - 1);
+			this.echiquier.annulerCoup();
+		}
+		return nbPositions;
+	}
+
+	/**
+	 * Affiche le nombre de positions atteintes après chacun des coups de la position.
+	 * 
+	 * @param profondeur La profondeur.
+	 * @return Le nombre total de positions.
+	 */
+	public long detail(int profondeur)
+	{
+		int[] tabCoups = this.tabCoups[profondeur];
+		int   nbCoups  = this.genererCoups(tabCoups);
+
+		long nbPositions = 0;
+		for(int i = 0; i < nbCoups; i++)
+		{
+			this.echiquier.jouerCoup(tabCoups[i]);
+			long nb = this.perft(profondeur - 1);
+			this.echiquier.annulerCoup();
+
+			System.out.println(Coup.toString(tabCoups[i]) + " : " + nb);
+			nbPositions += nb;
+		}
+		return nbPositions;
+	}
+
+	/**
+	 * Génère les coups du joueur qui doit jouer.
+	 * 
+	 * @param tabCoups Le tableau à remplir.
+	 * @return Le nombre de coups.
+	 */
+	private int genererCoups(int[] tabCoups)
+	{
+		Couleur couleur = this.echiquier.getJoueurActif();
+
+		// Partie terminée : le roi du joueur qui doit jouer a été capturé
+		if(this.echiquier.getBitboard(couleur == Couleur.BLANC ? 6 : 12) == 0) return 0;
+
+		if(!this.sondage) return this.echiquier.genererCoups(couleur, tabCoups);
+
+		int nbCoups = 0;
+		for(int ligOrig = 0; ligOrig < 8; ligOrig++)
+			for(int colOrig = 0; colOrig < 8; colOrig++)
+			{
+				Piece piece = this.echiquier.getPiece(ligOrig, colOrig);
+				if(piece == null || piece.getCouleur() != couleur) continue;
+
+				for(int ligDest = 0; ligDest < 8; ligDest++)
+					for(int colDest = 0; colDest < 8; colDest++)
+						if(this.deplacementReference(piece, ligDest, colDest))
+							tabCoups[nbCoups++] = Coup.creer(ligOrig, colOrig, ligDest, colDest);
+			}
+		return nbCoups;
+	}
+
+	/**
+	 * Règles de référence : vérifie un déplacement case par case, sans les bitboards 
+	 * ni {@link Piece#deplacementValide(int, int)}, pour contrôler la génération des coups.
+	 * 
+	 * @param piece   La pièce à déplacer.
+	 * @param ligDest Ligne de destination.
+	 * @param colDest Colonne de destination.
+	 * @return {@code true} si le déplacement respecte les règles du jeu.
+	 */
+	private boolean deplacementReference(Piece piece, int ligDest, int colDest)
+	{
+		int   dLig = ligDest - piece.getLig();
+		int   dCol = colDest - piece.getCol();
+		Piece dest = this.echiquier.getPiece(ligDest, colDest);
+
+		// Ni sur place, ni sur une pièce de même couleur
+		if(dLig == 0 && dCol == 0 || dest != null && dest.getCouleur() == piece.getCouleur()) return false;
+
+		int num = (piece.getNum() - 1) % 6 + 1;
+		switch(num)
+		{
+			case 1 : // Pion : avance d'une case (de deux depuis sa case de départ) vers une case vide, capture en diagonale
+				int dir = piece.getCouleur() == Couleur.BLANC ? -1 : 1;
+				if(dest != null) return dLig == dir && Math.abs(dCol) == 1;
+				return dCol == 0 && (dLig == dir || dLig == 2 * dir && ((Pion) piece).getCaseDepart());
+
+			case 3 : // Cavalier
+				return Math.abs(dLig) * Math.abs(dCol) == 2;
+
+			case 6 : // Roi
+				return Math.abs(dLig) <= 1 && Math.abs(dCol) <= 1;
+
+			default : // Tour, Fou, Reine : en ligne droite, sans pièce sur le chemin
+				boolean droite    = dLig == 0 || dCol == 0;
+				boolean diagonale = Math.abs(dLig) == Math.abs(dCol);
+				if(!(num == 2 && droite || num == 4 && diagonale || num == 5 && (droite || diagonale))) return false;
+
+				int pasLig = Integer.signum(dLig), pasCol = Integer.signum(dCol);
+				for(int k = 1; k < Math.max(Math.abs(dLig), Math.abs(dCol)); k++)
+					if(this.echiquier.getPiece(piece.getLig() + k * pasLig, piece.getCol() + k * pasCol) != null) return false;
+				return true;
+		}
+	}
+
+	/**
+	 * Lance un perft et affiche le résultat et la vitesse.
+	 * 
+	 * @param fen        La position au format FEN.
+	 * @param profondeur La profondeur.
+	 * @param sondage    {@code true} pour générer les coups avec les règles de référence.
+	 * @param detail     {@code true} pour afficher le détail par coup.
+	 * @return Le nombre de positions.
+	 */
+	private static long lancer(String fen, int profondeur, boolean sondage, boolean detail)
+	{
+		Perft perft = new Perft(fen, profondeur, sondage);
+
+		long debut       = System.nanoTime();
+		long nbPositions = detail ? perft.detail(profondeur) : perft.perft(profondeur);
+		long duree       = System.nanoTime() - debut;
+
+		System.out.printf("perft(%d) = %d  (%.3f s, %.0f positions/s)%n",
+		                  profondeur, nbPositions, duree / 1e9, nbPositions / (duree / 1e9));
+		return nbPositions;
+	}
+
+	/**
+	 * Vérifie la génération des coups sur toutes les positions de la table de référence.
+	 * 
+	 * @param sondage {@code true} pour générer les coups avec les règles de référence.
+	 * @return {@code true} si tous les résultats sont corrects.
+	 */
+	private static boolean verifier(boolean sondage)
+	{
+		boolean ok = true;
+		for(int i = 0; i < TAB_FEN_REFERENCE.length; i++)
+		{
+			System.out.println(TAB_FEN_REFERENCE[i]);
+			for(int p = 1; p <= TAB_NB_REFERENCE[i].length; p++)
+			{
+				long nbPositions = Perft.lancer(TAB_FEN_REFERENCE[i], p, sondage, false);
+				if(nbPositions != TAB_NB_REFERENCE[i][p - 1])
+				{
+					System.out.println("  ERREUR : " + TAB_NB_REFERENCE[i][p - 1] + " attendu");
+					ok = false;
+				}
+			}
+		}
+
+		System.out.println(ok ? "Table de référence : OK" : "Table de référence : ERREUR");
+		return ok;
+	}
+
+	/**
+	 * Point d'entrée de l'outil.
+	 * 
+	 * @param args [profondeur] [position FEN] [--sondage] [--detail]
+	 */
+	public static void main(String[] args)
+	{
+		int     profondeur = 0;
+		String  fen        = Fen.DEPART;
+		boolean sondage    = false;
+		boolean detail     = false;
+
+		for(String arg : args)
+		{
+			if     (arg.equals("--sondage"))  sondage    = true;
+			else if(arg.equals("--detail" ))  detail     = true;
+			else if(arg.matches("\\d+"))      profondeur = Integer.parseInt(arg);
+			else                               fen        = arg;
+		}
+
+		if(profondeur == 0)
+		{
+			if(!Perft.verifier(sondage)) System.exit(1);
+		}
+		else
+		{
+			System.out.println(fen);
+			Perft.lancer(fen, profondeur, sondage, detail);
+		}
+	}
+}
@@ -0,0 +1,133 @@
+package outils;
+
+import java.io.IOException;
+
+import constants.AppConstants;
+import metier.Coup;
+import metier.Echiquier;
+import metier.moteur.Echange;
+import metier.moteur.Moteur;
+import metier.moteur.TableTransposition;
+import metier.moteur.TablesFinales;
+import metier.utils.Fen;
+
+/**
+ * Outil en ligne de commande (sans interface graphique) qui lance la recherche
+ * de l'ordinateur sur une position et affiche le coup trouvé, la profondeur atteinte,
+ * le nombre de noeuds par seconde et les statistiques de la table de transposition.
+ * Il permet notamment de choisir la taille de la table selon la machine.
+ *
+ * Utilisation (depuis le dossier bin) :
+ * <pre>
+ *   java outils.Recherche [dureeMs] [tailleMo] ["fen"] [--verification] [--sans-see] [--finales]
+ *   java outils.Recherche --see              vérifie l'évaluation des échanges sur des positions de référence
+ * </pre>
+ * L'option --verification compare l'évaluation incrémentale à un recalcul complet 
+ * à chaque évaluation (la recherche est alors beaucoup plus lente). L'option --sans-see 
+ * cherche aussi les captures perdantes dans la recherche de quiescence, pour mesurer 
+ * le nombre de noeuds économisés par l'évaluation des échanges. L'option --finales 
+ * utilise les tables de finales (voir {@link AppConstants#DOSSIER_FINALES}).
+ *
+ * @author Ted Herambert
+ * @date 23/11/2024
+ * @version 1.0
+ */
+public class Recherche
+{
+	// Positions de référence de l'évaluation des échanges : position, capture et signe attendu du gain
+	private static final String[] TAB_FEN_ECHANGES = {
+		"4k3/8/8/3p4/4P3/8/8/4K3 w",          // Pion non défendu
+		"4k3/8/2p5/3p4/8/8/8/3RK3 w",         // Tour contre pion défendu par un pion
+		"4k3/3r4/8/3p4/8/8/3R4/3RK3 w",       // Tours doublées (rayons X)
+		"3r2k1/8/4b3/3p4/8/2N5/8/3R2K1 w",    // Cavalier contre pion défendu par un fou et une tour
+		"6k1/8/4bn2/3p4/8/2N2B2/8/3R2K1 w"    // Le fou doit reprendre avant la tour
+	};
+	private static final String[] TAB_COUPS_ECHANGES = { "e4d5", "d1d5", "d2d5", "c3d5", "c3d5" };
+	private static final int[]    TAB_SIGNES_ECHANGES = { 1, -1, 1, -1, 1 };
+
+	/**
+	 * Point d'entrée de l'outil.
+	 *
+	 * @param args [dureeMs] [tailleMo] ["fen"] [--verification] [--sans-see] [--finales], ou --see
+	 * @throws IOException Si les tables de finales ne peuvent pas être lues.
+	 */
+	public static void main(String[] args) throws IOException
+	{
+		if(args.length == 1 && args[0].equals("--see"))
+		{
+			Recherche.verifierEchanges();
+			return;
+		}
+
+		long    dureeMs      = 1000;
+		int     tailleMo     = 64;
+		String  fen          = Fen.DEPART;
+		boolean verification = false;
+		boolean elagage      = true;
+		boolean finales      = false;
+
+		int nbNombres = 0;
+		for(String arg : args)
+		{
+			if     (arg.equals("--verification"))           verification = true;
+			else if(arg.equals("--sans-see"))                elagage      = false;
+			else if(arg.equals("--finales"))                 finales      = true;
+			else if(arg.matches("\\d+") && nbNombres++ == 0) dureeMs      = Long.parseLong(arg);
+			else if(arg.matches("\\d+"))                     tailleMo     = Integer.parseInt(arg);
+			else                                             fen          = arg;
+		}
+
+		TableTransposition table  = new TableTransposition(tailleMo);
+		Moteur             moteur = new Moteur(dureeMs, table);
+		moteur.setVerification(verification);
+		moteur.setElagageEchange(elagage);
+		if(finales) moteur.setFinales(TablesFinales.ouvrir(AppConstants.DOSSIER_FINALES));
+
+		long debut = System.nanoTime();
+		int  coup  = moteur.chercher(Fen.lireDisposition(fen), Fen.lireTrait(fen));
+		long duree = System.nanoTime() - debut;
+
+		System.out.println(fen);
+		System.out.println("Meilleur coup : " + (coup == Coup.AUCUN ? "aucun" : Coup.toString(coup))
+		                   + ", score " + moteur.getScore() + ", profondeur " + moteur.getProfondeur()
+		                   + (moteur.estCoupFinales() ? " (tables de finales)" : ""));
+		System.out.printf ("%d noeuds en %.2f s : %.0f noeuds/s%n",
+		                   moteur.getNbNoeuds(), duree / 1e9, moteur.getNbNoeuds() * 1e9 / duree);
+		System.out.printf ("dont %d en quiescence (%.1f%%), %d captures perdantes écartées%n",
+		                   moteur.getNbNoeudsQuiescence(), 100.0 * moteur.getNbNoeudsQuiescence() / Math.max(1, moteur.getNbNoeuds()),
+		                   moteur.getNbCapturesElaguees());
+		if(finales)
+			System.out.println("Positions trouvées dans les tables de finales : " + moteur.getNbSondagesFinales());
+		System.out.println("Table : " + table.getStatistiques());
+
+		long nbLecturesPions = moteur.getNbSuccesPions() + moteur.getNbEchecsPions();
+		System.out.printf ("Table des pions : %d lectures, %.1f%% succès%n",
+		                   nbLecturesPions, 100.0 * moteur.getNbSuccesPions() / Math.max(1, nbLecturesPions));
+	}
+
+	/**
+	 * Vérifie le signe du gain estimé par l'évaluation des échanges sur les positions de référence.
+	 *
+	 * @return {@code true} si tous les résultats sont corrects.
+	 */
+	private static boolean verifierEchanges()
+	{
+		boolean ok = true;
+		for(int i = 0; i < TAB_FEN_ECHANGES.length; i++)
+		{
+			String    fen       = TAB_FEN_ECHANGES[i];
+			Echiquier echiquier = new Echiquier(Fen.lireDisposition(fen), Fen.lireTrait(fen));
+			int       gain      = new Echange(echiquier).evaluer(Coup.lire(TAB_COUPS_ECHANGES[i]));
+
+			System.out.println(fen + "  " + TAB_COUPS_ECHANGES[i] + " : " + gain);
+			if(Integer.signum(gain) != TAB_SIGNES_ECHANGES[i])
+			{
+				System.out.println("  ERREUR : gain " + (TAB_SIGNES_ECHANGES[i] > 0 ? "positif" : "négatif") + " attendu");
+				ok = false;
+			}
+		}
+
+		System.out.println(ok ? "Évaluation des échanges : OK" : "Évaluation des échanges : ERREUR");
+		return ok;
+	}
+}
@@ -0,0 +1,79 @@
+package outils;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import constants.Couleur;
+import metier.Echiquier;
+import metier.Partie;
+
+/**
+ * Outil en ligne de commande qui joue un grand nombre de parties aléatoires 
+ * avec {@link Partie}, sans interface graphique ni réseau, réparties sur plusieurs 
+ * threads, et affiche le nombre de parties et de coups joués par seconde.
+ * 
+ * Utilisation (depuis le dossier bin) :
+ * <pre>
+ *   java outils.Simulation [nbParties] [nbThreads]
+ * </pre>
+ * 
+ * @author Ted Herambert
+ * @date 23/11/2024
+ * @version 1.0
+ */
+public class Simulation
+{
+	// Nombre maximal de coups d'une partie (au-delà, la partie est arrêtée sans gagnant)
+	private static final int NB_COUPS_MAX_PARTIE = 400;
+
+	/**
+	 * Point d'entrée de l'outil.
+	 * 
+	 * @param args [nbParties] [nbThreads]
+	 * @throws InterruptedException Si le thread principal est interrompu.
+	 */
+	public static void main(String[] args) throws InterruptedException
+	{
+		final int nbParties = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+		final int nbThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+		final AtomicLong nbPartiesJouees = new AtomicLong();
+		final AtomicLong nbCoupsJoues    = new AtomicLong();
+		final AtomicLong nbVictoiresBlanc = new AtomicLong();
+
+		Thread[] tabThreads = new Thread[nbThreads];
+		long     debut      = System.nanoTime();
+
+		for(int t = 0; t < nbThreads; t++)
+		{
+			final long graine = t;
+			tabThreads[t] = new Thread(() -> {
+				Random random   = new Random(graine);
+				int[]  tabCoups = new int[Echiquier.NB_COUPS_MAX];
+
+				while(nbPartiesJouees.getAndIncrement() < nbParties)
+				{
+					Partie partie = new Partie();
+					int    nbCoups;
+					while(!partie.estTerminee() && partie.getNbCoupsJoues() < NB_COUPS_MAX_PARTIE)
+					{
+						nbCoups = partie.genererCoups(tabCoups);
+						if(nbCoups == 0) break;
+						partie.jouer(tabCoups[random.nextInt(nbCoups)]);
+					}
+
+					nbCoupsJoues.addAndGet(partie.getNbCoupsJoues());
+					if(partie.getGagnant() == Couleur.BLANC) nbVictoiresBlanc.incrementAndGet();
+				}
+			});
+			tabThreads[t].start();
+		}
+
+		for(Thread thread : tabThreads)
+			thread.join();
+
+		double duree = (System.nanoTime() - debut) / 1e9;
+		System.out.printf("%d parties, %d coups en %.2f s (%d threads) : %.0f parties/s, %.0f coups/s, %d victoires des blancs%n",
+		                  nbParties, nbCoupsJoues.get(), duree, nbThreads, 
+		                  nbParties / duree, nbCoupsJoues.get() / duree, nbVictoiresBlanc.get());
+	}
+}